@@ -0,0 +1,102 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.benchmarks;
+
+import com.example.workaagencyapi.benchmarks.fixtures.VacancyFixtures;
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.service.aggregate.VacancyAggregates;
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The {@code getVacanciesCountByCity} and {@code getTop10PopularTitles} pipelines.
+ * <p>
+ * The {@code query*} benchmarks are the original conversions of the repository rows (the database round trip
+ * itself is not included); the {@code aggregates*} benchmarks read the snapshots kept by {@link VacancyAggregates},
+ * and {@code aggregatesSave} measures keeping them up to date for a saved batch of 100 vacancies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class AggregationBenchmark {
+
+    @Param({"100", "5000"})
+    private int distinctValues;
+
+    private List<Map<String, Object>> cityRows;
+
+    private List<Map<String, Object>> titleRows;
+
+    private VacancyAggregates vacancyAggregates;
+
+    private List<VacancyTable> savedBatch;
+
+    @Setup
+    public void setUp() {
+        cityRows = VacancyFixtures.cityCountRows(distinctValues, 7);
+        titleRows = VacancyFixtures.titleCountRows(distinctValues);
+
+        VacanciesRepository repository = Mockito.mock(VacanciesRepository.class);
+        ConfigLoader configLoader = Mockito.mock(ConfigLoader.class);
+        Mockito.when(repository.findCityCountsAsMap(Mockito.anyInt())).thenReturn(cityRows);
+        Mockito.when(repository.findTitleCounts(Mockito.anyInt())).thenReturn(titleRows);
+        Mockito.when(configLoader.getTopTitlesSize()).thenReturn(10);
+
+        vacancyAggregates = new VacancyAggregates(repository, configLoader);
+        vacancyAggregates.reconcile();
+
+        savedBatch = VacancyFixtures.vacancies(100, 3);
+    }
+
+    @Benchmark
+    public Map<String, Integer> queryCityCounts() {
+        Map<String, Integer> cityCounts = new HashMap<>();
+
+        for (Map<String, Object> result : cityRows) {
+            cityCounts.put((String) result.get("location"), ((Number) result.get("city_count")).intValue());
+        }
+
+        return cityCounts.entrySet()
+                .stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (e1, _) -> e1, LinkedHashMap::new));
+    }
+
+    @Benchmark
+    public List<Map<String, Integer>> queryTopTitles() {
+        return titleRows.stream()
+                .map(result -> Map.of((String) result.get("title"), ((Number) result.get("count")).intValue()))
+                .limit(10)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Map<String, Integer> aggregatesCityCounts() {
+        return vacancyAggregates.getCityCounts();
+    }
+
+    @Benchmark
+    public List<Map<String, Integer>> aggregatesTopTitles() {
+        return vacancyAggregates.getTopTitles();
+    }
+
+    @Benchmark
+    public Map<String, Integer> aggregatesSave() {
+        vacancyAggregates.onVacanciesSaved(savedBatch);
+
+        return vacancyAggregates.getCityCounts();
+    }
+
+}
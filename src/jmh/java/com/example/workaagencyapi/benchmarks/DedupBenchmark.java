@@ -0,0 +1,60 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.benchmarks;
+
+import com.example.workaagencyapi.benchmarks.fixtures.VacancyFixtures;
+import com.example.workaagencyapi.service.dedup.VacancyUrlIndex;
+import org.openjdk.jmh.annotations.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Duplicate check of an incoming vacancy against the URLs already stored ({@code isVacancyExisting}).
+ * <p>
+ * {@code listContains} is the original check, {@code List.contains} over the URLs loaded from the database;
+ * {@code urlIndex} is the {@link VacancyUrlIndex}. Each invocation checks one stored and one new URL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--enable-preview", "-Xmx2g"})
+public class DedupBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int storedRows;
+
+    private List<String> storedUrls;
+
+    private VacancyUrlIndex urlIndex;
+
+    private String storedUrl;
+
+    private String newUrl;
+
+    @Setup
+    public void setUp() {
+        storedUrls = VacancyFixtures.urls(storedRows, 1);
+        urlIndex = new VacancyUrlIndex(null);
+        urlIndex.addAll(storedUrls);
+
+        storedUrl = storedUrls.get(storedRows / 2);
+        newUrl = VacancyFixtures.urls(1, 2).getFirst();
+    }
+
+    @Benchmark
+    public boolean listContains() {
+        return storedUrls.contains(storedUrl) & storedUrls.contains(newUrl);
+    }
+
+    @Benchmark
+    public boolean urlIndex() {
+        return urlIndex.contains(storedUrl) & urlIndex.contains(newUrl);
+    }
+
+}
@@ -0,0 +1,70 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.benchmarks;
+
+import com.example.workaagencyapi.benchmarks.fixtures.HeapMeter;
+import com.example.workaagencyapi.benchmarks.fixtures.VacancyFixtures;
+import com.example.workaagencyapi.repositories.DescriptionStore;
+import com.example.workaagencyapi.tables.VacancyTable;
+import java.lang.ref.Reference;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prints the storage and heap footprint of the vacancy descriptions, inline and compressed.
+ * <p>
+ * Usage: {@code DescriptionFootprint [vacancies] [seed]}. Storage is the payload of the description column
+ * (UTF-8 text inline, deflated bytes compressed); heap is the live heap held by the vacancies of a full
+ * table scan, loaded with and without their descriptions. On a PostgreSQL database, compare
+ * {@code pg_total_relation_size('vacancies')} (plus {@code 'vacancy_descriptions'}) before and after the migration.
+ */
+public final class DescriptionFootprint {
+
+    private DescriptionFootprint() {
+    }
+
+    /**
+     * Measures and prints the footprint.
+     *
+     * @param args optionally the number of vacancies and the seed
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+
+        long rawBytes = 0;
+        long compressedBytes = 0;
+
+        for (VacancyTable vacancy : VacancyFixtures.vacancies(count, seed)) {
+            rawBytes += vacancy.getDescription().getBytes(StandardCharsets.UTF_8).length;
+            compressedBytes += DescriptionStore.compress(vacancy.getDescription()).length;
+        }
+
+        long heapWithDescriptions = retainedHeap(count, seed, true);
+        long heapWithoutDescriptions = retainedHeap(count, seed, false);
+
+        System.out.println(STR."Vacancies:                 \{count}");
+        System.out.println(STR."Description storage:       \{rawBytes / 1024} KiB inline, \{compressedBytes / 1024} KiB compressed (\{String.format("%.1f", (double) rawBytes / compressedBytes)}x)");
+        System.out.println(STR."Heap of a full table scan: \{heapWithDescriptions / 1024} KiB with descriptions, \{heapWithoutDescriptions / 1024} KiB without");
+    }
+
+    private static long retainedHeap(int count, long seed, boolean withDescriptions) {
+        long before = HeapMeter.usedHeap();
+        List<VacancyTable> loaded = new ArrayList<>(VacancyFixtures.vacancies(count, seed));
+
+        if (!withDescriptions) {
+            loaded.forEach(vacancy -> vacancy.setDescription(null));
+        }
+
+        long retained = HeapMeter.usedHeap() - before;
+        Reference.reachabilityFence(loaded);
+
+        return retained;
+    }
+
+}
@@ -0,0 +1,91 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.benchmarks;
+
+import com.example.workaagencyapi.benchmarks.fixtures.VacancyFixtures;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deep-page latency of the two {@code /api/v1/vacancies} paging modes, against an embedded H2 database.
+ * <p>
+ * {@code offset} is the page-number mode: an OFFSET scan plus the count query. {@code keyset} is the cursor
+ * mode: a seek on the primary key below the last id of the previous page, without a count. Absolute numbers
+ * differ on PostgreSQL, but the growth with the page depth has the same shape.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class PaginationBenchmark {
+
+    private static final int ROWS = 200_000;
+    private static final int PAGE_SIZE = 20;
+
+    private static final String COLUMNS = "id, slug, company_name, title, remote, url, location, created_at";
+
+    @Param({"1", "100", "5000"})
+    private int page;
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private int lastIdOfPreviousPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE vacancies (id INT PRIMARY KEY, slug VARCHAR(255), company_name VARCHAR(255), " +
+                "title VARCHAR(255), description TEXT, remote BOOLEAN, url VARCHAR(255), location VARCHAR(255), created_at BIGINT)");
+
+        List<VacancyTable> vacancies = VacancyFixtures.vacancies(ROWS, 11);
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            VacancyTable v = vacancies.get(i);
+            rows.add(new Object[]{ROWS - i, v.getSlug(), v.getCompany_name(), v.getTitle(), v.getDescription(),
+                    v.isRemote(), v.getUrl(), v.getLocation(), v.getCreated_at()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO vacancies VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        // PostgreSQL walks the primary key backwards for ORDER BY id DESC; H2 needs a descending index for that
+        jdbcTemplate.execute("CREATE INDEX idx_vacancies_id_desc ON vacancies (id DESC)");
+
+        lastIdOfPreviousPage = ROWS - (page - 1) * PAGE_SIZE + 1;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.shutdown();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> offset() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                STR."SELECT \{COLUMNS} FROM vacancies ORDER BY id DESC LIMIT ? OFFSET ?", PAGE_SIZE, (page - 1) * PAGE_SIZE);
+        jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vacancies", Long.class);
+
+        return rows;
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> keyset() {
+        return jdbcTemplate.queryForList(
+                STR."SELECT \{COLUMNS} FROM vacancies WHERE id < ? ORDER BY id DESC LIMIT ?", lastIdOfPreviousPage, PAGE_SIZE);
+    }
+
+}
@@ -0,0 +1,72 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.benchmarks;
+
+import com.example.workaagencyapi.benchmarks.fixtures.VacancyFixtures;
+import com.example.workaagencyapi.service.upstream.VacancyStreamParser;
+import com.example.workaagencyapi.tables.VacancyTable;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of an arbeitnow API page into vacancies.
+ * <p>
+ * {@code treeModel} is the original {@code jobParsingService} path: the body read into a String, parsed into a
+ * JsonNode tree and each "data" element converted to a vacancy. {@code streaming} is the
+ * {@link VacancyStreamParser} used by the upstream client. The payload is generated, or read from the file given
+ * with {@code -Dbenchmark.payload=<file>} (a page recorded from the API or written by the fixture generator).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class ParsingBenchmark {
+
+    @Param({"100", "1000"})
+    private int vacanciesPerPage;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private VacancyStreamParser streamParser;
+
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        String recorded = System.getProperty("benchmark.payload");
+
+        payload = recorded != null
+                ? Files.readAllBytes(Path.of(recorded))
+                : VacancyFixtures.arbeitnowPage(VacancyFixtures.vacancies(vacanciesPerPage, 42), 1, objectMapper);
+        streamParser = new VacancyStreamParser(objectMapper);
+    }
+
+    @Benchmark
+    public void treeModel(Blackhole blackhole) throws IOException {
+        JsonNode root = objectMapper.readTree(new String(payload, StandardCharsets.UTF_8));
+
+        for (JsonNode node : root.path("data")) {
+            blackhole.consume(objectMapper.treeToValue(node, VacancyTable.class));
+        }
+    }
+
+    @Benchmark
+    public int streaming(Blackhole blackhole) throws IOException {
+        return streamParser.parse(new ByteArrayInputStream(payload), blackhole::consume);
+    }
+
+}
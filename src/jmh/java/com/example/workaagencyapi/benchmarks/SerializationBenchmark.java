@@ -0,0 +1,88 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.benchmarks;
+
+import com.example.workaagencyapi.benchmarks.fixtures.VacancyFixtures;
+import com.example.workaagencyapi.config.AppConfig;
+import com.example.workaagencyapi.dto.VacancySummary;
+import com.example.workaagencyapi.tables.VacancyTable;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a page of the {@code /api/v1/vacancies} response.
+ * <p>
+ * {@code fullEntities} is the original {@code Page<VacancyTable>} with descriptions; {@code summaries} is the
+ * current {@code Page<VacancySummary>}; {@code sparseSummaries} selects three fields, as with
+ * {@code ?fields=id,title,url}. All use the application's ObjectMapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class SerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private ObjectWriter sparseWriter;
+
+    private Page<VacancyTable> entityPage;
+
+    private Page<VacancySummary> summaryPage;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new AppConfig().objectMapper();
+        sparseWriter = objectMapper.writer(new SimpleFilterProvider().addFilter(VacancySummary.FIELDS_FILTER,
+                SimpleBeanPropertyFilter.filterOutAllExcept(Set.of("id", "title", "url"))));
+
+        List<VacancyTable> vacancies = VacancyFixtures.vacancies(pageSize, 5);
+        for (int i = 0; i < vacancies.size(); i++) {
+            vacancies.get(i).setId(100_000 - i);
+        }
+
+        PageRequest pageable = PageRequest.of(0, pageSize);
+        entityPage = new PageImpl<>(vacancies, pageable, 50_000);
+        summaryPage = new PageImpl<>(vacancies.stream().map(SerializationBenchmark::summary).toList(), pageable, 50_000);
+    }
+
+    private static VacancySummary summary(VacancyTable v) {
+        return new VacancySummary(v.getId(), v.getSlug(), v.getCompany_name(), v.getTitle(), v.isRemote(), v.getUrl(),
+                v.getTags(), v.getJob_types(), v.getLocation(), v.getCreated_at());
+    }
+
+    @Benchmark
+    public byte[] fullEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(entityPage);
+    }
+
+    @Benchmark
+    public byte[] summaries() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summaryPage);
+    }
+
+    @Benchmark
+    public byte[] sparseSummaries() throws JsonProcessingException {
+        return sparseWriter.writeValueAsBytes(summaryPage);
+    }
+
+}
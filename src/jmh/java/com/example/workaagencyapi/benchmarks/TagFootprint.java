@@ -0,0 +1,93 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.benchmarks;
+
+import com.example.workaagencyapi.benchmarks.fixtures.HeapMeter;
+import com.example.workaagencyapi.benchmarks.fixtures.VacancyFixtures;
+import com.example.workaagencyapi.tables.VacancyTable;
+import java.lang.ref.Reference;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.UnaryOperator;
+
+/**
+ * Prints the storage and heap footprint of the tags and job types, as text arrays and dictionary-encoded.
+ * <p>
+ * Usage: {@code TagFootprint [vacancies] [seed]}. Row sizes follow the PostgreSQL layout of a one-dimensional
+ * {@code varchar[]} (24-byte header, then a 4-byte length and the text of each element, 4-byte aligned) and of
+ * the packed ids in {@code bytea} (1-byte header, 4 bytes per id); check them on a database with
+ * {@code SELECT avg(pg_column_size(tag_ids) + pg_column_size(job_type_ids)) FROM vacancies}. Heap is the live
+ * heap of the tag and job type arrays of a full table scan, with a string per row as loaded from text arrays,
+ * and with the shared strings of the dictionary.
+ */
+public final class TagFootprint {
+
+    private TagFootprint() {
+    }
+
+    /**
+     * Measures and prints the footprint.
+     *
+     * @param args optionally the number of vacancies and the seed
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+
+        List<VacancyTable> vacancies = VacancyFixtures.vacancies(count, seed);
+        vacancies.forEach(vacancy -> vacancy.setDescription(null));
+        Set<String> symbols = new HashSet<>();
+        long textArrayBytes = 0;
+        long packedBytes = 0;
+
+        for (VacancyTable vacancy : vacancies) {
+            for (String[] values : List.of(vacancy.getTags(), vacancy.getJob_types())) {
+                textArrayBytes += textArraySize(values);
+                packedBytes += 1 + Integer.BYTES * values.length;
+                symbols.addAll(Arrays.asList(values));
+            }
+        }
+
+        Map<String, String> dictionary = new HashMap<>();
+        symbols.forEach(symbol -> dictionary.put(symbol, symbol));
+
+        long heapOfCopies = retainedHeap(vacancies, String::new);
+        long heapOfShared = retainedHeap(vacancies, dictionary::get);
+
+        System.out.println(STR."Vacancies:            \{count}, \{symbols.size()} distinct tags and job types");
+        System.out.println(STR."Row size (both cols): \{String.format("%.1f", (double) textArrayBytes / count)} bytes as varchar[], \{String.format("%.1f", (double) packedBytes / count)} bytes packed");
+        System.out.println(STR."Column data:          \{textArrayBytes / 1024} KiB as varchar[], \{packedBytes / 1024} KiB packed");
+        System.out.println(STR."Heap of a full scan:  \{heapOfCopies / 1024} KiB with a string per row, \{heapOfShared / 1024} KiB with shared strings");
+    }
+
+    private static long textArraySize(String[] values) {
+        long size = 24;
+
+        for (String value : values) {
+            size += (4 + value.getBytes(StandardCharsets.UTF_8).length + 3) & ~3;
+        }
+
+        return size;
+    }
+
+    private static long retainedHeap(List<VacancyTable> vacancies, UnaryOperator<String> load) {
+        long before = HeapMeter.usedHeap();
+        List<String[][]> loaded = new ArrayList<>(vacancies.size());
+
+        for (VacancyTable vacancy : vacancies) {
+            loaded.add(new String[][]{
+                    Arrays.stream(vacancy.getTags()).map(load).toArray(String[]::new),
+                    Arrays.stream(vacancy.getJob_types()).map(load).toArray(String[]::new)});
+        }
+
+        long retained = HeapMeter.usedHeap() - before;
+        Reference.reachabilityFence(loaded);
+
+        return retained;
+    }
+
+}
@@ -0,0 +1,117 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.benchmarks;
+
+import com.example.workaagencyapi.benchmarks.fixtures.VacancyFixtures;
+import com.example.workaagencyapi.config.AppConfig;
+import com.example.workaagencyapi.dto.VacancySummary;
+import com.example.workaagencyapi.tables.VacancyTable;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding and decoding of the negotiated response formats of the API.
+ * <p>
+ * {@code page} is a 20-item {@code Page<VacancySummary>} of {@code /api/v1/vacancies}; {@code cityCounts} is the
+ * map of {@code /api/v1/vacancies/city-counts} for 500 locations. Each format uses the mapper of its message
+ * converter in {@link AppConfig}. The setup prints the size of each payload, raw and gzipped, as sent on the wire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class WireFormatBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final int CITIES = 500;
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"page", "cityCounts"})
+    private String payload;
+
+    private ObjectMapper objectMapper;
+
+    private Object value;
+
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        AppConfig appConfig = new AppConfig();
+        objectMapper = switch (format) {
+            case "json" -> appConfig.objectMapper();
+            case "smile" -> appConfig.smileHttpMessageConverter().getObjectMapper();
+            case "cbor" -> appConfig.cborHttpMessageConverter().getObjectMapper();
+            default -> throw new IllegalArgumentException(STR."Unknown format: \{format}");
+        };
+        value = switch (payload) {
+            case "page" -> page();
+            case "cityCounts" -> cityCounts();
+            default -> throw new IllegalArgumentException(STR."Unknown payload: \{payload}");
+        };
+        encoded = objectMapper.writeValueAsBytes(value);
+
+        System.out.println(STR."\n\{format} \{payload}: \{encoded.length} bytes, \{gzip(encoded).length} bytes gzipped");
+    }
+
+    private static PageImpl<VacancySummary> page() {
+        List<VacancyTable> vacancies = VacancyFixtures.vacancies(PAGE_SIZE, 5);
+        for (int i = 0; i < vacancies.size(); i++) {
+            vacancies.get(i).setId(100_000 - i);
+        }
+
+        List<VacancySummary> summaries = vacancies.stream()
+                .map(v -> new VacancySummary(v.getId(), v.getSlug(), v.getCompany_name(), v.getTitle(), v.isRemote(),
+                        v.getUrl(), v.getTags(), v.getJob_types(), v.getLocation(), v.getCreated_at()))
+                .toList();
+        return new PageImpl<>(summaries, PageRequest.of(0, PAGE_SIZE), 50_000);
+    }
+
+    private static Map<String, Integer> cityCounts() {
+        Map<String, Integer> cityCounts = new LinkedHashMap<>();
+        VacancyFixtures.cityCountRows(CITIES, 5).forEach(row ->
+                cityCounts.put((String) row.get("location"), ((Number) row.get("city_count")).intValue()));
+        return cityCounts;
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return objectMapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public JsonNode decode() throws IOException {
+        return objectMapper.readTree(encoded);
+    }
+
+}
@@ -0,0 +1,53 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.benchmarks.fixtures;
+
+import com.example.workaagencyapi.tables.VacancyTable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes arbeitnow API payloads generated by {@link VacancyFixtures} to files, to record a fixed data set for
+ * comparing implementations offline.
+ * <p>
+ * Usage: {@code FixtureGenerator <directory> [pages] [vacancies per page] [seed]}. The parsing benchmark reads
+ * such a file, or a page recorded from the real API, when run with {@code -Dbenchmark.payload=<file>}.
+ */
+public final class FixtureGenerator {
+
+    private FixtureGenerator() {
+    }
+
+    /**
+     * Generates the payload files.
+     *
+     * @param args the output directory, then optionally the number of pages, vacancies per page and the seed
+     * @throws IOException if a file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(args.length > 0 ? args[0] : "target/jmh-fixtures");
+        int pages = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int perPage = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<VacancyTable> vacancies = VacancyFixtures.vacancies(pages * perPage, seed);
+        Files.createDirectories(directory);
+
+        for (int page = 1; page <= pages; page++) {
+            List<VacancyTable> pageVacancies = vacancies.subList((page - 1) * perPage, page * perPage);
+            Path file = directory.resolve(STR."arbeitnow-page-\{page}.json");
+
+            Files.write(file, VacancyFixtures.arbeitnowPage(pageVacancies, page, objectMapper));
+            System.out.println(STR."Wrote \{file}");
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.benchmarks.fixtures;
+
+/**
+ * Rough live heap measurement for the footprint reports, which compare data sets far larger than its error.
+ */
+public final class HeapMeter {
+
+    private HeapMeter() {
+    }
+
+    /**
+     * @return the heap in use after a few full collections, in bytes
+     */
+    public static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
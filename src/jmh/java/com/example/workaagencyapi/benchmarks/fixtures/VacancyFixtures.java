@@ -0,0 +1,230 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.benchmarks.fixtures;
+
+import com.example.workaagencyapi.tables.VacancyTable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic generators of vacancies and arbeitnow API payloads for the benchmarks.
+ * <p>
+ * The same seed always produces the same data. Locations, titles and tags follow a skewed distribution
+ * similar to the upstream job board: a few values are very common and most are rare.
+ */
+public final class VacancyFixtures {
+
+    private static final String[] CITIES = {"Berlin", "Munich", "Hamburg", "Frankfurt", "Cologne", "Stuttgart",
+            "Dusseldorf", "Leipzig", "Dresden", "Hannover", "Nuremberg", "Bremen", "Essen", "Dortmund", "Remote"};
+    private static final String[] ROLES = {"Software Engineer", "Backend Developer", "Frontend Developer",
+            "Data Scientist", "DevOps Engineer", "Product Manager", "Sales Manager", "Werkstudent", "Accountant",
+            "UX Designer", "Customer Success Manager", "Java Developer"};
+    private static final String[] SENIORITIES = {"", "Senior ", "Junior ", "Lead ", "Principal "};
+    private static final String[] TAGS = {"IT", "Software Development", "Java", "Python", "Sales", "Marketing",
+            "Finance", "Design", "Cloud", "Data", "Management", "Student"};
+    private static final String[] JOB_TYPES = {"full time", "part time", "internship", "working student"};
+
+    private static final String[] DESCRIPTION_SENTENCES = {
+            "We are looking for a motivated colleague to join our team.",
+            "You will design, build and run services used by thousands of customers every day.",
+            "Our product helps small businesses manage their invoices, payroll and taxes.",
+            "You work closely with product managers, designers and other engineers.",
+            "You take ownership of features from the first idea to production.",
+            "Several years of professional experience in a similar role.",
+            "Fluent German or English, spoken and written.",
+            "Experience with cloud platforms and continuous delivery is a plus.",
+            "You enjoy mentoring others and sharing what you learn.",
+            "We offer flexible working hours and up to three remote days per week.",
+            "A yearly budget for conferences, books and training.",
+            "A modern office in the city centre with free drinks and fruit.",
+            "30 days of paid vacation and a company pension scheme.",
+            "Wir suchen zum nächstmöglichen Zeitpunkt eine engagierte Verstärkung für unser Team.",
+            "Du arbeitest eng mit unseren Kundinnen und Kunden zusammen.",
+            "Eine abgeschlossene Ausbildung oder ein Studium im relevanten Bereich.",
+            "Sehr gute Deutschkenntnisse in Wort und Schrift.",
+            "Unbefristeter Arbeitsvertrag, betriebliche Altersvorsorge und Jobrad.",
+            "Please send your application with your salary expectations and earliest start date.",
+            "We value diversity and welcome applications from all backgrounds."
+    };
+
+    private VacancyFixtures() {
+    }
+
+    /**
+     * Generates vacancies, newest first, as the upstream API lists them.
+     *
+     * @param count the number of vacancies
+     * @param seed  the random seed
+     * @return the generated vacancies, without ids
+     */
+    public static List<VacancyTable> vacancies(int count, long seed) {
+        Random random = new Random(seed);
+        List<VacancyTable> vacancies = new ArrayList<>(count);
+        long createdAt = 1_722_470_400L;
+
+        for (int i = 0; i < count; i++) {
+            String title = SENIORITIES[skewed(random, SENIORITIES.length)] + ROLES[skewed(random, ROLES.length)];
+            String company = STR."Company \{skewed(random, 2_000)}";
+            String slug = STR."\{title.toLowerCase().replace(' ', '-')}-\{seed}-\{i}";
+
+            vacancies.add(VacancyTable.builder()
+                    .slug(slug)
+                    .company_name(company)
+                    .title(title)
+                    .description(description(random))
+                    .remote(random.nextInt(4) == 0)
+                    .url(url(seed, i))
+                    .tags(pick(random, TAGS, 1 + random.nextInt(3)))
+                    .job_types(pick(random, JOB_TYPES, 1))
+                    .location(CITIES[skewed(random, CITIES.length)])
+                    .created_at(createdAt - i * 60L)
+                    .build());
+        }
+
+        return vacancies;
+    }
+
+    /**
+     * Generates vacancy URLs in the upstream format.
+     *
+     * @param count the number of URLs
+     * @param seed  the seed, also used to generate URLs of different vacancies
+     * @return the generated URLs
+     */
+    public static List<String> urls(int count, long seed) {
+        List<String> urls = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            urls.add(url(seed, i));
+        }
+
+        return urls;
+    }
+
+    private static String url(long seed, int i) {
+        return STR."https://www.arbeitnow.com/jobs/companies/company-\{seed}/vacancy-\{i}";
+    }
+
+    /**
+     * Serializes vacancies as an arbeitnow job board API page, with its "links" and "meta" objects.
+     *
+     * @param vacancies    the vacancies of the page
+     * @param page         the page number
+     * @param objectMapper the mapper used to write the payload
+     * @return the JSON payload
+     */
+    public static byte[] arbeitnowPage(List<VacancyTable> vacancies, int page, ObjectMapper objectMapper) {
+        ObjectNode root = objectMapper.createObjectNode();
+        ArrayNode data = root.putArray("data");
+
+        for (VacancyTable vacancy : vacancies) {
+            ObjectNode node = data.addObject();
+            node.put("slug", vacancy.getSlug());
+            node.put("company_name", vacancy.getCompany_name());
+            node.put("title", vacancy.getTitle());
+            node.put("description", vacancy.getDescription());
+            node.put("remote", vacancy.isRemote());
+            node.put("url", vacancy.getUrl());
+            node.set("tags", objectMapper.valueToTree(vacancy.getTags()));
+            node.set("job_types", objectMapper.valueToTree(vacancy.getJob_types()));
+            node.put("location", vacancy.getLocation());
+            node.put("created_at", vacancy.getCreated_at());
+        }
+
+        root.putObject("links")
+                .put("first", "https://www.arbeitnow.com/api/job-board-api?page=1")
+                .put("next", STR."https://www.arbeitnow.com/api/job-board-api?page=\{page + 1}");
+        root.putObject("meta")
+                .put("current_page", page)
+                .put("per_page", vacancies.size());
+
+        try {
+            return objectMapper.writeValueAsBytes(root);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Generates rows as returned by {@code VacanciesRepository.findCityCountsAsMap(int)}.
+     *
+     * @param cities the number of distinct locations
+     * @param seed   the random seed
+     * @return the rows, keyed by "location" and "city_count"
+     */
+    public static List<Map<String, Object>> cityCountRows(int cities, long seed) {
+        Random random = new Random(seed);
+        List<Map<String, Object>> rows = new ArrayList<>(cities);
+
+        for (int i = 0; i < cities; i++) {
+            rows.add(Map.of("location", STR."City \{i}", "city_count", (long) (1 + random.nextInt(5_000) / (1 + i % 50))));
+        }
+
+        return rows;
+    }
+
+    /**
+     * Generates rows as returned by {@code VacanciesRepository.findTitleCounts(int)}, most frequent first.
+     *
+     * @param titles the number of distinct titles
+     * @return the rows, keyed by "title" and "count"
+     */
+    public static List<Map<String, Object>> titleCountRows(int titles) {
+        List<Map<String, Object>> rows = new ArrayList<>(titles);
+
+        for (int i = 0; i < titles; i++) {
+            rows.add(Map.of("title", STR."Title \{i}", "count", (long) Math.max(1, titles - i)));
+        }
+
+        return rows;
+    }
+
+    /**
+     * @return an index in [0, bound) where small values are much more likely than large ones
+     */
+    private static int skewed(Random random, int bound) {
+        double u = random.nextDouble();
+
+        return Math.min(bound - 1, (int) (bound * u * u * u));
+    }
+
+    /**
+     * @return an HTML description of 8 to 30 sentences, in paragraphs and a bullet list, about 1-3 KB long
+     */
+    private static String description(Random random) {
+        StringBuilder description = new StringBuilder();
+        int sentences = 8 + random.nextInt(23);
+
+        for (int i = 0; i < sentences; i++) {
+            String sentence = DESCRIPTION_SENTENCES[random.nextInt(DESCRIPTION_SENTENCES.length)];
+
+            if (i % 6 == 3) {
+                description.append("<ul><li>").append(sentence).append("</li></ul>");
+            } else {
+                description.append("<p>").append(sentence).append("</p>");
+            }
+        }
+
+        return description.toString();
+    }
+
+    private static String[] pick(Random random, String[] values, int count) {
+        String[] picked = new String[count];
+
+        for (int i = 0; i < count; i++) {
+            picked[i] = values[skewed(random, values.length)];
+        }
+
+        return picked;
+    }
+
+}
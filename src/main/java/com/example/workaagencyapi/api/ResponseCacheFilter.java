@@ -0,0 +1,128 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.api;
+
+import com.example.workaagencyapi.service.cache.ResponseCache;
+import com.example.workaagencyapi.service.cache.ResponseCache.CachedResponse;
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Serves the read API from the {@link ResponseCache}.
+ * <p>
+ * GET requests to the paths listed in `response.cache.paths` are keyed by path, query string and Accept header.
+ * A hit is written from the cached bytes, or answered with 304 Not Modified when the request's If-None-Match
+ * carries the cached ETag; either way the controller is not invoked. A miss runs the controller and caches
+ * its 200 response.
+ * <p>
+ * As the key includes the Accept header, every response of a cached path carries `Vary: Accept`, replays and
+ * 304 answers included, so downstream caches key them the same way.
+ */
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private final ResponseCache responseCache;
+    private final Set<String> cachedPaths;
+
+    /**
+     * Constructs a new instance of {@link ResponseCacheFilter}.
+     *
+     * @param responseCache the cache of encoded responses
+     * @param configLoader  the configuration loader for retrieving the cached paths
+     */
+    @Autowired
+    public ResponseCacheFilter(ResponseCache responseCache, ConfigLoader configLoader) {
+        this.responseCache = responseCache;
+        this.cachedPaths = Set.copyOf(configLoader.getResponseCachePaths());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || !cachedPaths.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+        String key = cacheKey(request);
+        CachedResponse cached = responseCache.get(key);
+
+        if (cached != null) {
+            write(cached, request, response);
+
+            return;
+        }
+
+        long generation = responseCache.generation();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+
+        filterChain.doFilter(request, wrapper);
+
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK) {
+            CachedResponse computed = CachedResponse.of(wrapper.getContentAsByteArray(), wrapper.getContentType());
+            responseCache.put(key, computed, generation);
+
+            wrapper.setHeader(HttpHeaders.ETAG, computed.etag());
+
+            if (matchesETag(request, computed.etag())) {
+                wrapper.resetBuffer();
+                wrapper.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            }
+        }
+
+        wrapper.copyBodyToResponse();
+    }
+
+    private static void write(CachedResponse cached, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.ETAG, cached.etag());
+
+        if (matchesETag(request, cached.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.contentType());
+        response.setContentLength(cached.body().length);
+        response.getOutputStream().write(cached.body());
+    }
+
+    private static boolean matchesETag(HttpServletRequest request, String etag) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .anyMatch(candidate -> candidate.equals("*") || candidate.equals(etag));
+    }
+
+    private static String cacheKey(HttpServletRequest request) {
+        String query = request.getQueryString();
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+
+        return STR."\{request.getRequestURI()}?\{query == null ? "" : query}|\{accept == null ? "" : accept}";
+    }
+
+}
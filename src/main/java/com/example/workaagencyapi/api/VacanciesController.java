@@ -6,21 +6,41 @@
 
 package com.example.workaagencyapi.api;
 
+import com.example.workaagencyapi.config.AppConfig;
+import com.example.workaagencyapi.dto.CursorPage;
+import com.example.workaagencyapi.dto.FacetResult;
+import com.example.workaagencyapi.dto.SearchHit;
+import com.example.workaagencyapi.dto.TrendingResult;
+import com.example.workaagencyapi.dto.VacancySummary;
 import com.example.workaagencyapi.service.VacancyService;
+import com.example.workaagencyapi.service.facet.FacetQuery;
 import com.example.workaagencyapi.tables.VacancyTable;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Controller for handling requests related to vacancies.
+ * <p>
+ * Responses are written as JSON, or as Smile or CBOR to clients sending a matching `Accept` header.
  */
 @RestController
+@RequestMapping(produces = {MediaType.APPLICATION_JSON_VALUE, AppConfig.APPLICATION_SMILE_VALUE, MediaType.APPLICATION_CBOR_VALUE})
 public class VacanciesController {
 
     @Autowired
@@ -28,20 +48,171 @@ public class VacanciesController {
 
     /**
      * Retrieves a paginated list of vacancies based on the specified page number.
+     * <p>
+     * Descriptions are left out; use {@link #getVacancy(int)} for the full vacancy.
      *
-     * @param page the page number to retrieve, default is 1 (which corresponds to page 0 in pagination)
-     * @return a {@link ResponseEntity} containing a {@link Page} of {@link VacancyTable} entities,
+     * @param page   the page number to retrieve, default is 1 (which corresponds to page 0 in pagination)
+     * @param fields the {@link VacancySummary#FIELDS} to include in each vacancy, default is all of them
+     * @return a {@link ResponseEntity} containing a {@link Page} of {@link VacancySummary} projections,
+     *         {@link ResponseEntity#badRequest()} if an unknown field is requested,
      *         or {@link ResponseEntity#notFound()} if no vacancies are found
      */
     @GetMapping("/api/v1/vacancies")
-    public ResponseEntity<Page<VacancyTable>> getVacancies(@RequestParam(defaultValue = "1") int page) {
-        Page<VacancyTable> vacanciesPage = vacancyService.getPaginatedVacancies(page - 1);
+    public ResponseEntity<MappingJacksonValue> getVacancies(@RequestParam(defaultValue = "1") int page,
+                                                            @RequestParam(required = false) Set<String> fields) {
+        if (!areKnownFields(fields)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Page<VacancySummary> vacanciesPage = vacancyService.getPaginatedVacancies(page - 1);
 
         if (vacanciesPage.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok(vacanciesPage);
+        return ResponseEntity.ok(withFields(vacanciesPage, fields));
+    }
+
+    /**
+     * Retrieves a page of vacancies using keyset (cursor) pagination, newest first.
+     * <p>
+     * Selected instead of {@link #getVacancies(int, Set)} when the `after` parameter is present. Pass an empty `after`
+     * for the first page and the returned `nextCursor` for the following ones.
+     *
+     * @param after  the cursor returned with the previous page, or an empty string for the first page
+     * @param limit  the number of vacancies per page, default is the configured page size
+     * @param fields the {@link VacancySummary#FIELDS} to include in each vacancy, default is all of them
+     * @return a {@link ResponseEntity} containing a {@link CursorPage} of {@link VacancySummary} projections,
+     *         {@link ResponseEntity#badRequest()} if the cursor is malformed or an unknown field is requested,
+     *         or {@link ResponseEntity#notFound()} if no vacancies are found
+     */
+    @GetMapping(value = "/api/v1/vacancies", params = "after")
+    public ResponseEntity<MappingJacksonValue> getVacanciesAfter(@RequestParam String after,
+                                                                 @RequestParam(defaultValue = "0") int limit,
+                                                                 @RequestParam(required = false) Set<String> fields) {
+        if (!areKnownFields(fields)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        CursorPage<VacancySummary> vacanciesPage;
+
+        try {
+            vacanciesPage = vacancyService.getVacanciesAfter(after, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        if (vacanciesPage.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(withFields(vacanciesPage, fields));
+    }
+
+    /**
+     * Retrieves a single vacancy with all its fields, including the full description.
+     *
+     * @param id the id of the vacancy
+     * @return a {@link ResponseEntity} containing the {@link VacancyTable} entity,
+     *         or {@link ResponseEntity#notFound()} if there is no vacancy with this id
+     */
+    @GetMapping("/api/v1/vacancies/{id:\\d+}")
+    public ResponseEntity<VacancyTable> getVacancy(@PathVariable int id) {
+        return vacancyService.getVacancy(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Searches vacancies by title, company name, tags and description.
+     *
+     * @param q     the free-text query
+     * @param limit the maximum number of results, default is the configured page size
+     * @return a {@link ResponseEntity} containing the matching vacancies ranked by relevance,
+     *         {@link ResponseEntity#badRequest()} if the query is blank,
+     *         or {@link ResponseEntity#notFound()} if no vacancy matches
+     */
+    @GetMapping("/api/v1/vacancies/search")
+    public ResponseEntity<List<SearchHit>> searchVacancies(@RequestParam String q,
+                                                           @RequestParam(defaultValue = "0") int limit) {
+        if (q.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<SearchHit> hits = vacancyService.searchVacancies(q, limit);
+
+        if (hits.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(hits);
+    }
+
+    /**
+     * Streams the vacancies inserted into the database as server-sent events named "vacancy", with the
+     * {@link VacancySummary} as JSON data and the vacancy id as event id.
+     * <p>
+     * A reconnecting client sends the id of the last event received in `Last-Event-ID` and first receives the
+     * vacancies it missed. The stream is closed after `stream.emitter.timeout` ms, or earlier if the client
+     * falls too far behind, and is meant to be resumed the same way.
+     *
+     * @param lastEventId the id of the last vacancy received, or absent to only receive new vacancies
+     * @return an {@link SseEmitter} sending one event per inserted vacancy
+     */
+    @GetMapping(value = "/api/v1/vacancies/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamVacancies(@RequestHeader(name = "Last-Event-ID", required = false) Integer lastEventId) {
+        return vacancyService.streamVacancies(lastEventId);
+    }
+
+    /**
+     * Exports every vacancy, with its description, as newline-delimited JSON in ascending id order.
+     * <p>
+     * Meant for bulk consumers instead of walking the paginated list: the rows are streamed from a database
+     * cursor and written as they are read, so the export needs neither OFFSET nor COUNT queries.
+     *
+     * @param since the earliest `created_at` to export, in epoch seconds, default is all vacancies
+     * @return a {@link ResponseEntity} writing one JSON vacancy per line
+     */
+    @GetMapping(value = "/api/v1/vacancies/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportVacancies(@RequestParam(defaultValue = "0") long since) {
+        return ResponseEntity.ok(out -> vacancyService.exportVacancies(since, out));
+    }
+
+    /**
+     * Filters vacancies by tags, job types, location and remote flag, and counts the facet values of the matches.
+     * <p>
+     * Several values of the same parameter match any of them (all of them for tags with `tags_match=all`),
+     * and different parameters must all match.
+     *
+     * @param tags       the tags to match
+     * @param tagsMatch  "any" (default) or "all"
+     * @param jobTypes   the job types to match
+     * @param location   the locations to match
+     * @param remote     the remote flag to match, both if absent
+     * @param page       the page number to retrieve, default is 1
+     * @return a {@link ResponseEntity} containing a {@link FacetResult} with the matching vacancies and facet counts,
+     *         {@link ResponseEntity#badRequest()} if `tags_match` is neither "any" nor "all",
+     *         or {@link ResponseEntity#notFound()} if no vacancy matches
+     */
+    @GetMapping("/api/v1/vacancies/filter")
+    public ResponseEntity<FacetResult> filterVacancies(@RequestParam(required = false) Set<String> tags,
+                                                       @RequestParam(name = "tags_match", defaultValue = "any") String tagsMatch,
+                                                       @RequestParam(name = "job_types", required = false) Set<String> jobTypes,
+                                                       @RequestParam(required = false) Set<String> location,
+                                                       @RequestParam(required = false) Boolean remote,
+                                                       @RequestParam(defaultValue = "1") int page) {
+        if (!"any".equals(tagsMatch) && !"all".equals(tagsMatch)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        FacetQuery query = new FacetQuery(tags, "all".equals(tagsMatch), jobTypes, location, remote);
+        FacetResult result = vacancyService.filterVacancies(query, page - 1);
+
+        if (result.total() == 0) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(result);
     }
 
     /**
@@ -78,4 +249,69 @@ public class VacanciesController {
 
         return ResponseEntity.ok(topTitles);
     }
+
+    /**
+     * Retrieves the most used tags with the number of vacancies having them.
+     *
+     * @param limit the number of tags to return, default is the top titles size
+     * @return a {@link ResponseEntity} containing a list of maps, where each map represents a tag and its count,
+     *         most used first, or {@link ResponseEntity#notFound()} if no vacancy has tags
+     */
+    @GetMapping("/api/v1/tags/top")
+    public ResponseEntity<List<Map<String, Integer>>> getTopTags(@RequestParam(defaultValue = "0") int limit) {
+        List<Map<String, Integer>> topTags = vacancyService.getTopTags(limit);
+
+        if (topTags.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(topTags);
+    }
+
+    /**
+     * Retrieves the most frequent titles and companies of the vacancies created within a recent window.
+     * <p>
+     * The counts are estimates that exceed the true counts by at most the returned `maxError`.
+     *
+     * @param window the window length in hours or days, e.g. "24h" (default) or "7d", at most 7 days
+     * @param limit  the number of titles and companies to return, default is the top titles size
+     * @return a {@link ResponseEntity} containing a {@link TrendingResult},
+     *         {@link ResponseEntity#badRequest()} if the window is malformed or longer than 7 days,
+     *         or {@link ResponseEntity#notFound()} if no vacancy was created within the window
+     */
+    @GetMapping("/api/v1/trending")
+    public ResponseEntity<TrendingResult> getTrending(@RequestParam(defaultValue = "24h") String window,
+                                                      @RequestParam(defaultValue = "0") int limit) {
+        TrendingResult trending;
+
+        try {
+            trending = vacancyService.getTrending(window, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        if (trending.vacancies() == 0) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(trending);
+    }
+
+    private static boolean areKnownFields(Set<String> fields) {
+        return fields == null || VacancySummary.FIELDS.containsAll(fields);
+    }
+
+    /**
+     * Wraps a response body so that only the requested fields of each {@link VacancySummary} are serialized.
+     */
+    private static MappingJacksonValue withFields(Object body, Set<String> fields) {
+        SimpleBeanPropertyFilter filter = fields == null
+                ? SimpleBeanPropertyFilter.serializeAll()
+                : SimpleBeanPropertyFilter.filterOutAllExcept(fields);
+
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider().addFilter(VacancySummary.FIELDS_FILTER, filter));
+
+        return value;
+    }
 }
@@ -0,0 +1,54 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.api;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adds `Vary: Accept` to the response bodies of the {@link VacanciesController}.
+ * <p>
+ * The controller writes the same resource as JSON, Smile or CBOR depending on the Accept header, so shared
+ * caches and browsers must key its responses by that header as well; without it a cache could replay a CBOR
+ * body to a JSON client.
+ */
+@ControllerAdvice(assignableTypes = VacanciesController.class)
+public class VaryAcceptAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        addVaryAccept(response.getHeaders());
+
+        return body;
+    }
+
+    private static void addVaryAccept(HttpHeaders headers) {
+        List<String> vary = headers.getVary();
+
+        if (!vary.contains(HttpHeaders.ACCEPT)) {
+            List<String> updated = new ArrayList<>(vary);
+            updated.add(HttpHeaders.ACCEPT);
+            headers.setVary(updated);
+        }
+    }
+
+}
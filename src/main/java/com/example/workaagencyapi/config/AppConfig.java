@@ -6,10 +6,20 @@
 
 package com.example.workaagencyapi.config;
 
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 
 /**
  * Configuration class for defining beans used in the application.
@@ -18,27 +28,77 @@ import org.springframework.web.client.RestTemplate;
 public class AppConfig {
 
     /**
-     * Provides a {@link RestTemplate} bean.
+     * Media type of the Smile binary JSON format.
+     */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    /**
+     * Provides the {@link CloseableHttpClient} bean used for requests to the job board API.
      * <p>
-     * RestTemplate is used for making HTTP requests and interacting with RESTful web services.
+     * Connections are kept alive in a pool sized by `upstream.pool.max.connections`, requests are bounded
+     * by the configured connect and read timeouts, and gzip responses are decompressed transparently.
      *
-     * @return a new instance of RestTemplate
+     * @param configLoader the configuration loader for retrieving the pool size and timeouts
+     * @return a new instance of CloseableHttpClient
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public CloseableHttpClient upstreamHttpClient(ConfigLoader configLoader) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(configLoader.getUpstreamPoolMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(configLoader.getUpstreamPoolMaxConnections());
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(configLoader.getUpstreamConnectTimeout())
+                .setConnectTimeout(configLoader.getUpstreamConnectTimeout())
+                .setSocketTimeout(configLoader.getUpstreamReadTimeout())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
     }
 
     /**
      * Provides an {@link ObjectMapper} bean.
      * <p>
      * ObjectMapper is used for serializing and deserializing JSON data.
+     * Classes annotated with a {@link com.fasterxml.jackson.annotation.JsonFilter} are serialized in full
+     * unless a filter is supplied for the call.
      *
      * @return a new instance of ObjectMapper
      */
     @Bean
     public ObjectMapper objectMapper() {
-        return new ObjectMapper();
+        return withOptionalFilters(new ObjectMapper());
+    }
+
+    /**
+     * Provides the converter writing responses as Smile ({@value #APPLICATION_SMILE_VALUE}) to clients that
+     * accept it, configured like {@link #objectMapper()}.
+     *
+     * @return a new instance of MappingJackson2SmileHttpMessageConverter
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(withOptionalFilters(new SmileMapper()));
+    }
+
+    /**
+     * Provides the converter writing responses as CBOR ({@value MediaType#APPLICATION_CBOR_VALUE}) to clients
+     * that accept it, configured like {@link #objectMapper()}.
+     *
+     * @return a new instance of MappingJackson2CborHttpMessageConverter
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(withOptionalFilters(new CBORMapper()));
+    }
+
+    private static ObjectMapper withOptionalFilters(ObjectMapper objectMapper) {
+        objectMapper.setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
+
+        return objectMapper;
     }
 
 }
@@ -0,0 +1,77 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import javax.sql.DataSource;
+
+/**
+ * Configuration of the primary and replica connection pools.
+ * <p>
+ * The application uses a single {@link ReadWriteRoutingDataSource}: read-only transactions are served by the
+ * replica pool (`replica.datasource.*`), writes and read-write transactions by the primary pool
+ * (`spring.datasource.*`). Each pool is sized on its own.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Provides the pool of the primary database, configured by `spring.datasource.*`.
+     *
+     * @param properties the `spring.datasource` properties
+     * @return the primary pool
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Provides the pool of the read replica, configured by `replica.datasource.*`.
+     *
+     * @return the replica pool
+     */
+    @Bean
+    @ConfigurationProperties("replica.datasource")
+    public HikariDataSource replicaDataSource() {
+        return new HikariDataSource();
+    }
+
+    /**
+     * Provides the DataSource used by JPA, the JdbcTemplate and the SQL init scripts.
+     *
+     * @param primary the primary pool
+     * @param replica the replica pool
+     * @return the routing DataSource, obtaining connections lazily
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+    }
+
+    /**
+     * Provides the one-off schema migrations, applied after Hibernate has updated the schema.
+     *
+     * @param dataSource the routing DataSource, sending the migrations to the primary pool
+     * @return the schema migrations
+     */
+    @Bean
+    public SchemaMigrations schemaMigrations(DataSource dataSource) {
+        return new SchemaMigrations(dataSource);
+    }
+
+}
@@ -0,0 +1,51 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * DataSource that sends read-only transactions to the replica pool and everything else to the primary pool.
+ * <p>
+ * The target is chosen when a connection is obtained, from the read-only flag of the current transaction.
+ * Transaction managers obtain the connection before that flag is set, so this DataSource must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which defers it to the first
+ * statement. Statements run outside a transaction, like the ingestion batch inserts, go to the primary.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Lookup key of the primary pool.
+     */
+    public static final String PRIMARY = "primary";
+
+    /**
+     * Lookup key of the replica pool.
+     */
+    public static final String REPLICA = "replica";
+
+    /**
+     * Constructs a new instance of {@link ReadWriteRoutingDataSource}.
+     *
+     * @param primary the pool of the primary database
+     * @param replica the pool of the read replica
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? REPLICA : PRIMARY;
+    }
+
+}
@@ -0,0 +1,121 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.jdbc.init.DataSourceScriptDatabaseInitializer;
+import org.springframework.boot.sql.init.DatabaseInitializationMode;
+import org.springframework.boot.sql.init.DatabaseInitializationSettings;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.sql.DataSource;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.StreamSupport;
+
+/**
+ * Applies the versioned schema migrations `db/migration/V{version}__{name}.sql` once per database.
+ * <p>
+ * Unlike the `spring.sql.init` scripts, which run on every startup and must be idempotent, each migration runs
+ * exactly once: applied versions are recorded in the `schema_migrations` table, in the same transaction as the
+ * migration itself. The version row is inserted first, so an instance starting at the same time waits for the
+ * first one to commit, then fails on the primary key and skips the migration. Migrations run in version order,
+ * after Hibernate has updated the schema.
+ */
+public class SchemaMigrations extends DataSourceScriptDatabaseInitializer {
+
+    private static final Logger logger = LogManager.getLogger(SchemaMigrations.class);
+
+    static final String LOCATION = "classpath*:db/migration/V*__*.sql";
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS schema_migrations (" +
+            "version INT PRIMARY KEY, script VARCHAR(255) NOT NULL, applied_at BIGINT NOT NULL)";
+
+    private static final String INSERT_SQL = "INSERT INTO schema_migrations (version, script, applied_at) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Constructs a new instance of {@link SchemaMigrations}.
+     *
+     * @param dataSource the DataSource of the database to migrate
+     */
+    public SchemaMigrations(DataSource dataSource) {
+        super(dataSource, settings());
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    /**
+     * Applies the migrations not recorded in `schema_migrations` yet, in version order.
+     *
+     * @param scripts the migration scripts found on the classpath
+     */
+    @Override
+    protected void runScripts(Scripts scripts) {
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+        Set<Integer> applied = new HashSet<>(jdbcTemplate.queryForList("SELECT version FROM schema_migrations", Integer.class));
+
+        StreamSupport.stream(scripts.spliterator(), false)
+                .map(Migration::of)
+                .filter(migration -> !applied.contains(migration.version()))
+                .sorted(Comparator.comparingInt(Migration::version))
+                .forEach(this::apply);
+    }
+
+    private void apply(Migration migration) {
+        try {
+            transactionTemplate.executeWithoutResult(_ -> {
+                jdbcTemplate.update(INSERT_SQL, migration.version(), migration.script().getFilename(), System.currentTimeMillis());
+                new ResourceDatabasePopulator(migration.script()).populate(DataSourceUtils.getConnection(getDataSource()));
+            });
+            logger.info("Applied schema migration {}", migration.script().getFilename());
+        } catch (DuplicateKeyException e) {
+            logger.info("Schema migration {} was applied by another instance", migration.script().getFilename());
+        }
+    }
+
+    private static DatabaseInitializationSettings settings() {
+        DatabaseInitializationSettings settings = new DatabaseInitializationSettings();
+        settings.setSchemaLocations(List.of(LOCATION));
+        settings.setMode(DatabaseInitializationMode.ALWAYS);
+        return settings;
+    }
+
+    /**
+     * A migration script and the version parsed from its file name.
+     *
+     * @param version the version of the migration
+     * @param script  the script of the migration
+     */
+    record Migration(int version, Resource script) {
+
+        static Migration of(Resource script) {
+            Matcher matcher = FILE_NAME.matcher(String.valueOf(script.getFilename()));
+
+            if (!matcher.matches()) {
+                throw new IllegalStateException(STR."Invalid schema migration file name: \{script.getFilename()}");
+            }
+
+            return new Migration(Integer.parseInt(matcher.group(1)), script);
+        }
+    }
+
+}
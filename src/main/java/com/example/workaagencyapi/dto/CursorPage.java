@@ -0,0 +1,27 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.dto;
+
+import java.util.List;
+
+/**
+ * A page of results fetched with keyset (cursor) pagination.
+ *
+ * @param content    the items of the page
+ * @param nextCursor the opaque cursor to pass as `after` to fetch the next page, or null if this is the last page
+ * @param <T>        the type of the items
+ */
+public record CursorPage<T>(List<T> content, String nextCursor) {
+
+    /**
+     * @return true if the page has no items
+     */
+    public boolean isEmpty() {
+        return content.isEmpty();
+    }
+
+}
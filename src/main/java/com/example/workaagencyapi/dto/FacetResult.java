@@ -0,0 +1,21 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A page of vacancies matching a facet filter, with the facet counts of all matching vacancies.
+ *
+ * @param total     the number of vacancies matching the filter
+ * @param vacancies the requested page of matching vacancies, newest first
+ * @param facets    for each facet ("tags", "job_types", "location", "remote"), the number of matching
+ *                  vacancies per value, sorted by count in descending order
+ */
+public record FacetResult(long total, List<VacancySummary> vacancies, Map<String, Map<String, Integer>> facets) {
+}
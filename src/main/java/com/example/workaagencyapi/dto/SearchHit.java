@@ -0,0 +1,20 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.dto;
+
+/**
+ * A vacancy matching a full-text search, with its BM25 relevance score.
+ *
+ * @param id           the vacancy id
+ * @param title        the vacancy title
+ * @param company_name the company name
+ * @param location     the vacancy location
+ * @param url          the vacancy URL
+ * @param score        the BM25 relevance score, higher is more relevant
+ */
+public record SearchHit(int id, String title, String company_name, String location, String url, float score) {
+}
@@ -0,0 +1,23 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The most frequent titles and companies of the vacancies created within a time window, with approximate counts.
+ *
+ * @param window    the requested window, e.g. "24h" or "7d"
+ * @param vacancies the number of vacancies created within the window
+ * @param maxError  the largest possible overestimate of any of the counts; 0 when the counts are exact
+ * @param titles    single-entry maps of title to estimated count, sorted by count in descending order
+ * @param companies single-entry maps of company name to estimated count, sorted by count in descending order
+ */
+public record TrendingResult(String window, long vacancies, long maxError,
+                             List<Map<String, Long>> titles, List<Map<String, Long>> companies) {
+}
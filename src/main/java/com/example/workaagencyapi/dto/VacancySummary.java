@@ -0,0 +1,56 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.dto;
+
+import com.example.workaagencyapi.tables.VacancyTable;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import java.util.Set;
+
+/**
+ * List view of a vacancy: every column of {@link VacancyTable} except the unbounded description.
+ * <p>
+ * Selected directly by the JPQL constructor expressions of
+ * {@link com.example.workaagencyapi.repositories.VacanciesRepository}, so the description column
+ * is never read for list endpoints. Serialized through the {@value #FIELDS_FILTER} filter so that
+ * clients can pick a subset of the fields with the `fields` query parameter.
+ */
+@JsonFilter(VacancySummary.FIELDS_FILTER)
+public record VacancySummary(int id,
+                             String slug,
+                             String company_name,
+                             String title,
+                             boolean remote,
+                             String url,
+                             String[] tags,
+                             String[] job_types,
+                             String location,
+                             long created_at) {
+
+    /**
+     * Id of the Jackson filter selecting the serialized fields.
+     */
+    public static final String FIELDS_FILTER = "vacancySummaryFields";
+
+    /**
+     * Names of the fields that can be requested with the `fields` query parameter.
+     */
+    public static final Set<String> FIELDS = Set.of(
+            "id", "slug", "company_name", "title", "remote", "url", "tags", "job_types", "location", "created_at");
+
+    /**
+     * Creates the list view of a loaded vacancy.
+     *
+     * @param vacancy the vacancy
+     * @return the vacancy without its description
+     */
+    public static VacancySummary of(VacancyTable vacancy) {
+        return new VacancySummary(vacancy.getId(), vacancy.getSlug(), vacancy.getCompany_name(), vacancy.getTitle(),
+                vacancy.isRemote(), vacancy.getUrl(), vacancy.getTags(), vacancy.getJob_types(), vacancy.getLocation(),
+                vacancy.getCreated_at());
+    }
+
+}
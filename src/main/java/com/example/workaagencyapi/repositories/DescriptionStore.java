@@ -0,0 +1,227 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.repositories;
+
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.tables.VacancyTable;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Storage of vacancy descriptions, inline in the "vacancies" table or compressed in the "vacancy_descriptions" table.
+ * <p>
+ * With `description.storage=compressed`, new descriptions are deflated into the side table and the inline
+ * column is left NULL, so scans and pages of the "vacancies" table no longer carry the full HTML text.
+ * A description is only read when it is asked for, and inflated on demand; the most recently read ones are
+ * kept in a small cache (`description.cache.size`). Rows written inline before the switch are still served
+ * from the inline column until {@link #migrateBatch(int, int)} moves them.
+ */
+@Repository
+public class DescriptionStore {
+
+    private static final String INSERT_SQL = "INSERT INTO vacancy_descriptions (vacancy_id, compressed, raw_length) VALUES (?, ?, ?)";
+    private static final String SELECT_SQL = "SELECT vacancy_id, compressed, raw_length FROM vacancy_descriptions WHERE vacancy_id IN (:ids)";
+    private static final String SELECT_INLINE_SQL = "SELECT id, description FROM vacancies WHERE description IS NOT NULL AND id > ? ORDER BY id LIMIT ?";
+    private static final String CLEAR_INLINE_SQL = "UPDATE vacancies SET description = NULL WHERE id IN (:ids)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean compressed;
+
+    private final Cache<Integer, String> cache;
+
+    /**
+     * Constructs a new instance of {@link DescriptionStore}.
+     *
+     * @param jdbcTemplate       the JdbcTemplate used to read and write descriptions
+     * @param transactionManager the transaction manager of the migration batches
+     * @param configLoader       the configuration loader for retrieving the storage mode and cache size
+     */
+    @Autowired
+    public DescriptionStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, ConfigLoader configLoader) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.compressed = "compressed".equals(configLoader.getDescriptionStorage());
+        this.cache = Caffeine.newBuilder().maximumSize(configLoader.getDescriptionCacheSize()).build();
+    }
+
+    /**
+     * @return true if new descriptions are stored compressed in the side table
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Stores the descriptions of newly inserted vacancies in the side table, in compressed mode.
+     *
+     * @param inserted the inserted vacancies, with their generated ids
+     */
+    public void saveAll(List<VacancyTable> inserted) {
+        List<VacancyTable> described = inserted.stream().filter(vacancy -> vacancy.getDescription() != null).toList();
+
+        if (!compressed || described.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, described.stream().map(DescriptionStore::row).toList());
+    }
+
+    private static Object[] row(VacancyTable vacancy) {
+        return new Object[]{vacancy.getId(), compress(vacancy.getDescription()), vacancy.getDescription().length()};
+    }
+
+    /**
+     * Sets the description of a vacancy loaded without it.
+     *
+     * @param vacancy the vacancy
+     * @return the same vacancy
+     */
+    public VacancyTable withDescription(VacancyTable vacancy) {
+        if (vacancy.getDescription() == null) {
+            vacancy.setDescription(cache.get(vacancy.getId(), id -> load(List.of(id)).get(id)));
+        }
+
+        return vacancy;
+    }
+
+    /**
+     * Sets the descriptions of vacancies loaded without them, with one query. The cache is bypassed,
+     * as this is used by bulk scans.
+     *
+     * @param vacancies the vacancies
+     */
+    public void fillAll(List<VacancyTable> vacancies) {
+        List<Integer> missing = vacancies.stream()
+                .filter(vacancy -> vacancy.getDescription() == null)
+                .map(VacancyTable::getId)
+                .toList();
+
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, String> descriptions = load(missing);
+        vacancies.forEach(vacancy -> {
+            if (vacancy.getDescription() == null) {
+                vacancy.setDescription(descriptions.get(vacancy.getId()));
+            }
+        });
+    }
+
+    private Map<Integer, String> load(Collection<Integer> ids) {
+        Map<Integer, String> descriptions = new HashMap<>();
+
+        namedJdbcTemplate.query(SELECT_SQL, Map.of("ids", ids), rs -> {
+            descriptions.put(rs.getInt("vacancy_id"), decompress(rs.getBytes("compressed"), rs.getInt("raw_length")));
+        });
+
+        return descriptions;
+    }
+
+    /**
+     * Moves up to {@code batchSize} inline descriptions with ids above {@code afterId} to the side table, in one
+     * transaction. Passing the id returned by the previous batch seeks past the rows already moved, so each batch
+     * reads only the rows it moves.
+     *
+     * @param afterId   the id of the last description moved by the previous batch, 0 for the first batch
+     * @param batchSize the maximum number of descriptions to move
+     * @return the id of the last description moved; 0 once no inline description is left above {@code afterId}
+     */
+    public int migrateBatch(int afterId, int batchSize) {
+        Integer lastId = transactionTemplate.execute(_ -> {
+            List<Object[]> rows = jdbcTemplate.query(SELECT_INLINE_SQL, (rs, _) -> {
+                String description = rs.getString("description");
+
+                return new Object[]{rs.getInt("id"), compress(description), description.length()};
+            }, afterId, batchSize);
+
+            if (rows.isEmpty()) {
+                return 0;
+            }
+
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+            namedJdbcTemplate.update(CLEAR_INLINE_SQL,
+                    Map.of("ids", rows.stream().map(row -> row[0]).collect(Collectors.toList())));
+
+            return (Integer) rows.getLast()[0];
+        });
+
+        return Objects.requireNonNullElse(lastId, 0);
+    }
+
+    /**
+     * @param description the description
+     * @return the description as deflated UTF-8
+     */
+    public static byte[] compress(String description) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+
+        try {
+            deflater.setInput(description.getBytes(StandardCharsets.UTF_8));
+            deflater.finish();
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(description.length() / 3 + 16);
+            byte[] buffer = new byte[4096];
+
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @param compressed the deflated UTF-8 description
+     * @param rawLength  the length of the description in chars, used to size the buffer
+     * @return the description
+     */
+    public static String decompress(byte[] compressed, int rawLength) {
+        Inflater inflater = new Inflater();
+
+        try {
+            inflater.setInput(compressed);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(rawLength + 16);
+            byte[] buffer = new byte[4096];
+
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+
+                if (inflated == 0 && inflater.needsInput()) {
+                    throw new IllegalStateException("Truncated compressed description");
+                }
+                out.write(buffer, 0, inflated);
+            }
+
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed description", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+}
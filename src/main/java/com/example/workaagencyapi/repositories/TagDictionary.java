@@ -0,0 +1,202 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.nio.ByteBuffer;
+import java.sql.PreparedStatement;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared symbol table of the tag and job type strings, backed by the "vacancy_symbols" table.
+ * <p>
+ * Every distinct string gets a stable integer id, which is what the vacancies store, packed in a {@code bytea}
+ * column at 4 bytes per id. The table is mirrored
+ * in memory and filled on demand: an unknown string is looked up or inserted, an unknown id (inserted by
+ * another instance) is looked up. Decoded arrays share the one string instance held here per symbol.
+ */
+@Repository
+public class TagDictionary {
+
+    private static final String SELECT_ID_SQL = "SELECT id FROM vacancy_symbols WHERE name = ?";
+    private static final String SELECT_VALUE_SQL = "SELECT name FROM vacancy_symbols WHERE id = ?";
+    private static final String INSERT_SQL = "INSERT INTO vacancy_symbols (name) VALUES (?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[0];
+
+    /**
+     * Constructs a new instance of {@link TagDictionary}.
+     *
+     * Both dependencies are resolved lazily, as the dictionary is created while the persistence unit is built.
+     *
+     * @param jdbcTemplate       the JdbcTemplate used to read and insert symbols
+     * @param transactionManager the transaction manager used to commit new symbols on their own
+     */
+    @Autowired
+    public TagDictionary(@Lazy JdbcTemplate jdbcTemplate, @Lazy PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @param value a tag or job type
+     * @return the id of the value, inserted into the dictionary if it is new
+     */
+    public int idOf(String value) {
+        Integer id = ids.get(value);
+
+        return id != null ? id : register(value);
+    }
+
+    /**
+     * @param id the id of a tag or job type
+     * @return the value with this id
+     * @throws IllegalStateException if there is no value with this id
+     */
+    public String valueOf(int id) {
+        String[] current = values;
+        String value = id < current.length ? current[id] : null;
+
+        return value != null ? value : load(id);
+    }
+
+    /**
+     * @param values tags or job types
+     * @return their ids, in the same order, packed as 4-byte big-endian integers
+     */
+    public byte[] encode(String[] values) {
+        ByteBuffer encoded = ByteBuffer.allocate(values.length * Integer.BYTES);
+
+        for (String value : values) {
+            encoded.putInt(idOf(value));
+        }
+
+        return encoded.array();
+    }
+
+    /**
+     * @param encoded ids of tags or job types, as returned by {@link #encode(String[])}
+     * @return the values with these ids, in the same order
+     */
+    public String[] decode(byte[] encoded) {
+        int[] ids = ids(encoded);
+        String[] decoded = new String[ids.length];
+
+        for (int i = 0; i < ids.length; i++) {
+            decoded[i] = valueOf(ids[i]);
+        }
+
+        return decoded;
+    }
+
+    /**
+     * @param encoded ids of tags or job types, as returned by {@link #encode(String[])}
+     * @return the ids
+     */
+    public static int[] ids(byte[] encoded) {
+        int[] ids = new int[encoded.length / Integer.BYTES];
+        ByteBuffer.wrap(encoded).asIntBuffer().get(ids);
+
+        return ids;
+    }
+
+    /**
+     * @param value a tag or job type
+     * @return the instance of the value held by the dictionary
+     */
+    public String intern(String value) {
+        return valueOf(idOf(value));
+    }
+
+    /**
+     * @return the number of symbols held in memory
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    private synchronized int register(String value) {
+        Integer known = ids.get(value);
+
+        if (known != null) {
+            return known;
+        }
+
+        List<Integer> stored = jdbcTemplate.queryForList(SELECT_ID_SQL, Integer.class, value);
+        int id = stored.isEmpty() ? insert(value) : stored.getFirst();
+        put(id, value);
+
+        return id;
+    }
+
+    /**
+     * Inserts a symbol in its own transaction, so that its id stays valid if the caller's transaction rolls back.
+     */
+    private int insert(String value) {
+        try {
+            return Objects.requireNonNull(transactionTemplate.execute(_ -> {
+                KeyHolder keyHolder = new GeneratedKeyHolder();
+
+                jdbcTemplate.update(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[]{"id"});
+                    ps.setString(1, value);
+                    return ps;
+                }, keyHolder);
+
+                return Objects.requireNonNull(keyHolder.getKey()).intValue();
+            }));
+        } catch (DuplicateKeyException e) {
+            // inserted by another instance in the meantime
+            return Objects.requireNonNull(jdbcTemplate.queryForObject(SELECT_ID_SQL, Integer.class, value));
+        }
+    }
+
+    private synchronized String load(int id) {
+        String[] current = values;
+
+        if (id < current.length && current[id] != null) {
+            return current[id];
+        }
+
+        List<String> stored = jdbcTemplate.queryForList(SELECT_VALUE_SQL, String.class, id);
+
+        if (stored.isEmpty()) {
+            throw new IllegalStateException(STR."Unknown tag id \{id}");
+        }
+
+        put(id, stored.getFirst());
+
+        return stored.getFirst();
+    }
+
+    private void put(int id, String value) {
+        String[] copy = Arrays.copyOf(values, Math.max(values.length, id + 1));
+        copy[id] = value;
+
+        values = copy;
+        ids.put(value, id);
+    }
+
+}
@@ -6,14 +6,24 @@
 
 package com.example.workaagencyapi.repositories;
 
+import com.example.workaagencyapi.dto.VacancySummary;
 import com.example.workaagencyapi.tables.VacancyTable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing {@link VacancyTable} entities.
@@ -23,6 +33,17 @@ import java.util.Map;
 @Repository
 public interface VacanciesRepository extends JpaRepository<VacancyTable, Integer> {
 
+    /**
+     * JPQL constructor expression selecting every column of a vacancy except the description.
+     */
+    String SUMMARY_CONSTRUCTOR = "new com.example.workaagencyapi.dto.VacancySummary(" +
+            "v.id, v.slug, v.company_name, v.title, v.remote, v.url, v.tags, v.job_types, v.location, v.created_at)";
+
+    /**
+     * Number of rows fetched from the database cursor at a time by {@link #streamByCreatedAtSince(long)}.
+     */
+    int EXPORT_FETCH_SIZE = 500;
+
     /**
      * Retrieves all URLs from the "vacancies" table.
      *
@@ -31,6 +52,107 @@ public interface VacanciesRepository extends JpaRepository<VacancyTable, Integer
     @Query("SELECT v.url FROM VacancyTable v")
     List<String> findAllUrl();
 
+    /**
+     * Retrieves the URLs of the vacancies with ids up to {@code maxId}.
+     *
+     * @param maxId the highest id to include
+     * @return a list of URLs associated with vacancies
+     */
+    @Query("SELECT v.url FROM VacancyTable v WHERE v.id <= :maxId")
+    List<String> findUrlsByIdUpTo(@Param("maxId") int maxId);
+
+    /**
+     * Retrieves a page of vacancy summaries, leaving out the description column.
+     *
+     * @param pageable the page number, size and sort order
+     * @return a {@link Page} of {@link VacancySummary} projections
+     */
+    @Query(value = "SELECT " + SUMMARY_CONSTRUCTOR + " FROM VacancyTable v",
+            countQuery = "SELECT COUNT(v) FROM VacancyTable v")
+    Page<VacancySummary> findAllSummaries(Pageable pageable);
+
+    /**
+     * Retrieves the vacancy summaries with an id lower than the given one, without counting the total number of rows.
+     * <p>
+     * Used for keyset pagination: with a pageable sorted by id in descending order, the query seeks straight
+     * to the position after the last id of the previous page instead of skipping an OFFSET of rows.
+     *
+     * @param id       the exclusive upper bound of the ids to retrieve
+     * @param pageable the page size and sort order, with page number 0
+     * @return a {@link Slice} of {@link VacancySummary} projections that knows whether more rows follow
+     */
+    @Query("SELECT " + SUMMARY_CONSTRUCTOR + " FROM VacancyTable v WHERE v.id < :id")
+    Slice<VacancySummary> findSummariesByIdLessThan(@Param("id") int id, Pageable pageable);
+
+    /**
+     * Retrieves the vacancy summaries with an id greater than the given one, in ascending id order.
+     * <p>
+     * Used to scan the whole table in batches, without descriptions, when loading in-memory indexes.
+     *
+     * @param id    the exclusive lower bound of the ids to retrieve
+     * @param limit the maximum number of summaries to retrieve
+     * @return a list of {@link VacancySummary} projections ordered by id
+     */
+    @Query("SELECT " + SUMMARY_CONSTRUCTOR + " FROM VacancyTable v WHERE v.id > :id ORDER BY v.id")
+    List<VacancySummary> findSummariesByIdGreaterThan(@Param("id") int id, Limit limit);
+
+    /**
+     * Retrieves the vacancy summaries with the given ids, newest first.
+     *
+     * @param ids the ids of the vacancies to retrieve
+     * @return a list of {@link VacancySummary} projections ordered by id in descending order
+     */
+    @Query("SELECT " + SUMMARY_CONSTRUCTOR + " FROM VacancyTable v WHERE v.id IN :ids ORDER BY v.id DESC")
+    List<VacancySummary> findSummariesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Retrieves the ids greater than the given one, in ascending order.
+     * <p>
+     * Used to find the rows of a trailing id window that were not delivered yet, without loading them.
+     *
+     * @param id    the exclusive lower bound of the ids to retrieve
+     * @param limit the maximum number of ids to retrieve
+     * @return a list of ids in ascending order
+     */
+    @Query("SELECT v.id FROM VacancyTable v WHERE v.id > :id ORDER BY v.id")
+    List<Integer> findIdsGreaterThan(@Param("id") int id, Limit limit);
+
+    /**
+     * Retrieves the vacancies with an id greater than the given one, in ascending id order.
+     * <p>
+     * Used to scan the whole table in batches when loading in-memory indexes.
+     *
+     * @param id    the exclusive lower bound of the ids to retrieve
+     * @param limit the maximum number of vacancies to retrieve
+     * @return a list of {@link VacancyTable} entities ordered by id
+     */
+    List<VacancyTable> findByIdGreaterThanOrderByIdAsc(int id, Limit limit);
+
+    /**
+     * Streams the vacancies created at or after the given time, in ascending id order.
+     * <p>
+     * Rows are fetched {@value #EXPORT_FETCH_SIZE} at a time from a server-side cursor and loaded read-only,
+     * so the stream must be consumed, and closed, within a read-only transaction. The caller should detach each
+     * vacancy once it is processed to keep the persistence context from growing with the table.
+     *
+     * @param since the earliest `created_at` to include, in epoch seconds
+     * @return a {@link Stream} of {@link VacancyTable} entities ordered by id
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT v FROM VacancyTable v WHERE v.created_at >= :since ORDER BY v.id")
+    Stream<VacancyTable> streamByCreatedAtSince(@Param("since") long since);
+
+    /**
+     * Retrieves the highest vacancy id.
+     *
+     * @return the highest id, or 0 if the table is empty
+     */
+    @Query("SELECT COALESCE(MAX(v.id), 0) FROM VacancyTable v")
+    int findMaxId();
+
     /**
      * Retrieves a limited number of vacancies from the "vacancies" table.
      *
@@ -44,34 +166,33 @@ public interface VacanciesRepository extends JpaRepository<VacancyTable, Integer
      * Retrieves a list of cities along with the number of vacancies available in each city.
      * <p>
      * This method executes a JPQL query that groups vacancies by their location and counts the number
-     * of vacancies for each city. The results are sorted in descending order based on the number of
-     * vacancies.
+     * of vacancies for each city, leaving out near-duplicates. The results are sorted in descending order
+     * based on the number of vacancies.
      *
+     * @param maxId the highest id counted
      * @return a {@link List} of {@link Map} objects, where each map represents a city and the count of
      * vacancies in that city. The keys of the map are "location" and "city_count", with the values
      * being the corresponding city name and the count of vacancies.
      */
     @Query("SELECT v.location AS location, COUNT(v) AS city_count " +
             "FROM VacancyTable v " +
+            "WHERE v.duplicate_of IS NULL AND v.id <= :maxId " +
             "GROUP BY v.location " +
             "ORDER BY city_count DESC")
-    List<Map<String, Object>> findCityCountsAsMap();
+    List<Map<String, Object>> findCityCountsAsMap(@Param("maxId") int maxId);
 
     /**
-     * Retrieves a list of the most popular vacancy titles based on their frequency.
+     * Retrieves every vacancy title along with the number of vacancies having that title, leaving out near-duplicates.
      * <p>
-     * This method executes a JPQL query that groups vacancies by their title, counts the number of
-     * occurrences for each title, and filters out titles that occur only once. The results are sorted
-     * in descending order based on the count of occurrences.
+     * Used to seed and reconcile the in-memory title counters; the ranking of the most popular titles
+     * is done in memory.
      *
-     * @return a {@link List} of {@link Map} objects, where each map represents a vacancy title and its
-     * frequency. The keys of the map are "title" and "count", with the values being the title
-     * of the vacancy and the number of times that title appears.
+     * @param maxId the highest id counted
+     * @return a {@link List} of {@link Map} objects with the keys "title" and "count"
      */
     @Query("SELECT v.title AS title, COUNT(v) AS count " +
             "FROM VacancyTable v " +
-            "GROUP BY v.title " +
-            "HAVING COUNT(v) > 1 " +
-            "ORDER BY count DESC")
-    List<Map<String, Object>> findTopPopularTitles();
+            "WHERE v.duplicate_of IS NULL AND v.id <= :maxId " +
+            "GROUP BY v.title")
+    List<Map<String, Object>> findTitleCounts(@Param("maxId") int maxId);
 }
@@ -0,0 +1,193 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.repositories;
+
+import com.example.workaagencyapi.service.lease.IngestionLease;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk writer for the "vacancies" table.
+ * <p>
+ * Vacancies are sent in chunks as JDBC batches of {@code INSERT ... ON CONFLICT (url) DO NOTHING}
+ * statements, so a full load costs one round trip per chunk instead of one per row. Rows whose URL
+ * is already stored are skipped by the unique index on {@code url} and never overwritten; a conflict
+ * on any other key is still raised.
+ * In compressed description storage, the description column is written NULL and the descriptions
+ * of the inserted rows are handed to the {@link DescriptionStore}, in the transaction of their chunk,
+ * so a row is never committed without its description. Tags and job types are written as
+ * {@link TagDictionary} ids. Every chunk transaction starts with the {@link IngestionLease#fence()} check, so
+ * an instance that has lost the lease cannot write.
+ */
+@Repository
+public class VacancyBatchWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO vacancies " +
+            "(slug, company_name, title, description, remote, url, tag_ids, job_type_ids, location, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (url) DO NOTHING";
+
+    private static final String UPDATE_DUPLICATE_OF_SQL = "UPDATE vacancies SET duplicate_of = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DescriptionStore descriptionStore;
+    private final TagDictionary tagDictionary;
+    private final IngestionLease ingestionLease;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Constructs a new instance of {@link VacancyBatchWriter}.
+     *
+     * @param jdbcTemplate       the JdbcTemplate used to execute the batches
+     * @param transactionManager the transaction manager of the chunks
+     * @param descriptionStore   the store of compressed descriptions
+     * @param tagDictionary      the dictionary encoding tags and job types
+     * @param ingestionLease     the lease fencing the writes of the chunks
+     */
+    @Autowired
+    public VacancyBatchWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              DescriptionStore descriptionStore, TagDictionary tagDictionary, IngestionLease ingestionLease) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.descriptionStore = descriptionStore;
+        this.tagDictionary = tagDictionary;
+        this.ingestionLease = ingestionLease;
+    }
+
+    /**
+     * Writes the given vacancies in chunks of {@code batchSize} rows, one transaction per chunk.
+     * <p>
+     * Inserted vacancies get their generated id assigned. If a chunk fails, its rows and descriptions are
+     * rolled back and the exception is thrown; the chunks committed before it stay stored.
+     *
+     * @param vacancies the vacancies to write
+     * @param batchSize the number of rows sent per JDBC batch
+     * @return the result holding the inserted vacancies and the number of skipped rows
+     * @throws IllegalStateException if this instance no longer holds the ingestion lease
+     */
+    public BatchWriteResult write(List<VacancyTable> vacancies, int batchSize) {
+        List<VacancyTable> inserted = new ArrayList<>();
+        int skipped = 0;
+        int chunkSize = Math.max(1, batchSize);
+
+        for (int from = 0; from < vacancies.size(); from += chunkSize) {
+            List<VacancyTable> chunk = vacancies.subList(from, Math.min(from + chunkSize, vacancies.size()));
+            List<VacancyTable> chunkInserted = transactionTemplate.execute(_ -> writeChunk(chunk));
+
+            inserted.addAll(chunkInserted);
+            skipped += chunk.size() - chunkInserted.size();
+        }
+
+        return new BatchWriteResult(inserted, skipped);
+    }
+
+    private List<VacancyTable> writeChunk(List<VacancyTable> chunk) {
+        ingestionLease.fence();
+
+        List<VacancyTable> inserted = new ArrayList<>();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        int[] counts = jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+                new VacancyStatementSetter(chunk, descriptionStore.isCompressed(), tagDictionary),
+                keyHolder);
+
+        Iterator<Map<String, Object>> keys = keyHolder.getKeyList().iterator();
+
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0 && keys.hasNext()) {
+                VacancyTable vacancy = chunk.get(i);
+                vacancy.setId(((Number) keys.next().get("id")).intValue());
+                inserted.add(vacancy);
+            }
+        }
+
+        descriptionStore.saveAll(inserted);
+
+        return inserted;
+    }
+
+    /**
+     * Marks stored vacancies as near-duplicates of other vacancies, in one JDBC batch.
+     *
+     * @param duplicateOf the ids of the duplicates, mapped to the ids of their originals
+     */
+    public void writeDuplicateOf(Map<Integer, Integer> duplicateOf) {
+        if (duplicateOf.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_DUPLICATE_OF_SQL, duplicateOf.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .toList());
+    }
+
+    /**
+     * Result of a bulk write.
+     *
+     * @param inserted the vacancies that were inserted, with their generated ids
+     * @param skipped  the number of vacancies skipped because their URL was already stored
+     */
+    public record BatchWriteResult(List<VacancyTable> inserted, int skipped) {
+
+        /**
+         * @return the number of inserted rows
+         */
+        public int insertedCount() {
+            return inserted.size();
+        }
+    }
+
+    /**
+     * Binds the columns of each vacancy of a chunk to the insert statement.
+     */
+    private record VacancyStatementSetter(List<VacancyTable> chunk, boolean omitDescription, TagDictionary tagDictionary) implements BatchPreparedStatementSetter {
+
+        @Override
+        public void setValues(PreparedStatement ps, int i) throws SQLException {
+            VacancyTable vacancy = chunk.get(i);
+            ps.setString(1, vacancy.getSlug());
+            ps.setString(2, vacancy.getCompany_name());
+            ps.setString(3, vacancy.getTitle());
+            ps.setString(4, omitDescription ? null : vacancy.getDescription());
+            ps.setBoolean(5, vacancy.isRemote());
+            ps.setString(6, vacancy.getUrl());
+            setIds(ps, 7, vacancy.getTags());
+            setIds(ps, 8, vacancy.getJob_types());
+            ps.setString(9, vacancy.getLocation());
+            ps.setLong(10, vacancy.getCreated_at());
+        }
+
+        @Override
+        public int getBatchSize() {
+            return chunk.size();
+        }
+
+        private void setIds(PreparedStatement ps, int index, String[] values) throws SQLException {
+            if (values == null) {
+                ps.setNull(index, Types.BINARY);
+            } else {
+                ps.setBytes(index, tagDictionary.encode(values));
+            }
+        }
+    }
+
+}
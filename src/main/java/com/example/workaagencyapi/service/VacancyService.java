@@ -6,114 +6,334 @@
 
 package com.example.workaagencyapi.service;
 
+import com.example.workaagencyapi.dto.CursorPage;
+import com.example.workaagencyapi.dto.FacetResult;
+import com.example.workaagencyapi.dto.SearchHit;
+import com.example.workaagencyapi.dto.TrendingResult;
+import com.example.workaagencyapi.dto.VacancySummary;
+import com.example.workaagencyapi.repositories.DescriptionStore;
 import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.repositories.VacancyBatchWriter;
+import com.example.workaagencyapi.repositories.VacancyBatchWriter.BatchWriteResult;
+import com.example.workaagencyapi.service.aggregate.TagStatistics;
+import com.example.workaagencyapi.service.aggregate.VacancyAggregates;
 import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.dedup.NearDuplicateDetector;
+import com.example.workaagencyapi.service.dedup.VacancyUrlIndex;
+import com.example.workaagencyapi.service.export.VacancyExporter;
+import com.example.workaagencyapi.service.facet.FacetQuery;
+import com.example.workaagencyapi.service.facet.VacancyFacetIndex;
+import com.example.workaagencyapi.service.facet.VacancyFacetIndex.FacetSelection;
+import com.example.workaagencyapi.service.ingestion.IngestionMetrics;
+import com.example.workaagencyapi.service.ingestion.VacancyChangeFeed;
+import com.example.workaagencyapi.service.ingestion.VacancyIngestionListener;
+import com.example.workaagencyapi.service.ingestion.VacancyStagingBuffer;
+import com.example.workaagencyapi.service.lease.IngestionLease;
+import com.example.workaagencyapi.service.search.VacancySearchIndex;
+import com.example.workaagencyapi.service.stream.VacancyStream;
+import com.example.workaagencyapi.service.trending.TrendingVacancies;
+import com.example.workaagencyapi.service.upstream.ArbeitnowClient;
+import com.example.workaagencyapi.service.upstream.ConcurrentPageFetcher;
+import com.example.workaagencyapi.service.upstream.IncrementalPageWalker;
 import com.example.workaagencyapi.tables.VacancyTable;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.roaringbitmap.IntIterator;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URI;
-import java.net.URL;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Service class responsible for managing job vacancies,
  * including fetching, parsing, and saving data from external APIs,
  * and providing various vacancy-related operations.
+ * <p>
+ * Database reads run in read-only transactions, served by the replica pool; saves go to the primary.
  */
 @Getter
 @Service
 public class VacancyService {
 
-    private static final String API_URL = "https://www.arbeitnow.com/api/job-board-api";
     private static final Logger logger = LogManager.getLogger(VacancyService.class);
 
+    private static final String INCREMENTAL_REFRESH = "incremental";
+
     private final ConfigLoader configLoader;
-    private final ObjectMapper objectMapper;
-    private final RestTemplate restTemplate;
+    private final VacancyUrlIndex vacancyUrlIndex;
+    private final VacancyBatchWriter vacancyBatchWriter;
+    private final ConcurrentPageFetcher concurrentPageFetcher;
+    private final ArbeitnowClient arbeitnowClient;
+    private final VacancyAggregates vacancyAggregates;
+    private final VacancySearchIndex vacancySearchIndex;
+    private final VacancyFacetIndex vacancyFacetIndex;
+    private final VacancyStagingBuffer stagingBuffer;
+    private final VacancyChangeFeed vacancyChangeFeed;
+    private final IngestionLease ingestionLease;
+    private final IncrementalPageWalker incrementalPageWalker;
+    private final IngestionMetrics ingestionMetrics;
+    private final DescriptionStore descriptionStore;
+    private final TagStatistics tagStatistics;
+    private final TrendingVacancies trendingVacancies;
+    private final VacancyStream vacancyStream;
+    private final VacancyExporter vacancyExporter;
+    private final NearDuplicateDetector nearDuplicateDetector;
 
     public final VacanciesRepository vacanciesRepository;
 
-    @Getter
-    private List<VacancyTable> vacancyList = new ArrayList<>();
-
     /**
      * Constructs a new instance of {@link VacancyService} with the specified dependencies.
      *
-     * @param vacanciesRepository the repository used for interacting with the database
-     * @param configLoader        the configuration loader for retrieving application settings
-     * @param restTemplate        the RestTemplate for making HTTP requests
-     * @param objectMapper        the ObjectMapper for JSON serialization and deserialization
+     * @param vacanciesRepository   the repository used for interacting with the database
+     * @param configLoader          the configuration loader for retrieving application settings
+     * @param vacancyUrlIndex       the in-memory index of already stored vacancy URLs
+     * @param vacancyBatchWriter    the bulk writer used to insert vacancies in JDBC batches
+     * @param concurrentPageFetcher the fetcher used to load upstream pages concurrently
+     * @param arbeitnowClient       the client for the job board API
+     * @param vacancyAggregates     the in-memory city and title counters
+     * @param vacancySearchIndex    the in-memory full-text index
+     * @param vacancyFacetIndex     the in-memory bitmap index of the vacancy facets
+     * @param stagingBuffer         the bounded buffer of fetched vacancies waiting to be saved
+     * @param vacancyChangeFeed     the feed that delivers every saved batch of vacancies to the listeners
+     * @param ingestionLease        the lease that elects the single instance allowed to fetch and save
+     * @param incrementalPageWalker the walker that fetches upstream pages down to the last fetched vacancy
+     * @param ingestionMetrics      the meters of the save stage
+     * @param descriptionStore      the store of compressed vacancy descriptions
+     * @param tagStatistics         the in-memory tag counts
+     * @param trendingVacancies     the hourly sketches of the recent titles and companies
+     * @param vacancyStream         the server-sent events of newly inserted vacancies
+     * @param vacancyExporter       the writer of the newline-delimited JSON export
+     * @param nearDuplicateDetector the detector of inserted vacancies reposting stored ones
      */
     @Autowired
-    public VacancyService(VacanciesRepository vacanciesRepository, ConfigLoader configLoader, RestTemplate restTemplate, ObjectMapper objectMapper) {
+    public VacancyService(VacanciesRepository vacanciesRepository, ConfigLoader configLoader, VacancyUrlIndex vacancyUrlIndex,
+                          VacancyBatchWriter vacancyBatchWriter, ConcurrentPageFetcher concurrentPageFetcher,
+                          ArbeitnowClient arbeitnowClient, VacancyAggregates vacancyAggregates,
+                          VacancySearchIndex vacancySearchIndex, VacancyFacetIndex vacancyFacetIndex,
+                          VacancyStagingBuffer stagingBuffer, VacancyChangeFeed vacancyChangeFeed,
+                          IngestionLease ingestionLease, IncrementalPageWalker incrementalPageWalker,
+                          IngestionMetrics ingestionMetrics, DescriptionStore descriptionStore,
+                          TagStatistics tagStatistics, TrendingVacancies trendingVacancies,
+                          VacancyStream vacancyStream, VacancyExporter vacancyExporter,
+                          NearDuplicateDetector nearDuplicateDetector) {
         this.vacanciesRepository = vacanciesRepository;
         this.configLoader = configLoader;
-        this.restTemplate = restTemplate;
-        this.objectMapper = objectMapper;
-    }
-
-    /**
-     * Initializes the service by loading all pages of vacancies and saving them to the database.
-     * This method is automatically called after the bean's properties have been set,
-     * due to the {@link PostConstruct} annotation.
-     */
-    @PostConstruct
-    public void initialize() {
-        this.loadAllPages();
-        this.saveVacanciesToDBService();
+        this.vacancyUrlIndex = vacancyUrlIndex;
+        this.vacancyBatchWriter = vacancyBatchWriter;
+        this.concurrentPageFetcher = concurrentPageFetcher;
+        this.arbeitnowClient = arbeitnowClient;
+        this.vacancyAggregates = vacancyAggregates;
+        this.vacancySearchIndex = vacancySearchIndex;
+        this.vacancyFacetIndex = vacancyFacetIndex;
+        this.stagingBuffer = stagingBuffer;
+        this.vacancyChangeFeed = vacancyChangeFeed;
+        this.ingestionLease = ingestionLease;
+        this.incrementalPageWalker = incrementalPageWalker;
+        this.ingestionMetrics = ingestionMetrics;
+        this.descriptionStore = descriptionStore;
+        this.tagStatistics = tagStatistics;
+        this.trendingVacancies = trendingVacancies;
+        this.vacancyStream = vacancyStream;
+        this.vacancyExporter = vacancyExporter;
+        this.nearDuplicateDetector = nearDuplicateDetector;
     }
 
     /**
      * Checks if a vacancy already exists in the database based on its URL.
+     * <p>
+     * The lookup is answered by the {@link VacancyUrlIndex}, so it does not query the database.
      *
      * @param vacancy the vacancy to check
      * @return true if the vacancy exists, false otherwise
      */
     public boolean isVacancyExisting(VacancyTable vacancy) {
-        return this.getVacanciesExistingURLSFromDB().contains(vacancy.getUrl());
+        return vacancyUrlIndex.contains(vacancy.getUrl());
     }
 
     /**
      * Retrieves a page of vacancies with the specified page number.
+     * <p>
+     * Descriptions are not loaded; use {@link #getVacancy(int)} for the full vacancy.
      *
      * @param page the page number to retrieve
-     * @return a page of {@link VacancyTable} entities
+     * @return a page of {@link VacancySummary} projections
      */
-    public Page<VacancyTable> getPaginatedVacancies(int page) {
+    @Transactional(readOnly = true)
+    public Page<VacancySummary> getPaginatedVacancies(int page) {
         Pageable pageable = PageRequest.of(page, this.configLoader.getPageVacanciesCount(), Sort.by(Sort.Order.desc("id")));
-        return vacanciesRepository.findAll(pageable);
+        return vacanciesRepository.findAllSummaries(pageable);
+    }
+
+    /**
+     * Retrieves a single vacancy with all its fields, including the description,
+     * which is decompressed if it is not stored inline.
+     *
+     * @param id the id of the vacancy
+     * @return the vacancy, or an empty {@link Optional} if there is no vacancy with this id
+     */
+    @Transactional(readOnly = true)
+    public Optional<VacancyTable> getVacancy(int id) {
+        return vacanciesRepository.findById(id).map(descriptionStore::withDescription);
+    }
+
+    /**
+     * Retrieves the page of vacancies that follows the given cursor, newest first.
+     * <p>
+     * Unlike {@link #getPaginatedVacancies(int)}, the page is located by seeking on the id instead of an OFFSET,
+     * and no count query is run, so deep pages cost the same as the first one.
+     *
+     * @param after the opaque cursor returned with the previous page, or an empty string for the first page
+     * @param limit the maximum number of vacancies to return; values below 1 fall back to `page.vacancies.count`
+     *              and values above `cursor.max.limit` are capped
+     * @return a {@link CursorPage} of {@link VacancySummary} projections with the cursor of the next page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<VacancySummary> getVacanciesAfter(String after, int limit) {
+        int pageSize = limit < 1 ? configLoader.getPageVacanciesCount() : Math.min(limit, configLoader.getCursorMaxLimit());
+        Pageable pageable = PageRequest.of(0, pageSize, Sort.by(Sort.Order.desc("id")));
+
+        Slice<VacancySummary> slice = vacanciesRepository.findSummariesByIdLessThan(decodeCursor(after), pageable);
+        List<VacancySummary> content = slice.getContent();
+
+        String nextCursor = slice.hasNext() ? encodeCursor(content.getLast().id()) : null;
+
+        return new CursorPage<>(content, nextCursor);
+    }
+
+    private static String encodeCursor(int id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Integer.toString(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Integer.MAX_VALUE;
+        }
+
+        try {
+            return Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(STR."Invalid cursor: \{cursor}", e);
+        }
+    }
+
+    /**
+     * Searches the title, company name, tags and description of every vacancy.
+     * <p>
+     * Served from the in-memory {@link VacancySearchIndex}, without querying the database.
+     *
+     * @param query the free-text query
+     * @param limit the maximum number of hits; values below 1 fall back to `page.vacancies.count`
+     *              and values above `search.max.results` are capped
+     * @return the matching vacancies ranked by BM25 relevance, most relevant first
+     */
+    public List<SearchHit> searchVacancies(String query, int limit) {
+        int hitCount = limit < 1 ? configLoader.getPageVacanciesCount() : Math.min(limit, configLoader.getSearchMaxResults());
+        return vacancySearchIndex.search(query, hitCount);
+    }
+
+    /**
+     * Filters vacancies by tags, job types, location and remote flag, with facet counts.
+     * <p>
+     * The filter and the facet counts are answered by the in-memory {@link VacancyFacetIndex}; only the
+     * requested page of matching vacancies is loaded from the database, by primary key.
+     *
+     * @param query the facet filter
+     * @param page  the page number to retrieve, starting from 0, with `page.vacancies.count` vacancies per page
+     * @return the number of matching vacancies, the requested page of them and the facet counts
+     */
+    @Transactional(readOnly = true)
+    public FacetResult filterVacancies(FacetQuery query, int page) {
+        FacetSelection selection = vacancyFacetIndex.filter(query);
+        int pageSize = configLoader.getPageVacanciesCount();
+        long skip = (long) Math.max(page, 0) * pageSize;
+
+        List<Integer> pageIds = new ArrayList<>(pageSize);
+        IntIterator newestFirst = selection.ids().getReverseIntIterator();
+
+        for (long position = 0; newestFirst.hasNext() && pageIds.size() < pageSize; position++) {
+            int id = newestFirst.next();
+
+            if (position >= skip) {
+                pageIds.add(id);
+            }
+        }
+
+        List<VacancySummary> vacancies = pageIds.isEmpty() ? List.of() : vacanciesRepository.findSummariesByIdIn(pageIds);
+
+        return new FacetResult(selection.ids().getLongCardinality(), vacancies, selection.facets());
     }
 
     /**
      * Retrieves the top 10 most popular job titles with their occurrence counts.
+     * <p>
+     * Served from the in-memory {@link VacancyAggregates}, without querying the database.
      *
      * @return a list of maps where each map contains a title and its count
      */
     public List<Map<String, Integer>> getTop10PopularTitles() {
-        List<Map<String, Object>> results = vacanciesRepository.findTopPopularTitles();
-
-        return results.stream()
-                .map(result -> Map.of(
-                        (String) result.get("title"),
-                        ((Number) result.get("count")).intValue()
-                ))
-                .limit(10)
-                .collect(Collectors.toList());
+        return vacancyAggregates.getTopTitles();
+    }
+
+    /**
+     * Retrieves the most used tags with the number of vacancies having them.
+     * <p>
+     * Served from the in-memory {@link TagStatistics}, without querying the database.
+     *
+     * @param limit the number of tags to return; values below 1 return `top.titles.size` tags
+     * @return a list of maps where each map contains a tag and its count, most used first
+     */
+    public List<Map<String, Integer>> getTopTags(int limit) {
+        return tagStatistics.getTopTags(limit < 1 ? configLoader.getTopTitlesSize() : limit);
+    }
+
+    /**
+     * Retrieves the most frequent titles and companies of the vacancies created within a recent window.
+     * <p>
+     * Served from the in-memory {@link TrendingVacancies}, without querying the database.
+     *
+     * @param window the window length, e.g. "24h" or "7d"
+     * @param limit  the number of titles and companies to return; values below 1 return `top.titles.size` of each
+     * @return the trending titles and companies with their estimated counts
+     * @throws IllegalArgumentException if the window is malformed or longer than the trending buckets
+     */
+    public TrendingResult getTrending(String window, int limit) {
+        return trendingVacancies.getTrending(window, limit);
+    }
+
+    /**
+     * Opens a server-sent event stream of the vacancies inserted into the database.
+     *
+     * @param lastEventId the id of the last vacancy received by the client, or null to only receive new vacancies
+     * @return the emitter sending one event per vacancy, with the vacancy id as event id
+     */
+    public SseEmitter streamVacancies(Integer lastEventId) {
+        return vacancyStream.subscribe(lastEventId);
+    }
+
+    /**
+     * Writes every vacancy created at or after the given time, with its description, as one JSON line.
+     * <p>
+     * Rows are streamed from a database cursor by the {@link VacancyExporter}, so memory use does not depend
+     * on the number of vacancies.
+     *
+     * @param since the earliest `created_at` to export, in epoch seconds; 0 exports all vacancies
+     * @param out   the stream the lines are written to
+     * @return the number of vacancies written
+     */
+    public int exportVacancies(long since, OutputStream out) {
+        return vacancyExporter.export(since, out);
     }
 
     /**
@@ -128,94 +348,88 @@ public class VacancyService {
 
     /**
      * Retrieves the count of vacancies by city and sorts them in descending order.
+     * <p>
+     * Served from the in-memory {@link VacancyAggregates}, without querying the database.
      *
      * @return a map of city names to their vacancy counts, sorted in descending order
      */
     public Map<String, Integer> getVacanciesCountByCity() {
-        List<Map<String, Object>> cityCountsAsMap = vacanciesRepository.findCityCountsAsMap();
-        Map<String, Integer> cityCounts = new HashMap<>();
-
-        for (Map<String, Object> result : cityCountsAsMap) {
-            String location = (String) result.get("location");
-            Integer cityCount = ((Number) result.get("city_count")).intValue();
-            cityCounts.put(location, cityCount);
-        }
-
-        return cityCounts.entrySet()
-                .stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (e1, _) -> e1,
-                        LinkedHashMap::new
-                ));
+        return vacancyAggregates.getCityCounts();
     }
 
     /**
-     * Fetches job data from an external API and adds it to the vacancy list.
+     * Fetches job data from an external API and stages it for saving.
+     * <p>
+     * A page that is unchanged since it was last fetched adds nothing.
      *
      * @param page the page number to fetch
      */
     public void jobParsingService(int page) {
-        HttpURLConnection connection = null;
-        Scanner scanner = null;
-
-        try {
-            URL url = URI.create(String.format("%s?page=%d", API_URL, page)).toURL();
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            connection.connect();
+        stageVacancies(arbeitnowClient.fetchPage(page).vacancies());
+    }
 
-            int responseCode = connection.getResponseCode();
+    /**
+     * Fetches the vacancies published since the newest vacancy already fetched and stages them for saving.
+     * <p>
+     * Pages are walked from the newest one until the {@link IncrementalPageWalker} reaches already known
+     * vacancies, or `refresh.max.pages` pages are fetched.
+     *
+     * @return the number of new vacancies staged
+     */
+    public int syncNewVacancies() {
+        return incrementalPageWalker.walk(arbeitnowClient::fetchPage, this::stageVacancies);
+    }
 
-            if (responseCode != 200) {
-                throw new IllegalStateException(String.format("HttpResponseCode: %d", responseCode));
-            }
+    /**
+     * Loads job data from all available pages and stages it for saving.
+     * <p>
+     * Pages are fetched concurrently by the {@link ConcurrentPageFetcher} and staged in page order,
+     * until an empty page is found or, with limited pagination, `max.page.count.parse` pages are loaded.
+     * Run once at startup by the {@link com.example.workaagencyapi.service.ingestion.StartupBackfillRunner}.
+     *
+     * @return the number of pages fetched
+     */
+    public int loadAllPages() {
+        int lastPage = configLoader.isLimitedPagination() ? configLoader.getMaxPageCountParse() : Integer.MAX_VALUE;
 
-            StringBuilder inline = new StringBuilder();
-            scanner = new Scanner(url.openStream());
+        return concurrentPageFetcher.fetchPages(arbeitnowClient::fetchPage, lastPage, this::stageVacancies);
+    }
 
-            while (scanner.hasNext()) {
-                inline.append(scanner.nextLine());
-            }
+    /**
+     * Adds vacancies to the {@link VacancyStagingBuffer}.
+     * <p>
+     * While the buffer is full, the calling fetcher saves the staged vacancies itself, so a large backfill is
+     * written as it is fetched instead of being held in memory. Ids follow the publication order within each
+     * saved buffer, so `staging.buffer.capacity` should be above the size of a backfill. If a vacancy is dropped,
+     * the next refresh fetches it again, see {@link #forgetFetchedVacancies()}.
+     */
+    private void stageVacancies(List<VacancyTable> vacancies) {
+        long drops = stagingBuffer.getDropCount();
 
-            JsonNode root = objectMapper.readTree(inline.toString());
-            JsonNode jobArray = root.path("data");
+        vacancies.forEach(vacancy -> stagingBuffer.put(vacancy, this::saveOverflowBatch));
 
-            for (JsonNode node : jobArray) {
-                VacancyTable vacancy = objectMapper.treeToValue(node, VacancyTable.class);
-                vacancyList.add(vacancy);
-            }
-        } catch (IOException e) {
-            logger.error("Error occurred while parsing job data: ", e);
-        } finally {
-            if (scanner != null) {
-                scanner.close();
-            }
-            if (connection != null) {
-                connection.disconnect();
-            }
+        if (stagingBuffer.getDropCount() != drops) {
+            forgetFetchedVacancies();
         }
     }
 
     /**
-     * Loads job data from all available pages and adds it to the vacancy list.
+     * Makes the next refresh fetch again the vacancies that were fetched but will never be saved: the
+     * {@link ArbeitnowClient} forgets its page validators and the {@link IncrementalPageWalker} rewinds to the
+     * saved watermark.
      */
-    public void loadAllPages() {
-        int page = 1;
+    private void forgetFetchedVacancies() {
+        arbeitnowClient.forgetValidators();
+        incrementalPageWalker.rewind();
+    }
 
-        boolean hasMorePages = true;
+    private void saveOverflowBatch() {
+        List<VacancyTable> staged = stagingBuffer.drain(stagingBuffer.capacity());
 
-        while (hasMorePages && (!configLoader.isLimitedPagination() || page <= configLoader.getMaxPageCountParse())) {
-            int initialSize = vacancyList.size();
-            jobParsingService(page);
+        if (!staged.isEmpty()) {
+            int inserted = saveStaged(staged, true);
 
-            if (vacancyList.size() == initialSize) {
-                hasMorePages = false;
-            } else {
-                page++;
-            }
+            logger.info(STR."Staging buffer full, saved overflow batch: inserted=\{inserted}, skipped=\{staged.size() - inserted}");
         }
     }
 
@@ -223,66 +437,162 @@ public class VacancyService {
      * Saves incoming vacancies to the database, checking for existence if configured.
      */
     public void saveIncomingVacanciesToDB() {
-        saveVacanciesToDB(configLoader.getVacanciesRefreshCount(), true);
+        saveVacanciesToDB(true);
     }
 
     /**
-     * Saves a specified number of vacancies to the database, optionally checking if they already exist.
+     * Saves all staged vacancies to the database, optionally checking if they already exist.
      *
-     * @param maxVacancies   the maximum number of vacancies to save
      * @param checkExistence whether to check for existing vacancies before saving
      *   <p>
-     *   Vacancies are saved from the end of the list to the beginning. If `checkExistence` is true, only new
-     *   vacancies (not already in the database) are saved. The vacancy list is cleared after saving.
+     *   The staging buffer is drained until it is empty, and the vacancies of each drain are saved from the
+     *   last staged to the first, in batches of `ingestion.batch.size` vacancies. If `checkExistence` is true, vacancies
+     *   already known to the URL index are not sent to the database at all, and rows whose URL is already
+     *   stored are skipped by the database. The inserted vacancies of each batch are then checked by the
+     *   {@link NearDuplicateDetector}, which marks reposts of stored vacancies, and published to every
+     *   {@link VacancyIngestionListener} through the {@link VacancyChangeFeed}.
      */
-    private void saveVacanciesToDB(int maxVacancies, boolean checkExistence) {
-        if (vacancyList == null || vacancyList.isEmpty()) {
-            logger.info("Vacancies list is empty!");
+    private void saveVacanciesToDB(boolean checkExistence) {
+        if (stagingBuffer.depth() == 0) {
+            logger.info("Staging buffer is empty!");
 
             return;
         }
 
-        int saveCount = Math.min(maxVacancies, vacancyList.size());
+        int capacity = stagingBuffer.capacity();
+        int staged = 0;
+        int inserted = 0;
+
+        for (List<VacancyTable> drained = stagingBuffer.drain(capacity); !drained.isEmpty(); drained = stagingBuffer.drain(capacity)) {
+            staged += drained.size();
+            inserted += saveStaged(drained, checkExistence);
+        }
 
-        for (int i = saveCount - 1; i >= 0; i--) {
-            VacancyTable currentVacancy = vacancyList.get(i);
+        logger.info(STR."Saved vacancies: inserted=\{inserted}, skipped=\{staged - inserted}");
+        logger.info(STR."Staging buffer drained. Depth: \{stagingBuffer.depth()}, overflows: \{stagingBuffer.getOverflowCount()}, drops: \{stagingBuffer.getDropCount()}");
+    }
 
-            if (checkExistence) {
-                if (!isVacancyExisting(currentVacancy)) {
-                    vacanciesRepository.save(currentVacancy);
+    /**
+     * Saves drained vacancies in batches of `ingestion.batch.size`, oldest first.
+     * <p>
+     * Pages list the newest vacancies first and are staged in that order, so the whole drain is reversed before
+     * it is cut into batches. Generated ids then follow the publication order, which the pages and cursors
+     * sorted by id rely on.
+     * <p>
+     * The lease is checked again before each batch, and each chunk written is fenced by the
+     * {@link IngestionLease}, so an instance that lost the lease during a long save stops writing. If a batch
+     * cannot be saved, the drained vacancies are lost, so the next refresh fetches them again, see
+     * {@link #forgetFetchedVacancies()}.
+     * <p>
+     * Saves are serialized, as the scheduled save and a fetcher saving an overflowing buffer may run at once:
+     * each batch is then inserted and published before the next one gets its ids.
+     *
+     * @return the number of inserted vacancies
+     */
+    private synchronized int saveStaged(List<VacancyTable> staged, boolean checkExistence) {
+        List<VacancyTable> oldestFirst = staged.reversed();
+        int batchSize = Math.max(1, configLoader.getIngestionBatchSize());
+        int inserted = 0;
 
-                    logger.info(STR."Added vacancy: \{currentVacancy}");
+        try {
+            for (int from = 0; from < oldestFirst.size(); from += batchSize) {
+                if (!ingestionLease.isLeader()) {
+                    throw new IllegalStateException("Ingestion lease lost, staged vacancies not saved");
                 }
+
+                List<VacancyTable> batch = oldestFirst.subList(from, Math.min(from + batchSize, oldestFirst.size()));
+                inserted += saveBatch(batch, checkExistence).insertedCount();
+            }
+        } catch (RuntimeException e) {
+            forgetFetchedVacancies();
+
+            throw e;
+        }
+
+        return inserted;
+    }
+
+    private BatchWriteResult saveBatch(List<VacancyTable> batch, boolean checkExistence) {
+        Timer.Sample sample = Timer.start();
+        List<VacancyTable> pendingVacancies = new ArrayList<>(batch.size());
+
+        for (VacancyTable currentVacancy : batch) {
+            if (!checkExistence || !isVacancyExisting(currentVacancy)) {
+                pendingVacancies.add(currentVacancy);
             }
-            else
-                vacanciesRepository.save(currentVacancy);
         }
-        this.vacancyList.clear();
-        logger.info("Vacancy list cleared. Size after clearing: 0");
+
+        BatchWriteResult result = vacancyBatchWriter.write(pendingVacancies, configLoader.getIngestionBatchSize());
+        pendingVacancies.forEach(vacancy -> vacancyUrlIndex.add(vacancy.getUrl()));
+
+        Map<Integer, Integer> nearDuplicates = nearDuplicateDetector.detect(result.inserted());
+        vacancyBatchWriter.writeDuplicateOf(nearDuplicates);
+        ingestionMetrics.recordNearDuplicates(nearDuplicates.size());
+
+        vacancyChangeFeed.publish(result.inserted());
+
+        sample.stop(ingestionMetrics.saveBatchTimer());
+        ingestionMetrics.recordSaved(batch.size() - pendingVacancies.size(), result.skipped(), result.insertedCount());
+
+        return result;
     }
 
     /**
-     * Saves all vacancies currently in the list to the database without checking for existence.
+     * Saves all staged vacancies to the database without checking for existence.
      */
     public void saveVacanciesToDBService() {
-        saveVacanciesToDB(vacancyList.size(), false);
+        saveVacanciesToDB(false);
     }
 
     /**
      * Scheduled task to fetch job data from the API at regular intervals.
+     * <p>
+     * With `refresh.mode=incremental` every new vacancy since the last refresh is fetched; with `refresh.mode=pages`
+     * the first `refresh.parsing.pages` pages are. Only runs on the instance holding the {@link IngestionLease}, and
+     * not before the in-memory indexes are loaded, so the scheduler thread never waits for them.
      */
     @Scheduled(fixedRateString = "${parse.scheduling.interval}")
     public void scheduledJobParsingService() {
-        this.jobParsingService(this.configLoader.getRefreshParsingPages());
+        if (!ingestionLease.isLeader()) {
+            logger.info("Scheduled job parsing skipped: ingestion lease is held by another instance");
+
+            return;
+        }
+
+        if (!vacancyChangeFeed.isStarted()) {
+            logger.info("Scheduled job parsing skipped: in-memory indexes are still loading");
+
+            return;
+        }
+
+        if (INCREMENTAL_REFRESH.equals(configLoader.getRefreshMode())) {
+            this.syncNewVacancies();
+        } else {
+            this.jobParsingService(this.configLoader.getRefreshParsingPages());
+        }
 
         logger.info("Scheduled job parsing service is done!");
     }
 
     /**
      * Scheduled task to save vacancies to the database at regular intervals.
+     * <p>
+     * Only runs on the instance holding the {@link IngestionLease}, and not before the in-memory indexes are loaded.
      */
     @Scheduled(fixedRateString = "${save.scheduling.interval}")
     public void scheduledSaveVacanciesToDBService() {
+        if (!ingestionLease.isLeader()) {
+            logger.info("Scheduled job saving skipped: ingestion lease is held by another instance");
+
+            return;
+        }
+
+        if (!vacancyChangeFeed.isStarted()) {
+            logger.info("Scheduled job saving skipped: in-memory indexes are still loading");
+
+            return;
+        }
+
         this.saveIncomingVacanciesToDB();
 
         logger.info("Scheduled job saving service is done!");
@@ -0,0 +1,188 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.aggregate;
+
+import com.example.workaagencyapi.repositories.TagDictionary;
+import com.example.workaagencyapi.service.ingestion.VacancyIngestionListener;
+import com.example.workaagencyapi.tables.VacancyTable;
+import com.example.workaagencyapi.service.ingestion.WarmupLoader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.*;
+import java.util.function.IntSupplier;
+
+/**
+ * Number of vacancies per tag, counted on the dictionary-encoded tags, leaving out near-duplicates.
+ * <p>
+ * The counts are an array indexed by {@link TagDictionary} id: they are seeded by scanning the packed ids of
+ * the `tag_ids` column, without decoding a single tag, updated with every saved ingestion batch and reconciled with the
+ * database on the same schedule and in the same way as the {@link VacancyAggregates}. Tags are decoded only for the top
+ * entries.
+ */
+@Component
+public class TagStatistics implements VacancyIngestionListener, WarmupLoader {
+
+    private static final Logger logger = LogManager.getLogger(TagStatistics.class);
+
+    private static final String SELECT_TAG_IDS_SQL = "SELECT tag_ids FROM vacancies WHERE tag_ids IS NOT NULL AND duplicate_of IS NULL AND id <= ?";
+    private static final String SELECT_MAX_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM vacancies";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TagDictionary tagDictionary;
+
+    private final Object scanLock = new Object();
+
+    private int[] counts = new int[0];
+    private int countedUpTo;
+    private List<VacancyTable> deliveredDuringScan;
+
+    /**
+     * Constructs a new instance of {@link TagStatistics}.
+     *
+     * @param jdbcTemplate  the JdbcTemplate used to scan the encoded tags
+     * @param tagDictionary the dictionary encoding the tags
+     */
+    @Autowired
+    public TagStatistics(JdbcTemplate jdbcTemplate, TagDictionary tagDictionary) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tagDictionary = tagDictionary;
+    }
+
+    /**
+     * Seeds the counts with the vacancies stored up to {@code maxId}; the later ones are counted when delivered.
+     * <p>
+     * Called outside of a transaction, the seed reads the primary: the replica may not have every row up to
+     * {@code maxId} yet, and the change feed never delivers them.
+     *
+     * @param maxId the highest id to count; higher ids are delivered by the change feed
+     */
+    @Override
+    public void load(int maxId) {
+        recount(() -> maxId);
+    }
+
+    /**
+     * Scheduled task that recounts the tags in the database, read from the replica, discarding any drift.
+     * <p>
+     * Only the rows up to the highest id on the replica are counted, and the batches delivered during the scan
+     * above that id are applied again. If the counts already include ids the replica has not caught up with,
+     * the reconciliation is skipped.
+     */
+    @Scheduled(fixedRateString = "${aggregates.reconcile.interval}", initialDelayString = "${aggregates.reconcile.interval}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        recount(() -> jdbcTemplate.queryForObject(SELECT_MAX_ID_SQL, Integer.class));
+    }
+
+    private void recount(IntSupplier scanMaxId) {
+        synchronized (scanLock) {
+            int countedBefore;
+
+            synchronized (this) {
+                countedBefore = countedUpTo;
+                deliveredDuringScan = new ArrayList<>();
+            }
+
+            try {
+                int maxId = scanMaxId.getAsInt();
+                int[][] scanned = {new int[64]};
+
+                jdbcTemplate.query(SELECT_TAG_IDS_SQL, rs -> {
+                    for (int id : TagDictionary.ids(rs.getBytes(1))) {
+                        scanned[0] = increment(scanned[0], id);
+                    }
+                }, maxId);
+
+                synchronized (this) {
+                    if (countedBefore > maxId) {
+                        logger.warn(STR."Tag statistics not reconciled: vacancies up to id \{countedBefore} counted, database scanned up to \{maxId}");
+
+                        return;
+                    }
+
+                    counts = scanned[0];
+
+                    for (VacancyTable vacancy : deliveredDuringScan) {
+                        if (vacancy.getId() > maxId) {
+                            count(vacancy);
+                        }
+                    }
+
+                    countedUpTo = Math.max(countedUpTo, maxId);
+                }
+
+                logger.info(STR."Tag statistics reconciled: \{Arrays.stream(scanned[0]).filter(count -> count > 0).count()} tags");
+            } finally {
+                synchronized (this) {
+                    deliveredDuringScan = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onVacanciesSaved(List<VacancyTable> savedVacancies) {
+        if (deliveredDuringScan != null) {
+            deliveredDuringScan.addAll(savedVacancies);
+        }
+
+        for (VacancyTable vacancy : savedVacancies) {
+            countedUpTo = Math.max(countedUpTo, vacancy.getId());
+            count(vacancy);
+        }
+    }
+
+    /**
+     * Selects the most used tags with a min-heap bounded to {@code size} entries.
+     *
+     * @param size the number of tags to return
+     * @return single-entry maps of tag to number of vacancies, sorted by count in descending order
+     */
+    public List<Map<String, Integer>> getTopTags(int size) {
+        PriorityQueue<int[]> heap = new PriorityQueue<>(size + 1, Comparator.comparingInt((int[] entry) -> entry[1]));
+
+        synchronized (this) {
+            for (int id = 0; id < counts.length; id++) {
+                if (counts[id] > 0) {
+                    heap.offer(new int[]{id, counts[id]});
+
+                    if (heap.size() > size) {
+                        heap.poll();
+                    }
+                }
+            }
+        }
+
+        List<int[]> top = new ArrayList<>(heap);
+        top.sort(Comparator.comparingInt((int[] entry) -> entry[1]).reversed().thenComparingInt(entry -> entry[0]));
+
+        return top.stream()
+                .map(entry -> Map.of(tagDictionary.valueOf(entry[0]), entry[1]))
+                .toList();
+    }
+
+    private void count(VacancyTable vacancy) {
+        if (vacancy.getTags() != null && vacancy.getDuplicate_of() == null) {
+            for (String tag : vacancy.getTags()) {
+                counts = increment(counts, tagDictionary.idOf(tag));
+            }
+        }
+    }
+
+    private static int[] increment(int[] counts, int id) {
+        int[] grown = id < counts.length ? counts : Arrays.copyOf(counts, Math.max(id + 1, counts.length * 2));
+        grown[id]++;
+
+        return grown;
+    }
+
+}
@@ -0,0 +1,230 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.aggregate;
+
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.ingestion.VacancyIngestionListener;
+import com.example.workaagencyapi.tables.VacancyTable;
+import com.example.workaagencyapi.service.ingestion.WarmupLoader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.*;
+import java.util.function.IntSupplier;
+
+/**
+ * Incrementally maintained vacancy counts per location and per title, leaving out near-duplicates.
+ * <p>
+ * The counters are seeded once from the database, updated with every saved ingestion batch and
+ * reconciled with the database on a schedule to catch drift, without losing or counting twice the
+ * batches delivered during the scan. Reads are served from precomputed snapshots: the city counts
+ * sorted by count, and the top titles selected with a bounded heap.
+ */
+@Component
+public class VacancyAggregates implements VacancyIngestionListener, WarmupLoader {
+
+    private static final Logger logger = LogManager.getLogger(VacancyAggregates.class);
+
+    private static final Comparator<Map.Entry<String, Integer>> BY_COUNT_DESC =
+            Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+
+    private final VacanciesRepository vacanciesRepository;
+    private final ConfigLoader configLoader;
+
+    private final Map<String, Integer> locationCounts = new HashMap<>();
+    private final Map<String, Integer> titleCounts = new HashMap<>();
+
+    private final Object scanLock = new Object();
+
+    private int countedUpTo;
+    private List<VacancyTable> deliveredDuringScan;
+
+    private volatile Map<String, Integer> cityCountsSnapshot = Map.of();
+    private volatile List<Map<String, Integer>> topTitlesSnapshot = List.of();
+
+    /**
+     * Constructs a new instance of {@link VacancyAggregates}.
+     *
+     * @param vacanciesRepository the repository used to seed and reconcile the counters
+     * @param configLoader        the configuration loader for retrieving the top titles size
+     */
+    @Autowired
+    public VacancyAggregates(VacanciesRepository vacanciesRepository, ConfigLoader configLoader) {
+        this.vacanciesRepository = vacanciesRepository;
+        this.configLoader = configLoader;
+    }
+
+    /**
+     * Seeds the counters with the vacancies stored up to {@code maxId}; the later ones are counted when delivered.
+     * <p>
+     * Called outside of a transaction, the seed reads the primary: the replica may not have every row up to
+     * {@code maxId} yet, and the change feed never delivers them.
+     *
+     * @param maxId the highest id to count; higher ids are delivered by the change feed
+     */
+    @Override
+    public void load(int maxId) {
+        recount(() -> maxId);
+    }
+
+    /**
+     * Scheduled task that reloads the counters from the database, read from the replica, discarding any drift.
+     * <p>
+     * Only the rows up to the highest id on the replica are counted, and the batches delivered during the scan
+     * above that id are applied again. If the counters already include ids the replica has not caught up with,
+     * the reconciliation is skipped.
+     */
+    @Scheduled(fixedRateString = "${aggregates.reconcile.interval}", initialDelayString = "${aggregates.reconcile.interval}")
+    @Transactional(readOnly = true)
+    public void reconcile() {
+        recount(vacanciesRepository::findMaxId);
+    }
+
+    private void recount(IntSupplier scanMaxId) {
+        synchronized (scanLock) {
+            int countedBefore;
+
+            synchronized (this) {
+                countedBefore = countedUpTo;
+                deliveredDuringScan = new ArrayList<>();
+            }
+
+            try {
+                int maxId = scanMaxId.getAsInt();
+                Map<String, Integer> locations = toCounts(vacanciesRepository.findCityCountsAsMap(maxId), "location", "city_count");
+                Map<String, Integer> titles = toCounts(vacanciesRepository.findTitleCounts(maxId), "title", "count");
+
+                synchronized (this) {
+                    if (countedBefore > maxId) {
+                        logger.warn(STR."Aggregates not reconciled: vacancies up to id \{countedBefore} counted, database scanned up to \{maxId}");
+
+                        return;
+                    }
+
+                    locationCounts.clear();
+                    locationCounts.putAll(locations);
+                    titleCounts.clear();
+                    titleCounts.putAll(titles);
+
+                    for (VacancyTable vacancy : deliveredDuringScan) {
+                        if (vacancy.getId() > maxId) {
+                            count(vacancy);
+                        }
+                    }
+
+                    countedUpTo = Math.max(countedUpTo, maxId);
+                    refreshSnapshots();
+                }
+
+                logger.info(STR."Aggregates reconciled: \{locations.size()} locations, \{titles.size()} titles");
+            } finally {
+                synchronized (this) {
+                    deliveredDuringScan = null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void onVacanciesSaved(List<VacancyTable> savedVacancies) {
+        if (deliveredDuringScan != null) {
+            deliveredDuringScan.addAll(savedVacancies);
+        }
+
+        for (VacancyTable vacancy : savedVacancies) {
+            countedUpTo = Math.max(countedUpTo, vacancy.getId());
+            count(vacancy);
+        }
+
+        refreshSnapshots();
+    }
+
+    /**
+     * @return the number of vacancies per city, sorted by count in descending order
+     */
+    public Map<String, Integer> getCityCounts() {
+        return cityCountsSnapshot;
+    }
+
+    /**
+     * @return the most frequent titles occurring more than once, as single-entry maps of title to count,
+     *         sorted by count in descending order
+     */
+    public List<Map<String, Integer>> getTopTitles() {
+        return topTitlesSnapshot;
+    }
+
+    private void refreshSnapshots() {
+        Map<String, Integer> cityCounts = new LinkedHashMap<>();
+        locationCounts.entrySet().stream()
+                .sorted(BY_COUNT_DESC)
+                .forEach(entry -> cityCounts.put(entry.getKey(), entry.getValue()));
+
+        this.cityCountsSnapshot = Collections.unmodifiableMap(cityCounts);
+        this.topTitlesSnapshot = selectTopTitles(configLoader.getTopTitlesSize());
+    }
+
+    /**
+     * Selects the {@code size} most frequent titles with a min-heap bounded to {@code size} entries.
+     */
+    private List<Map<String, Integer>> selectTopTitles(int size) {
+        if (size < 1) {
+            return List.of();
+        }
+
+        PriorityQueue<Map.Entry<String, Integer>> heap = new PriorityQueue<>(size + 1, BY_COUNT_DESC.reversed());
+
+        for (Map.Entry<String, Integer> entry : titleCounts.entrySet()) {
+            if (entry.getValue() > 1) {
+                heap.offer(entry);
+
+                if (heap.size() > size) {
+                    heap.poll();
+                }
+            }
+        }
+
+        List<Map.Entry<String, Integer>> top = new ArrayList<>(heap);
+        top.sort(BY_COUNT_DESC);
+
+        return top.stream()
+                .map(entry -> Map.of(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private void count(VacancyTable vacancy) {
+        if (vacancy.getDuplicate_of() == null) {
+            increment(locationCounts, vacancy.getLocation());
+            increment(titleCounts, vacancy.getTitle());
+        }
+    }
+
+    private static void increment(Map<String, Integer> counts, String key) {
+        if (key != null) {
+            counts.merge(key, 1, Integer::sum);
+        }
+    }
+
+    private static Map<String, Integer> toCounts(List<Map<String, Object>> rows, String keyColumn, String countColumn) {
+        Map<String, Integer> counts = new HashMap<>();
+
+        for (Map<String, Object> row : rows) {
+            String key = (String) row.get(keyColumn);
+
+            if (key != null) {
+                counts.put(key, ((Number) row.get(countColumn)).intValue());
+            }
+        }
+
+        return counts;
+    }
+
+}
@@ -0,0 +1,169 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.cache;
+
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.ingestion.VacancyIngestionListener;
+import com.example.workaagencyapi.tables.VacancyTable;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of encoded read API responses.
+ * <p>
+ * Each entry holds the response bytes exactly as they were sent, with their content type and a strong ETag,
+ * so a hit is written back without querying the database or serializing again. The cache is bounded by the
+ * total size of the cached bodies (`response.cache.max.bytes`) with Caffeine's W-TinyLFU eviction, and it is
+ * cleared whenever an ingestion batch is saved. Hit ratio, evictions and memory use are published as metrics.
+ * <p>
+ * The batch is saved on the primary while the cached pages are read from the replica, which may lag behind it.
+ * For `response.cache.fill.delay` milliseconds after an invalidation, responses are therefore served but not
+ * cached, so a page read before the replica caught up is not kept until the next save. A replica lagging more
+ * than that can still leave a stale page in the cache, until the next invalidation.
+ */
+@Component
+public class ResponseCache implements VacancyIngestionListener {
+
+    private static final Logger logger = LogManager.getLogger(ResponseCache.class);
+
+    private final Cache<String, CachedResponse> cache;
+
+    /**
+     * Incremented on every invalidation, so that a response computed before a save is not cached after it.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final long fillDelayMillis;
+    private final Clock clock;
+
+    /**
+     * The time in milliseconds before which responses are not cached.
+     */
+    private volatile long fillAllowedAt;
+
+    /**
+     * An encoded response.
+     *
+     * @param body        the response body bytes
+     * @param contentType the response content type
+     * @param etag        the strong ETag of the body, quoted
+     */
+    public record CachedResponse(byte[] body, String contentType, String etag) {
+
+        /**
+         * Creates a cached response, computing the ETag of the body.
+         *
+         * @param body        the response body bytes
+         * @param contentType the response content type
+         * @return the cached response
+         */
+        public static CachedResponse of(byte[] body, String contentType) {
+            return new CachedResponse(body, contentType, STR."\"\{DigestUtils.md5DigestAsHex(body)}\"");
+        }
+    }
+
+    /**
+     * Constructs a new instance of {@link ResponseCache} on the system clock.
+     *
+     * @param configLoader  the configuration loader for retrieving the cache size and fill delay
+     * @param meterRegistry the registry the cache metrics are published to
+     */
+    @Autowired
+    public ResponseCache(ConfigLoader configLoader, MeterRegistry meterRegistry) {
+        this(configLoader, meterRegistry, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a new instance of {@link ResponseCache}.
+     *
+     * @param configLoader  the configuration loader for retrieving the cache size and fill delay
+     * @param meterRegistry the registry the cache metrics are published to
+     * @param clock         the clock timing the fill delay
+     */
+    public ResponseCache(ConfigLoader configLoader, MeterRegistry meterRegistry, Clock clock) {
+        this.fillDelayMillis = configLoader.getResponseCacheFillDelay();
+        this.clock = clock;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(configLoader.getResponseCacheMaxBytes())
+                .weigher((String key, CachedResponse response) -> key.length() + response.body().length)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "responses");
+        Gauge.builder("cache.weighted.size", this, ResponseCache::weightedSize)
+                .tag("cache", "responses")
+                .baseUnit("bytes")
+                .description("Approximate number of bytes held by the cached responses")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param key the request key
+     * @return the cached response, or null if the key is not cached
+     */
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * @return the current generation, to pass to {@link #put(String, CachedResponse, long)}
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches a response unless the cache was invalidated since it started being computed, or less than
+     * `response.cache.fill.delay` milliseconds ago.
+     *
+     * @param key                the request key
+     * @param response           the encoded response
+     * @param computedGeneration the {@link #generation()} read before the response was computed
+     */
+    public void put(String key, CachedResponse response, long computedGeneration) {
+        if (generation.get() == computedGeneration && clock.millis() >= fillAllowedAt) {
+            cache.put(key, response);
+        }
+    }
+
+    /**
+     * Clears the cache.
+     */
+    public void invalidateAll() {
+        fillAllowedAt = clock.millis() + fillDelayMillis;
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void onVacanciesSaved(List<VacancyTable> savedVacancies) {
+        invalidateAll();
+
+        logger.info(STR."Response cache invalidated, hit ratio so far: \{cache.stats().hitRate()}");
+    }
+
+    /**
+     * @return the approximate number of bytes held by the cached responses
+     */
+    public long weightedSize() {
+        return cache.policy().eviction()
+                .flatMap(eviction -> eviction.weightedSize().stream().boxed().findFirst())
+                .orElse(0L);
+    }
+
+}
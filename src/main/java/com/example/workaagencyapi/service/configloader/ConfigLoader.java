@@ -9,6 +9,7 @@ package com.example.workaagencyapi.service.configloader;
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import java.util.List;
 
 /**
  * Configuration class for loading and managing application settings related to pagination and vacancy parsing.
@@ -26,13 +27,85 @@ public class ConfigLoader {
     @Value("${pagination.enable}")
     private boolean paginationEnable;
 
-    @Value("${vacancies.refresh.count}")
-    private int vacanciesRefreshCount;
-
     @Value("${refresh.parsing.pages}")
     private int refreshParsingPages;
 
+    @Value("${refresh.mode}")
+    private String refreshMode;
+
+    @Value("${refresh.max.pages}")
+    private int refreshMaxPages;
+
     @Value("${page.vacancies.count}")
     private int pageVacanciesCount;
 
+    @Value("${cursor.max.limit}")
+    private int cursorMaxLimit;
+
+    @Value("${search.max.results}")
+    private int searchMaxResults;
+
+    @Value("${facets.max.values}")
+    private int facetsMaxValues;
+
+    @Value("${top.titles.size}")
+    private int topTitlesSize;
+
+    @Value("${ingestion.batch.size}")
+    private int ingestionBatchSize;
+
+    @Value("${upstream.max.concurrent.pages}")
+    private int maxConcurrentPageRequests;
+
+    @Value("${upstream.pool.max.connections}")
+    private int upstreamPoolMaxConnections;
+
+    @Value("${upstream.connect.timeout}")
+    private int upstreamConnectTimeout;
+
+    @Value("${upstream.read.timeout}")
+    private int upstreamReadTimeout;
+
+    @Value("${startup.backfill.async}")
+    private boolean startupBackfillAsync;
+
+    @Value("${ingestion.lease.ttl}")
+    private long ingestionLeaseTtl;
+
+    @Value("${ingestion.lease.heartbeat.interval}")
+    private long ingestionLeaseHeartbeatInterval;
+
+    @Value("${staging.buffer.capacity}")
+    private int stagingBufferCapacity;
+
+    @Value("${staging.offer.timeout}")
+    private long stagingOfferTimeout;
+
+    @Value("${response.cache.max.bytes}")
+    private long responseCacheMaxBytes;
+
+    @Value("${response.cache.paths}")
+    private List<String> responseCachePaths;
+
+    @Value("${response.cache.fill.delay}")
+    private long responseCacheFillDelay;
+
+    @Value("${description.storage}")
+    private String descriptionStorage;
+
+    @Value("${description.cache.size}")
+    private int descriptionCacheSize;
+
+    @Value("${trending.epsilon}")
+    private double trendingEpsilon;
+
+    @Value("${stream.buffer.size}")
+    private int streamBufferSize;
+
+    @Value("${stream.emitter.timeout}")
+    private long streamEmitterTimeout;
+
+    @Value("${dedup.near.threshold}")
+    private double nearDuplicateThreshold;
+
 }
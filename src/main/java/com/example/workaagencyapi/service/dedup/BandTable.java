@@ -0,0 +1,101 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.dedup;
+
+/**
+ * Open-addressing hash table from LSH band keys to a non-zero value of the first vacancy having that band. The
+ * {@link NearDuplicateDetector} stores the dense position of the original vacancy plus one, not its id; the
+ * id is read from the detector's {@code originalIds} array at that position.
+ * <p>
+ * Keys and values are stored in two primitive arrays with linear probing, 8 bytes per slot, so that
+ * millions of band entries take no boxed objects. Key 0 marks an empty slot and is remapped on insertion.
+ */
+final class BandTable {
+
+    private static final float MAX_LOAD = 0.75f;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    BandTable(int expectedEntries) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedEntries / MAX_LOAD)) - 1) << 1;
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+    }
+
+    /**
+     * @return the value stored for the key, or 0 if there is none
+     */
+    int get(int key) {
+        key = nonZero(key);
+        int mask = keys.length - 1;
+
+        for (int slot = spread(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Stores the value for the key, unless the key already has one. The value must not be 0.
+     */
+    void putIfAbsent(int key, int value) {
+        if (size + 1 > keys.length * MAX_LOAD) {
+            resize();
+        }
+
+        key = nonZero(key);
+        int mask = keys.length - 1;
+        int slot = spread(key) & mask;
+
+        for (; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return;
+            }
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        int mask = keys.length - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = spread(oldKeys[i]) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int nonZero(int key) {
+        return key == 0 ? 1 : key;
+    }
+
+    private static int spread(int key) {
+        return key * 0x9E3779B9 ^ key >>> 16;
+    }
+
+}
@@ -0,0 +1,129 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.dedup;
+
+import com.example.workaagencyapi.service.search.VacancyTokenizer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+/**
+ * MinHash signatures of vacancy text, for estimating the Jaccard similarity of two vacancies.
+ * <p>
+ * The text is split into terms by the {@link VacancyTokenizer} and shingled into overlapping runs of
+ * {@value #SHINGLE_SIZE} terms. Each of the hash functions is a multiply-shift hash of the 64-bit shingle hash, and
+ * the signature keeps the minimum of each one over all shingles: two vacancies agree on a signature position with a
+ * probability equal to the Jaccard similarity of their shingle sets.
+ */
+public final class MinHasher {
+
+    private static final int SHINGLE_SIZE = 3;
+
+    private final long[] multipliers;
+    private final long[] increments;
+
+    /**
+     * Constructs a hasher with the given number of hash functions, drawn from a seed so that signatures computed
+     * by different instances can be compared.
+     *
+     * @param hashes the number of hash functions, i.e. the length of the signatures
+     * @param seed   the seed of the hash functions
+     */
+    public MinHasher(int hashes, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        this.multipliers = new long[hashes];
+        this.increments = new long[hashes];
+
+        for (int i = 0; i < hashes; i++) {
+            multipliers[i] = random.nextLong() | 1;
+            increments[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Computes the signature of the concatenation of the given texts. Texts with fewer terms than a shingle
+     * are hashed term by term.
+     *
+     * @param texts the texts, each may be null
+     * @return the signature, with values in the unsigned 32-bit range, or null if the texts hold no term
+     */
+    public int[] signature(String... texts) {
+        Shingler shingler = new Shingler();
+
+        for (String text : texts) {
+            VacancyTokenizer.tokenize(text, shingler);
+        }
+
+        if (shingler.terms == 0) {
+            return null;
+        }
+
+        for (int i = SHINGLE_SIZE - shingler.terms; i < SHINGLE_SIZE && shingler.terms < SHINGLE_SIZE; i++) {
+            shingler.add(mix(shingler.window[i]));
+        }
+
+        int[] signature = new int[multipliers.length];
+        for (int i = 0; i < signature.length; i++) {
+            signature[i] = (int) shingler.minimums[i];
+        }
+
+        return signature;
+    }
+
+    /**
+     * Keeps the last terms of the text and updates the minimums with the hash of each full shingle.
+     */
+    private final class Shingler implements Consumer<String> {
+
+        private final long[] minimums = new long[multipliers.length];
+        private final int[] window = new int[SHINGLE_SIZE];
+        private int terms;
+
+        private Shingler() {
+            Arrays.fill(minimums, Long.MAX_VALUE);
+        }
+
+        @Override
+        public void accept(String term) {
+            System.arraycopy(window, 1, window, 0, SHINGLE_SIZE - 1);
+            window[SHINGLE_SIZE - 1] = term.hashCode();
+            terms++;
+
+            if (terms >= SHINGLE_SIZE) {
+                long shingle = 0;
+                for (int termHash : window) {
+                    shingle = shingle * 31 + termHash;
+                }
+                add(mix(shingle));
+            }
+        }
+
+        private void add(long shingle) {
+            for (int i = 0; i < minimums.length; i++) {
+                long hash = (multipliers[i] * shingle + increments[i]) >>> 32;
+
+                if (hash < minimums[i]) {
+                    minimums[i] = hash;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finalizer of MurmurHash3, spreading the bits of the shingle hash over all 64 bits.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+
+}
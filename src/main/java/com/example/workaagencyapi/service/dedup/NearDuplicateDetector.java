@@ -0,0 +1,277 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.dedup;
+
+import com.example.workaagencyapi.repositories.DescriptionStore;
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.repositories.VacancyBatchWriter;
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.ingestion.IndexWarmup;
+import com.example.workaagencyapi.service.ingestion.WarmupLoader;
+import com.example.workaagencyapi.service.lease.IngestionLease;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Detects vacancies that repost an already stored vacancy under another URL, e.g. by another agency.
+ * <p>
+ * Each vacancy gets a {@link MinHasher} signature of {@value #HASHES} values over its title, company name and
+ * description, cut into {@value #BANDS} bands of {@value #ROWS} rows. The bands of every original vacancy are
+ * stored in a {@link BandTable}; a new vacancy sharing at least one band with an original is a candidate, and
+ * is marked as its duplicate if the signatures estimate a Jaccard similarity of at least `dedup.near.threshold`.
+ * Lookups are a fixed number of hash probes, whatever the number of stored vacancies. For the similarity check,
+ * the lowest 8 bits of each signature value of the originals are kept in an array of {@value #HASHES} bytes per
+ * original (b-bit MinHash); originals get dense positions in it in the order they are added, so its size follows
+ * the number of originals, not the highest id.
+ * <p>
+ * Vacancies are processed once, in the order they are saved or tailed, so every instance reaches the same
+ * decisions; duplicates of vacancies saved by this instance are written to the `duplicate_of` column. The stored
+ * vacancies are loaded in id order by the {@link IndexWarmup}, and the duplicates found among vacancies stored
+ * before detection was enabled are written by the instance holding the ingestion lease. New vacancies are only
+ * classified once that load has finished.
+ */
+@Component
+public class NearDuplicateDetector implements WarmupLoader {
+
+    private static final Logger logger = LogManager.getLogger(NearDuplicateDetector.class);
+
+    /**
+     * The number of LSH bands; with {@value #ROWS} rows, a pair with a similarity of 0.8 shares a band
+     * with a probability of 98%, a pair with a similarity of 0.3 with a probability of 2%.
+     */
+    public static final int BANDS = 10;
+
+    /**
+     * The number of signature values per band.
+     */
+    public static final int ROWS = 5;
+
+    private static final int HASHES = BANDS * ROWS;
+
+    private static final long SEED = 0x5DEECE66DL;
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private static final double BYTE_COLLISION = 1.0 / 256;
+
+    private static final int MAX_ORIGINALS = (Integer.MAX_VALUE - 8) / HASHES;
+
+    private final VacanciesRepository vacanciesRepository;
+    private final DescriptionStore descriptionStore;
+    private final VacancyBatchWriter vacancyBatchWriter;
+    private final IngestionLease ingestionLease;
+    private final double threshold;
+
+    private final MinHasher minHasher = new MinHasher(HASHES, SEED);
+    private final BandTable bands = new BandTable(1 << 16);
+    private final RoaringBitmap processed = new RoaringBitmap();
+    private final CountDownLatch loaded = new CountDownLatch(1);
+
+    private int[] originalIds = new int[1024];
+    private byte[] sketches = new byte[HASHES * 1024];
+    private int originals;
+
+    /**
+     * Constructs a new instance of {@link NearDuplicateDetector}.
+     *
+     * @param vacanciesRepository the repository used to load the stored vacancies at startup
+     * @param descriptionStore    the store of the descriptions that are not stored inline
+     * @param vacancyBatchWriter  the writer of the `duplicate_of` column
+     * @param ingestionLease      the lease that elects the instance writing the duplicates found at startup
+     * @param configLoader        the configuration loader for retrieving the similarity threshold
+     */
+    @Autowired
+    public NearDuplicateDetector(VacanciesRepository vacanciesRepository, DescriptionStore descriptionStore,
+                                 VacancyBatchWriter vacancyBatchWriter, IngestionLease ingestionLease,
+                                 ConfigLoader configLoader) {
+        this.vacanciesRepository = vacanciesRepository;
+        this.descriptionStore = descriptionStore;
+        this.vacancyBatchWriter = vacancyBatchWriter;
+        this.ingestionLease = ingestionLease;
+        this.threshold = configLoader.getNearDuplicateThreshold();
+    }
+
+    /**
+     * Loads the stored vacancies up to {@code maxId}, in batches ordered by id, then writes the duplicates found
+     * among vacancies stored before detection was enabled, on the instance holding the lease.
+     *
+     * @param maxId the highest id to load
+     */
+    @Override
+    public void load(int maxId) {
+        Map<Integer, Integer> found = new LinkedHashMap<>();
+
+        try {
+            int lastId = 0;
+            List<VacancyTable> batch;
+
+            do {
+                batch = vacanciesRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(LOAD_BATCH_SIZE)).stream()
+                        .filter(vacancy -> vacancy.getId() <= maxId)
+                        .toList();
+
+                if (!batch.isEmpty()) {
+                    descriptionStore.fillAll(batch);
+                    found.putAll(classify(batch));
+                    lastId = batch.getLast().getId();
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+        } finally {
+            loaded.countDown();
+        }
+
+        logger.info(STR."Near-duplicate index loaded: \{getProcessedCount()} vacancies, \{bands.size()} bands, \{found.size()} new duplicates");
+
+        if (!found.isEmpty() && ingestionLease.isLeader()) {
+            vacancyBatchWriter.writeDuplicateOf(found);
+            logger.info(STR."Marked \{found.size()} stored vacancies as near-duplicates");
+        }
+    }
+
+    /**
+     * Classifies vacancies not processed yet, in the given order: each one is either marked as the duplicate of a
+     * similar original through {@link VacancyTable#setDuplicate_of(Integer)}, or becomes an original itself.
+     * Vacancies already marked are kept as they are. Waits until the stored vacancies are loaded.
+     *
+     * @param vacancies the vacancies, with their ids and descriptions
+     * @return the ids of the vacancies newly marked, mapped to the ids of their originals
+     * @throws IllegalStateException if the calling thread is interrupted while waiting for the load
+     */
+    public Map<Integer, Integer> detect(List<VacancyTable> vacancies) {
+        try {
+            loaded.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException("Interrupted while waiting for the near-duplicate index", e);
+        }
+
+        return classify(vacancies);
+    }
+
+    private synchronized Map<Integer, Integer> classify(List<VacancyTable> vacancies) {
+        Map<Integer, Integer> marked = new LinkedHashMap<>();
+
+        for (VacancyTable vacancy : vacancies) {
+            if (!processed.checkedAdd(vacancy.getId()) || vacancy.getDuplicate_of() != null) {
+                continue;
+            }
+
+            int[] signature = minHasher.signature(vacancy.getTitle(), vacancy.getCompany_name(), vacancy.getDescription());
+
+            if (signature == null) {
+                continue;
+            }
+
+            int original = findOriginal(signature);
+
+            if (original != 0) {
+                vacancy.setDuplicate_of(original);
+                marked.put(vacancy.getId(), original);
+            } else {
+                add(vacancy.getId(), signature);
+            }
+        }
+
+        return marked;
+    }
+
+    /**
+     * Looks up the originals sharing a band with the signature. The band table holds the positions of the
+     * originals plus one, so that 0 stays free for missing keys.
+     *
+     * @return the id of the most similar original above the threshold, or 0 if there is none
+     */
+    private int findOriginal(int[] signature) {
+        int best = 0;
+        double bestSimilarity = threshold;
+
+        for (int band = 0; band < BANDS; band++) {
+            int candidate = bands.get(bandKey(signature, band));
+
+            if (candidate != 0 && candidate != best) {
+                double similarity = similarity(candidate - 1, signature);
+
+                if (similarity >= bestSimilarity) {
+                    best = candidate;
+                    bestSimilarity = similarity;
+                }
+            }
+        }
+
+        return best == 0 ? 0 : originalIds[best - 1];
+    }
+
+    /**
+     * Estimates the Jaccard similarity from the fraction of equal 8-bit signature values, correcting for the
+     * values that are equal by chance.
+     */
+    private double similarity(int position, int[] signature) {
+        int offset = position * HASHES;
+        int equal = 0;
+
+        for (int i = 0; i < HASHES; i++) {
+            if (sketches[offset + i] == (byte) signature[i]) {
+                equal++;
+            }
+        }
+
+        return ((double) equal / HASHES - BYTE_COLLISION) / (1 - BYTE_COLLISION);
+    }
+
+    private void add(int id, int[] signature) {
+        if (originals == originalIds.length) {
+            if (originals == MAX_ORIGINALS) {
+                throw new IllegalStateException(STR."Near-duplicate index is full: \{originals} originals");
+            }
+
+            int capacity = (int) Math.min((long) originals * 2, MAX_ORIGINALS);
+            originalIds = Arrays.copyOf(originalIds, capacity);
+            sketches = Arrays.copyOf(sketches, capacity * HASHES);
+        }
+
+        int position = originals++;
+        int offset = position * HASHES;
+        originalIds[position] = id;
+
+        for (int i = 0; i < HASHES; i++) {
+            sketches[offset + i] = (byte) signature[i];
+        }
+
+        for (int band = 0; band < BANDS; band++) {
+            bands.putIfAbsent(bandKey(signature, band), position + 1);
+        }
+    }
+
+    private static int bandKey(int[] signature, int band) {
+        int key = band;
+
+        for (int i = band * ROWS; i < (band + 1) * ROWS; i++) {
+            key = key * 0x01000193 ^ signature[i];
+        }
+
+        return key;
+    }
+
+    /**
+     * @return the number of vacancies processed
+     */
+    public synchronized int getProcessedCount() {
+        return processed.getCardinality();
+    }
+
+}
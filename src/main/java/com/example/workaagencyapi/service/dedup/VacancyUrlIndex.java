@@ -0,0 +1,149 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.dedup;
+
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.service.ingestion.WarmupLoader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory index of the vacancy URLs already stored in the database.
+ * <p>
+ * The index is built in the background at startup, kept current on every save and resynced with the
+ * database on a schedule, so that ingestion can check for duplicates with a single hash
+ * lookup instead of loading every URL from the "vacancies" table for each incoming vacancy.
+ */
+@Component
+public class VacancyUrlIndex implements WarmupLoader {
+
+    private static final Logger logger = LogManager.getLogger(VacancyUrlIndex.class);
+
+    private final VacanciesRepository vacanciesRepository;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private volatile Set<String> urls = ConcurrentHashMap.newKeySet();
+
+    /**
+     * URLs added while a resync is loading the database snapshot, merged into the new snapshot
+     * so that no save is lost when the index is swapped.
+     */
+    private final Set<String> recentlyAdded = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructs a new instance of {@link VacancyUrlIndex}.
+     *
+     * @param vacanciesRepository the repository used to load the existing vacancy URLs
+     */
+    @Autowired
+    public VacancyUrlIndex(VacanciesRepository vacanciesRepository) {
+        this.vacanciesRepository = vacanciesRepository;
+    }
+
+    /**
+     * Builds the index from the URLs stored up to {@code maxId}; the later ones are added when saved or delivered.
+     *
+     * @param maxId the highest id to load; higher ids are delivered by the change feed
+     */
+    @Override
+    public void load(int maxId) {
+        rebuild(maxId);
+    }
+
+    /**
+     * Checks whether a vacancy with the given URL is already stored, counting the lookup as a hit or a miss.
+     *
+     * @param url the vacancy URL to check
+     * @return true if the URL is known, false otherwise
+     */
+    public boolean contains(String url) {
+        boolean known = url != null && urls.contains(url);
+
+        if (known) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+
+        return known;
+    }
+
+    /**
+     * Registers the URL of a vacancy that has just been saved.
+     *
+     * @param url the saved vacancy URL
+     */
+    public void add(String url) {
+        if (url == null) {
+            return;
+        }
+
+        urls.add(url);
+        recentlyAdded.add(url);
+    }
+
+    /**
+     * Registers the URLs of vacancies that have just been saved.
+     *
+     * @param savedUrls the saved vacancy URLs
+     */
+    public void addAll(Collection<String> savedUrls) {
+        savedUrls.forEach(this::add);
+    }
+
+    /**
+     * Scheduled task that rebuilds the index from the database, picking up rows written
+     * or removed outside of this instance.
+     */
+    @Scheduled(fixedRateString = "${dedup.resync.interval}", initialDelayString = "${dedup.resync.interval}")
+    public void resync() {
+        rebuild(Integer.MAX_VALUE);
+    }
+
+    private synchronized void rebuild(int maxId) {
+        recentlyAdded.clear();
+
+        Set<String> snapshot = ConcurrentHashMap.newKeySet();
+        snapshot.addAll(vacanciesRepository.findUrlsByIdUpTo(maxId));
+
+        this.urls = snapshot;
+        snapshot.addAll(recentlyAdded);
+
+        logger.info(STR."URL index resynced: \{snapshot.size()} urls, hits=\{getHits()}, misses=\{getMisses()}");
+    }
+
+    /**
+     * @return the number of URLs in the index
+     */
+    public int size() {
+        return urls.size();
+    }
+
+    /**
+     * @return the number of lookups that found an already stored URL
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of lookups that did not find the URL
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+}
@@ -0,0 +1,133 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.description;
+
+import com.example.workaagencyapi.repositories.DescriptionStore;
+import com.example.workaagencyapi.service.lease.IngestionLease;
+import com.example.workaagencyapi.service.lease.IngestionLeaseChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Moves the descriptions stored inline before `description.storage=compressed` was set to the compressed side table.
+ * <p>
+ * Runs once the application is ready, on a background virtual thread, on the instance holding the
+ * {@link IngestionLease}; an instance acquiring the lease later starts it then, and an instance losing the
+ * lease stops it. Each batch is moved in its own transaction, so an interrupted migration resumes where it
+ * stopped on the next run; descriptions not moved yet are still served from the inline column.
+ */
+@Component
+public class DescriptionMigration {
+
+    private static final Logger logger = LogManager.getLogger(DescriptionMigration.class);
+
+    private static final int MIGRATION_BATCH_SIZE = 500;
+
+    private final DescriptionStore descriptionStore;
+    private final IngestionLease ingestionLease;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("description-migration").factory());
+
+    private boolean ready;
+    private Future<?> running;
+
+    /**
+     * Constructs a new instance of {@link DescriptionMigration}.
+     *
+     * @param descriptionStore the store the descriptions are moved to
+     * @param ingestionLease   the lease that elects the instance allowed to run the migration
+     */
+    @Autowired
+    public DescriptionMigration(DescriptionStore descriptionStore, IngestionLease ingestionLease) {
+        this.descriptionStore = descriptionStore;
+        this.ingestionLease = ingestionLease;
+    }
+
+    /**
+     * Starts the migration in the background once the application is ready, in compressed storage mode.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void runWhenReady() {
+        ready = true;
+
+        if (ingestionLease.isLeader()) {
+            start();
+        }
+    }
+
+    /**
+     * Starts the migration in the background when this instance acquires the ingestion lease after startup,
+     * and stops a running migration when it loses the lease. Only submits or cancels the task, as the lease
+     * events are published on the heartbeat thread.
+     *
+     * @param event the change of leadership
+     */
+    @EventListener
+    public synchronized void onLeaseChanged(IngestionLeaseChangedEvent event) {
+        if (!ready) {
+            return;
+        }
+
+        if (event.leader()) {
+            start();
+        } else if (running != null && !running.isDone()) {
+            running.cancel(true);
+
+            logger.info("Ingestion lease lost, description migration stopped");
+        }
+    }
+
+    private void start() {
+        if (descriptionStore.isCompressed() && (running == null || running.isDone())) {
+            running = executor.submit(this::migrate);
+        }
+    }
+
+    /**
+     * Moves the inline descriptions batch by batch until none is left, the lease is lost or the migration is
+     * interrupted.
+     *
+     * @return the id of the last description moved, 0 if none was moved
+     */
+    int migrate() {
+        int lastId = 0;
+
+        try {
+            int moved;
+
+            while (!Thread.currentThread().isInterrupted() && ingestionLease.isLeader()
+                    && (moved = descriptionStore.migrateBatch(lastId, MIGRATION_BATCH_SIZE)) > 0) {
+                lastId = moved;
+            }
+
+            if (lastId > 0) {
+                logger.info(STR."Moved inline descriptions up to vacancy \{lastId} to compressed storage");
+            }
+        } catch (RuntimeException e) {
+            logger.error(STR."Description migration stopped after vacancy \{lastId}: ", e);
+        }
+
+        return lastId;
+    }
+
+    /**
+     * Stops a running migration on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
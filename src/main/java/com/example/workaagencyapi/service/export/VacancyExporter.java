@@ -0,0 +1,123 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.export;
+
+import com.example.workaagencyapi.repositories.DescriptionStore;
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.tables.VacancyTable;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes the stored vacancies as newline-delimited JSON, one full vacancy per line.
+ * <p>
+ * The rows are read from a server-side cursor in a read-only transaction, routed to the replica, and written in
+ * batches of {@value VacanciesRepository#EXPORT_FETCH_SIZE}: each vacancy is detached from the persistence context
+ * as soon as it is read, the descriptions of a batch are loaded with one query, and the batch is flushed to the
+ * client before the next one is fetched. Only one batch is held in memory, whatever the size of the table.
+ */
+@Component
+public class VacancyExporter {
+
+    private static final Logger logger = LogManager.getLogger(VacancyExporter.class);
+
+    private final VacanciesRepository vacanciesRepository;
+    private final DescriptionStore descriptionStore;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs a new instance of {@link VacancyExporter}.
+     *
+     * @param vacanciesRepository the repository streaming the vacancies
+     * @param descriptionStore    the store of the descriptions not stored inline
+     * @param entityManager       the entity manager the streamed vacancies are detached from
+     * @param transactionManager  the transaction manager of the read-only export transaction
+     * @param objectMapper        the mapper writing each vacancy
+     */
+    @Autowired
+    public VacancyExporter(VacanciesRepository vacanciesRepository, DescriptionStore descriptionStore,
+                           EntityManager entityManager, PlatformTransactionManager transactionManager,
+                           ObjectMapper objectMapper) {
+        this.vacanciesRepository = vacanciesRepository;
+        this.descriptionStore = descriptionStore;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes the vacancies created at or after the given time, in ascending id order.
+     *
+     * @param since the earliest `created_at` to export, in epoch seconds
+     * @param out   the stream the lines are written to, left open
+     * @return the number of vacancies written
+     * @throws UncheckedIOException if writing to the stream fails, e.g. when the client disconnects
+     */
+    public int export(long since, OutputStream out) {
+        int exported = readOnlyTransaction.execute(_ -> {
+            try (Stream<VacancyTable> vacancies = vacanciesRepository.streamByCreatedAtSince(since);
+                 JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+
+                List<VacancyTable> batch = new ArrayList<>(VacanciesRepository.EXPORT_FETCH_SIZE);
+                int written = 0;
+
+                for (Iterator<VacancyTable> iterator = vacancies.iterator(); iterator.hasNext(); ) {
+                    VacancyTable vacancy = iterator.next();
+                    entityManager.detach(vacancy);
+                    batch.add(vacancy);
+
+                    if (batch.size() == VacanciesRepository.EXPORT_FETCH_SIZE) {
+                        written += write(batch, generator);
+                    }
+                }
+
+                return written + write(batch, generator);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        logger.info(STR."Exported \{exported} vacancies created since \{since}");
+
+        return exported;
+    }
+
+    private int write(List<VacancyTable> batch, JsonGenerator generator) throws IOException {
+        int size = batch.size();
+        descriptionStore.fillAll(batch);
+
+        for (VacancyTable vacancy : batch) {
+            generator.writeObject(vacancy);
+            generator.writeRaw('\n');
+        }
+
+        generator.flush();
+        batch.clear();
+
+        return size;
+    }
+
+}
@@ -0,0 +1,31 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.facet;
+
+import java.util.Set;
+
+/**
+ * Filter over the vacancy facets.
+ * <p>
+ * Values of the same facet are combined with OR (or with AND for tags when {@code allTags} is set),
+ * and the facets are combined with AND. An empty set or a null flag leaves the facet unfiltered.
+ *
+ * @param tags      the tags to match
+ * @param allTags   whether a vacancy must have every tag instead of any of them
+ * @param jobTypes  the job types to match
+ * @param locations the locations to match
+ * @param remote    the remote flag to match, or null for both
+ */
+public record FacetQuery(Set<String> tags, boolean allTags, Set<String> jobTypes, Set<String> locations, Boolean remote) {
+
+    public FacetQuery {
+        tags = tags == null ? Set.of() : tags;
+        jobTypes = jobTypes == null ? Set.of() : jobTypes;
+        locations = locations == null ? Set.of() : locations;
+    }
+
+}
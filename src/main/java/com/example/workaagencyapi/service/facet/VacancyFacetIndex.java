@@ -0,0 +1,213 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.facet;
+
+import com.example.workaagencyapi.dto.VacancySummary;
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.ingestion.VacancyIngestionListener;
+import com.example.workaagencyapi.tables.VacancyTable;
+import com.example.workaagencyapi.service.ingestion.WarmupLoader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index of the vacancy facets: tags, job types, location and the remote flag.
+ * <p>
+ * Every facet value maps to a compressed {@link RoaringBitmap} of the ids of the vacancies having it.
+ * Combined filters are answered with bitmap AND/OR operations and facet counts with intersection
+ * cardinalities, all in memory. The index is loaded from the database in the background at startup and
+ * updated incrementally with every saved ingestion batch.
+ */
+@Component
+public class VacancyFacetIndex implements VacancyIngestionListener, WarmupLoader {
+
+    private static final Logger logger = LogManager.getLogger(VacancyFacetIndex.class);
+
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    private final VacanciesRepository vacanciesRepository;
+    private final ConfigLoader configLoader;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap remote = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> tags = new HashMap<>();
+    private final Map<String, RoaringBitmap> jobTypes = new HashMap<>();
+    private final Map<String, RoaringBitmap> locations = new HashMap<>();
+
+    /**
+     * Vacancy ids matching a facet filter, with the facet counts of the matching vacancies.
+     *
+     * @param ids    the ids of the matching vacancies
+     * @param facets the number of matching vacancies per facet value
+     */
+    public record FacetSelection(RoaringBitmap ids, Map<String, Map<String, Integer>> facets) {
+    }
+
+    /**
+     * Constructs a new instance of {@link VacancyFacetIndex}.
+     *
+     * @param vacanciesRepository the repository used to load the vacancies at startup
+     * @param configLoader        the configuration loader for retrieving the number of values per facet
+     */
+    @Autowired
+    public VacancyFacetIndex(VacanciesRepository vacanciesRepository, ConfigLoader configLoader) {
+        this.vacanciesRepository = vacanciesRepository;
+        this.configLoader = configLoader;
+    }
+
+    /**
+     * Loads the facets of the stored vacancies up to {@code maxId}, in batches ordered by id.
+     *
+     * @param maxId the highest id to load
+     */
+    @Override
+    public void load(int maxId) {
+        int lastId = 0;
+        List<VacancySummary> batch;
+
+        do {
+            batch = vacanciesRepository.findSummariesByIdGreaterThan(lastId, Limit.of(LOAD_BATCH_SIZE)).stream()
+                    .filter(vacancy -> vacancy.id() <= maxId)
+                    .toList();
+
+            lock.writeLock().lock();
+
+            try {
+                batch.forEach(vacancy -> add(vacancy.id(), vacancy.tags(), vacancy.job_types(), vacancy.location(), vacancy.remote()));
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            if (!batch.isEmpty()) {
+                lastId = batch.getLast().id();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        logger.info(STR."Facet index loaded: \{all.getCardinality()} vacancies, \{tags.size()} tags, \{locations.size()} locations");
+    }
+
+    @Override
+    public void onVacanciesSaved(List<VacancyTable> savedVacancies) {
+        lock.writeLock().lock();
+
+        try {
+            savedVacancies.forEach(vacancy -> add(vacancy.getId(), vacancy.getTags(), vacancy.getJob_types(),
+                    vacancy.getLocation(), vacancy.isRemote()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Selects the vacancies matching the query and counts the facet values among them.
+     *
+     * @param query the facet filter
+     * @return the matching vacancy ids and the facet counts
+     */
+    public FacetSelection filter(FacetQuery query) {
+        lock.readLock().lock();
+
+        try {
+            RoaringBitmap result = all.clone();
+
+            if (!query.tags().isEmpty()) {
+                result.and(query.allTags() ? intersection(tags, query.tags()) : union(tags, query.tags()));
+            }
+            if (!query.jobTypes().isEmpty()) {
+                result.and(union(jobTypes, query.jobTypes()));
+            }
+            if (!query.locations().isEmpty()) {
+                result.and(union(locations, query.locations()));
+            }
+            if (query.remote() != null) {
+                if (query.remote()) {
+                    result.and(remote);
+                } else {
+                    result.andNot(remote);
+                }
+            }
+
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            int maxValues = configLoader.getFacetsMaxValues();
+
+            facets.put("tags", counts(tags, result, maxValues));
+            facets.put("job_types", counts(jobTypes, result, maxValues));
+            facets.put("location", counts(locations, result, maxValues));
+            facets.put("remote", counts(Map.of("true", remote), result, maxValues));
+
+            return new FacetSelection(result, facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(int id, String[] vacancyTags, String[] vacancyJobTypes, String location, boolean isRemote) {
+        all.add(id);
+
+        if (isRemote) {
+            remote.add(id);
+        }
+        if (vacancyTags != null) {
+            for (String tag : vacancyTags) {
+                tags.computeIfAbsent(tag, _ -> new RoaringBitmap()).add(id);
+            }
+        }
+        if (vacancyJobTypes != null) {
+            for (String jobType : vacancyJobTypes) {
+                jobTypes.computeIfAbsent(jobType, _ -> new RoaringBitmap()).add(id);
+            }
+        }
+        if (location != null) {
+            locations.computeIfAbsent(location, _ -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    private static RoaringBitmap union(Map<String, RoaringBitmap> facet, Set<String> values) {
+        return FastAggregation.or(values.stream()
+                .map(value -> facet.getOrDefault(value, new RoaringBitmap()))
+                .iterator());
+    }
+
+    private static RoaringBitmap intersection(Map<String, RoaringBitmap> facet, Set<String> values) {
+        return FastAggregation.and(values.stream()
+                .map(value -> facet.getOrDefault(value, new RoaringBitmap()))
+                .iterator());
+    }
+
+    /**
+     * Counts the selected vacancies per facet value, keeping the {@code maxValues} most frequent values.
+     */
+    private static Map<String, Integer> counts(Map<String, RoaringBitmap> facet, RoaringBitmap selection, int maxValues) {
+        List<Map.Entry<String, Integer>> counts = new ArrayList<>();
+
+        for (Map.Entry<String, RoaringBitmap> entry : facet.entrySet()) {
+            int count = RoaringBitmap.andCardinality(entry.getValue(), selection);
+
+            if (count > 0) {
+                counts.add(Map.entry(entry.getKey(), count));
+            }
+        }
+
+        counts.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        Map<String, Integer> result = new LinkedHashMap<>();
+        counts.stream().limit(maxValues).forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+
+        return result;
+    }
+
+}
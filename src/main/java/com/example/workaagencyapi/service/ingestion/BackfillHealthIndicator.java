@@ -0,0 +1,42 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.ingestion;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the {@link BackfillProgress} as the `backfill` health component.
+ * <p>
+ * The component is not part of the liveness or readiness groups: a running or failed backfill does not
+ * stop the application from serving the vacancies already stored. It is DOWN only if the backfill failed.
+ */
+@Component("backfill")
+public class BackfillHealthIndicator implements HealthIndicator {
+
+    private final BackfillProgress backfillProgress;
+
+    /**
+     * Constructs a new instance of {@link BackfillHealthIndicator}.
+     *
+     * @param backfillProgress the progress of the backfill
+     */
+    @Autowired
+    public BackfillHealthIndicator(BackfillProgress backfillProgress) {
+        this.backfillProgress = backfillProgress;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = backfillProgress.getPhase() == BackfillProgress.Phase.FAILED ? Health.down() : Health.up();
+
+        return builder.withDetails(backfillProgress.toDetails()).build();
+    }
+
+}
@@ -0,0 +1,131 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.ingestion;
+
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of the initial backfill of vacancies from the upstream job board.
+ * <p>
+ * Updated by the {@link StartupBackfillRunner}; vacancies inserted while the backfill runs are counted
+ * through the {@link VacancyIngestionListener} callback.
+ */
+@Component
+public class BackfillProgress implements VacancyIngestionListener {
+
+    /**
+     * Phases of the backfill, in order.
+     */
+    public enum Phase {PENDING, FETCHING, SAVING, COMPLETED, FAILED, SKIPPED, STOPPED}
+
+    private volatile Phase phase = Phase.PENDING;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile int fetchedPages;
+    private volatile String error;
+
+    private final AtomicLong insertedVacancies = new AtomicLong();
+
+    /**
+     * Marks the start of the upstream crawl, resetting the progress of an earlier backfill.
+     */
+    public void fetching() {
+        startedAt = Instant.now();
+        finishedAt = null;
+        error = null;
+        insertedVacancies.set(0);
+        phase = Phase.FETCHING;
+    }
+
+    /**
+     * Marks the end of the upstream crawl and the start of the final save.
+     *
+     * @param pages the number of pages fetched
+     */
+    public void saving(int pages) {
+        fetchedPages = pages;
+        phase = Phase.SAVING;
+    }
+
+    /**
+     * Marks the backfill as completed.
+     */
+    public void completed() {
+        finishedAt = Instant.now();
+        phase = Phase.COMPLETED;
+    }
+
+    /**
+     * Marks the backfill as skipped, because another instance holds the ingestion lease.
+     */
+    public void skipped() {
+        phase = Phase.SKIPPED;
+    }
+
+    /**
+     * Marks the backfill as stopped before saving, because this instance lost the ingestion lease.
+     */
+    public void stopped() {
+        finishedAt = Instant.now();
+        phase = Phase.STOPPED;
+    }
+
+    /**
+     * Marks the backfill as failed.
+     *
+     * @param cause the failure
+     */
+    public void failed(Throwable cause) {
+        finishedAt = Instant.now();
+        error = cause.toString();
+        phase = Phase.FAILED;
+    }
+
+    /**
+     * @return the current phase
+     */
+    public Phase getPhase() {
+        return phase;
+    }
+
+    @Override
+    public void onVacanciesSaved(List<VacancyTable> savedVacancies) {
+        if (phase == Phase.FETCHING || phase == Phase.SAVING) {
+            insertedVacancies.addAndGet(savedVacancies.size());
+        }
+    }
+
+    /**
+     * @return the progress as a map of printable values
+     */
+    public Map<String, Object> toDetails() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("phase", phase);
+        details.put("insertedVacancies", insertedVacancies.get());
+
+        if (phase == Phase.SAVING || phase == Phase.COMPLETED) {
+            details.put("fetchedPages", fetchedPages);
+        }
+        if (startedAt != null) {
+            details.put("startedAt", startedAt.toString());
+            details.put("elapsedMs", Duration.between(startedAt, finishedAt == null ? Instant.now() : finishedAt).toMillis());
+        }
+        if (error != null) {
+            details.put("error", error);
+        }
+
+        return details;
+    }
+
+}
@@ -0,0 +1,154 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.ingestion;
+
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads every {@link WarmupLoader} in the background at startup, each on its own virtual thread.
+ * <p>
+ * The loads are bounded by the highest id stored when the warmup starts, which is where the
+ * {@link VacancyChangeFeed} starts delivering; the feed waits for the warmup, so every loader sees its stored
+ * vacancies first and each later one once. Startup time no longer grows with the table: the application starts
+ * at once, and the `warmup` health component keeps the readiness probe OUT_OF_SERVICE until every loader has
+ * finished. A failed loader is reported DOWN and does not hold the feed back.
+ */
+@Component
+public class IndexWarmup {
+
+    private static final Logger logger = LogManager.getLogger(IndexWarmup.class);
+
+    private final VacanciesRepository vacanciesRepository;
+    private final List<WarmupLoader> loaders;
+    private final CountDownLatch remaining;
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("index-warmup-", 0).factory());
+
+    private final Map<String, String> states = new LinkedHashMap<>();
+    private volatile int maxId;
+    private volatile boolean failed;
+
+    /**
+     * Constructs a new instance of {@link IndexWarmup}.
+     *
+     * @param vacanciesRepository the repository used to find the highest stored id
+     * @param loaders             the components loaded in the background
+     */
+    @Autowired
+    public IndexWarmup(VacanciesRepository vacanciesRepository, List<WarmupLoader> loaders) {
+        this.vacanciesRepository = vacanciesRepository;
+        this.loaders = loaders;
+        this.remaining = new CountDownLatch(loaders.size());
+    }
+
+    /**
+     * Starts the loaders in the background, up to the highest id currently stored.
+     */
+    @PostConstruct
+    public void start() {
+        maxId = vacanciesRepository.findMaxId();
+
+        loaders.forEach(loader -> {
+            setState(loader, "loading");
+            executor.submit(() -> load(loader));
+        });
+
+        logger.info(STR."Index warmup started: \{loaders.size()} loaders, vacancies up to id \{maxId}");
+    }
+
+    private void load(WarmupLoader loader) {
+        long start = System.nanoTime();
+
+        try {
+            loader.load(maxId);
+            setState(loader, STR."loaded in \{(System.nanoTime() - start) / 1_000_000} ms");
+        } catch (RuntimeException e) {
+            failed = true;
+            setState(loader, STR."failed: \{e.getMessage()}");
+            logger.error(STR."Index warmup of \{name(loader)} failed: ", e);
+        } finally {
+            remaining.countDown();
+        }
+
+        if (isLoaded()) {
+            logger.info(STR."Index warmup finished: \{toDetails()}");
+        }
+    }
+
+    /**
+     * Blocks until every loader has finished.
+     *
+     * @throws IllegalStateException if the calling thread is interrupted while waiting
+     */
+    public void awaitLoaded() {
+        try {
+            remaining.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new IllegalStateException("Interrupted while waiting for the index warmup", e);
+        }
+    }
+
+    /**
+     * @return true once every loader has finished, successfully or not
+     */
+    public boolean isLoaded() {
+        return remaining.getCount() == 0;
+    }
+
+    /**
+     * @return true if a loader failed
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * @return the highest id loaded by the loaders
+     */
+    public int getMaxId() {
+        return maxId;
+    }
+
+    /**
+     * @return the state of each loader, by name
+     */
+    public synchronized Map<String, Object> toDetails() {
+        return new LinkedHashMap<>(states);
+    }
+
+    private synchronized void setState(WarmupLoader loader, String state) {
+        states.put(name(loader), state);
+    }
+
+    private static String name(WarmupLoader loader) {
+        return ClassUtils.getUserClass(loader).getSimpleName();
+    }
+
+    /**
+     * Stops the running loaders on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
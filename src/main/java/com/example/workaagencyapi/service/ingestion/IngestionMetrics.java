@@ -0,0 +1,140 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.ingestion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Micrometer meters of the ingestion pipeline, one per stage.
+ * <p>
+ * <ul>
+ *   <li>`upstream.page.fetch` – time from sending a page request to receiving the response headers, by status</li>
+ *   <li>`upstream.page.parse` – time to download and stream-parse a page body</li>
+ *   <li>`upstream.page.bytes` – size of the (decompressed) page bodies</li>
+ *   <li>`ingestion.vacancies` – staged vacancies by outcome: `deduped` by the URL index, `conflict` skipped by
+ *       the database, or `inserted`</li>
+ *   <li>`ingestion.near.duplicates` – inserted vacancies marked as near-duplicates of stored ones</li>
+ *   <li>`ingestion.save.batch` – time to write and publish one batch of vacancies</li>
+ * </ul>
+ * The depth of the staging buffer is published by {@link VacancyStagingBuffer}.
+ */
+@Component
+public class IngestionMetrics {
+
+    /**
+     * Outcome of a page request, used as the `status` tag of `upstream.page.fetch`.
+     */
+    public enum FetchStatus {FETCHED, NOT_MODIFIED, FAILED}
+
+    private final Map<FetchStatus, Timer> fetchTimers;
+    private final Timer parseTimer;
+    private final DistributionSummary pageBytes;
+    private final Counter dedupedVacancies;
+    private final Counter conflictingVacancies;
+    private final Counter insertedVacancies;
+    private final Counter nearDuplicateVacancies;
+    private final Timer saveBatchTimer;
+
+    /**
+     * Constructs a new instance of {@link IngestionMetrics}.
+     *
+     * @param meterRegistry the registry the meters are published to
+     */
+    @Autowired
+    public IngestionMetrics(MeterRegistry meterRegistry) {
+        this.fetchTimers = Stream.of(FetchStatus.values()).collect(Collectors.toMap(Function.identity(), status ->
+                Timer.builder("upstream.page.fetch")
+                        .description("Time until the response headers of an upstream page request")
+                        .tag("status", status.name().toLowerCase())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)));
+        this.parseTimer = Timer.builder("upstream.page.parse")
+                .description("Time to download and parse an upstream page body")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.pageBytes = DistributionSummary.builder("upstream.page.bytes")
+                .description("Decompressed size of the upstream page bodies")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.dedupedVacancies = vacancyCounter(meterRegistry, "deduped");
+        this.conflictingVacancies = vacancyCounter(meterRegistry, "conflict");
+        this.insertedVacancies = vacancyCounter(meterRegistry, "inserted");
+        this.nearDuplicateVacancies = Counter.builder("ingestion.near.duplicates")
+                .description("Inserted vacancies marked as near-duplicates of stored vacancies")
+                .register(meterRegistry);
+        this.saveBatchTimer = Timer.builder("ingestion.save.batch")
+                .description("Time to write a batch of vacancies and publish the inserted ones")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static Counter vacancyCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("ingestion.vacancies")
+                .description("Staged vacancies by save outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param status the outcome of the page request
+     * @return the timer of page requests with this outcome
+     */
+    public Timer fetchTimer(FetchStatus status) {
+        return fetchTimers.get(status);
+    }
+
+    /**
+     * @return the timer of page body downloads and parses
+     */
+    public Timer parseTimer() {
+        return parseTimer;
+    }
+
+    /**
+     * @param bytes the decompressed size of a page body
+     */
+    public void recordPageBytes(long bytes) {
+        pageBytes.record(bytes);
+    }
+
+    /**
+     * @return the timer of saved batches
+     */
+    public Timer saveBatchTimer() {
+        return saveBatchTimer;
+    }
+
+    /**
+     * Records the outcome of saving a batch.
+     *
+     * @param deduped   vacancies skipped because the URL index knew them
+     * @param conflicts vacancies skipped by the database because their URL was already stored
+     * @param inserted  vacancies inserted
+     */
+    public void recordSaved(int deduped, int conflicts, int inserted) {
+        dedupedVacancies.increment(deduped);
+        conflictingVacancies.increment(conflicts);
+        insertedVacancies.increment(inserted);
+    }
+
+    /**
+     * @param nearDuplicates inserted vacancies marked as near-duplicates
+     */
+    public void recordNearDuplicates(int nearDuplicates) {
+        nearDuplicateVacancies.increment(nearDuplicates);
+    }
+
+}
@@ -0,0 +1,185 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.ingestion;
+
+import com.example.workaagencyapi.service.lease.IngestionLease;
+import com.example.workaagencyapi.tables.VacancyTable;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * High-water mark of the incremental refresh: the newest vacancy fetched from the upstream job board.
+ * <p>
+ * Two marks are kept. The fetched mark moves once a refresh has staged every new vacancy down to the previous
+ * mark, so the next refresh does not fetch them again while they wait to be saved; if they are lost instead, it is
+ * rewound to the saved mark. The saved mark only moves once vacancies are inserted, and is
+ * persisted in the "ingestion_state" table, so that after a restart the refresh resumes from the last saved
+ * vacancy instead of crawling the whole upstream. Only the instance holding the {@link IngestionLease} persists
+ * it; the others, which only see the vacancies delivered by the change feed, keep it in memory. On first start
+ * it is seeded from the newest stored vacancy.
+ */
+@Component
+public class IngestionWatermark implements VacancyIngestionListener {
+
+    private static final Logger logger = LogManager.getLogger(IngestionWatermark.class);
+
+    static final String STATE_NAME = "vacancy-refresh";
+
+    private static final String SELECT_SQL = "SELECT created_at, url FROM ingestion_state WHERE name = ?";
+    private static final String SEED_SQL = "SELECT created_at, url FROM vacancies ORDER BY created_at DESC, id DESC LIMIT 1";
+    private static final String INSERT_SQL = "INSERT INTO ingestion_state (name, created_at, url) VALUES (?, ?, ?)";
+    private static final String ADVANCE_SQL = "UPDATE ingestion_state SET created_at = ?, url = ? WHERE name = ? AND created_at <= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IngestionLease ingestionLease;
+
+    private volatile Mark saved = Mark.NONE;
+    private volatile Mark fetched = Mark.NONE;
+
+    /**
+     * Position of a vacancy in the upstream feed, which lists the newest vacancies first.
+     *
+     * @param createdAt the creation time of the vacancy, in epoch seconds
+     * @param url       the url of the vacancy
+     */
+    public record Mark(long createdAt, String url) {
+
+        /**
+         * The mark before any vacancy.
+         */
+        public static final Mark NONE = new Mark(0, null);
+
+        /**
+         * @param vacancy the vacancy
+         * @return the mark of the vacancy
+         */
+        public static Mark of(VacancyTable vacancy) {
+            return new Mark(vacancy.getCreated_at(), vacancy.getUrl());
+        }
+
+        /**
+         * Checks whether a vacancy comes after this mark. Vacancies created in the same second as the mark,
+         * other than the mark itself, count as after it; the URL index filters out those already stored.
+         *
+         * @param vacancy the vacancy to check
+         * @return true if the vacancy is newer than the mark
+         */
+        public boolean isBefore(VacancyTable vacancy) {
+            return vacancy.getCreated_at() > createdAt
+                    || (vacancy.getCreated_at() == createdAt && !Objects.equals(vacancy.getUrl(), url));
+        }
+
+        private Mark max(Mark other) {
+            return other.createdAt > createdAt ? other : this;
+        }
+    }
+
+    /**
+     * Constructs a new instance of {@link IngestionWatermark}.
+     *
+     * @param jdbcTemplate   the JdbcTemplate used to read and persist the mark
+     * @param ingestionLease the lease that elects the instance allowed to persist the mark
+     */
+    @Autowired
+    public IngestionWatermark(JdbcTemplate jdbcTemplate, IngestionLease ingestionLease) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ingestionLease = ingestionLease;
+    }
+
+    /**
+     * Loads the persisted mark, seeding it from the newest stored vacancy if there is none.
+     */
+    @PostConstruct
+    public void initialize() {
+        Mark mark = query(SELECT_SQL, STATE_NAME);
+
+        if (mark == null) {
+            mark = Objects.requireNonNullElse(query(SEED_SQL), Mark.NONE);
+
+            try {
+                jdbcTemplate.update(INSERT_SQL, STATE_NAME, mark.createdAt(), mark.url());
+            } catch (DuplicateKeyException e) {
+                mark = Objects.requireNonNullElse(query(SELECT_SQL, STATE_NAME), mark);
+            }
+        }
+
+        saved = mark;
+        fetched = fetched.max(mark);
+
+        logger.info(STR."Incremental refresh resumes after \{mark}");
+    }
+
+    private Mark query(String sql, Object... args) {
+        List<Mark> marks = jdbcTemplate.query(sql, (rs, _) -> new Mark(rs.getLong("created_at"), rs.getString("url")), args);
+
+        return marks.isEmpty() ? null : marks.getFirst();
+    }
+
+    /**
+     * @return the newest vacancy fetched or saved; the refresh stops when it reaches it
+     */
+    public Mark current() {
+        return fetched;
+    }
+
+    /**
+     * @return the newest vacancy saved, as persisted
+     */
+    public Mark saved() {
+        return saved;
+    }
+
+    /**
+     * Moves the fetched mark to the newest of the given staged vacancies.
+     *
+     * @param vacancies the vacancies just staged for saving
+     */
+    public synchronized void fetched(List<VacancyTable> vacancies) {
+        vacancies.stream()
+                .max(Comparator.comparingLong(VacancyTable::getCreated_at))
+                .ifPresent(newest -> fetched = fetched.max(Mark.of(newest)));
+    }
+
+    /**
+     * Moves the fetched mark back to the saved mark, so the next refresh fetches again the vacancies that were
+     * staged but never saved.
+     */
+    public synchronized void rewind() {
+        if (!fetched.equals(saved)) {
+            logger.warn(STR."Fetched vacancies were not saved, incremental refresh rewound from \{fetched} to \{saved}");
+        }
+
+        fetched = saved;
+    }
+
+    @Override
+    public synchronized void onVacanciesSaved(List<VacancyTable> savedVacancies) {
+        Mark newest = savedVacancies.stream()
+                .max(Comparator.comparingLong(VacancyTable::getCreated_at))
+                .map(Mark::of)
+                .orElse(Mark.NONE);
+
+        if (newest.createdAt() <= saved.createdAt()) {
+            return;
+        }
+
+        if (ingestionLease.isLeader()) {
+            jdbcTemplate.update(ADVANCE_SQL, newest.createdAt(), newest.url(), STATE_NAME, newest.createdAt());
+        }
+        saved = newest;
+        fetched = fetched.max(newest);
+    }
+
+}
@@ -0,0 +1,164 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.ingestion;
+
+import com.example.workaagencyapi.service.VacancyService;
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.lease.IngestionLease;
+import com.example.workaagencyapi.service.lease.IngestionLeaseChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the initial backfill: loads all upstream pages and saves them to the database.
+ * <p>
+ * With `startup.backfill.async` disabled the backfill runs during context startup, and the application
+ * only starts serving once it finishes. When enabled, the application starts serving the vacancies already
+ * in the database as soon as it is ready, and the backfill runs on a background virtual thread; its progress
+ * is reported by the `backfill` health component without affecting the liveness and readiness probes.
+ * Only the instance holding the {@link IngestionLease} runs the backfill; the others follow it through the
+ * {@link VacancyChangeFeed}. An instance that acquires the lease after startup, e.g. because the leader died
+ * during its backfill, runs the backfill in the background then, and an instance losing the lease stops its
+ * running backfill.
+ */
+@Component
+public class StartupBackfillRunner {
+
+    private static final Logger logger = LogManager.getLogger(StartupBackfillRunner.class);
+
+    private final VacancyService vacancyService;
+    private final BackfillProgress backfillProgress;
+    private final IngestionLease ingestionLease;
+    private final boolean async;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("vacancy-backfill").factory());
+
+    private boolean ready;
+    private Future<?> running;
+
+    /**
+     * Constructs a new instance of {@link StartupBackfillRunner}.
+     *
+     * @param vacancyService   the service that loads and saves vacancies
+     * @param backfillProgress the progress of the backfill
+     * @param ingestionLease   the lease that elects the instance allowed to run the backfill
+     * @param configLoader     the configuration loader for retrieving the startup mode
+     */
+    @Autowired
+    public StartupBackfillRunner(VacancyService vacancyService, BackfillProgress backfillProgress,
+                                 IngestionLease ingestionLease, ConfigLoader configLoader) {
+        this.vacancyService = vacancyService;
+        this.backfillProgress = backfillProgress;
+        this.ingestionLease = ingestionLease;
+        this.async = configLoader.isStartupBackfillAsync();
+    }
+
+    /**
+     * Runs the backfill during context startup, unless the asynchronous mode is enabled.
+     */
+    @PostConstruct
+    public void runOnStartup() {
+        if (!async) {
+            backfill();
+        }
+    }
+
+    /**
+     * Starts the backfill in the background once the application is ready, if the asynchronous mode is enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void runWhenReady() {
+        ready = true;
+
+        if (async) {
+            start();
+
+            logger.info("Backfill started in the background");
+        }
+    }
+
+    /**
+     * Starts the backfill in the background when this instance acquires the ingestion lease after startup,
+     * and stops a running backfill when it loses the lease.
+     *
+     * @param event the change of leadership
+     */
+    @EventListener
+    public synchronized void onLeaseChanged(IngestionLeaseChangedEvent event) {
+        if (!ready) {
+            return;
+        }
+
+        if (event.leader()) {
+            start();
+
+            logger.info("Ingestion lease acquired, backfill started in the background");
+        } else if (running != null && !running.isDone()) {
+            running.cancel(true);
+
+            logger.info("Ingestion lease lost, backfill stopped");
+        }
+    }
+
+    private void start() {
+        if (running == null || running.isDone()) {
+            running = executor.submit(this::backfill);
+        }
+    }
+
+    /**
+     * Loads all pages and saves them, recording the progress. Stops before saving if the ingestion lease
+     * was lost or the backfill was interrupted meanwhile.
+     */
+    void backfill() {
+        if (!ingestionLease.isLeader()) {
+            backfillProgress.skipped();
+            logger.info("Backfill skipped: ingestion lease is held by another instance");
+
+            return;
+        }
+
+        try {
+            backfillProgress.fetching();
+            int pages = vacancyService.loadAllPages();
+
+            if (Thread.currentThread().isInterrupted() || !ingestionLease.isLeader()) {
+                backfillProgress.stopped();
+                logger.info(STR."Backfill stopped: \{backfillProgress.toDetails()}");
+
+                return;
+            }
+
+            backfillProgress.saving(pages);
+            vacancyService.saveVacanciesToDBService();
+
+            backfillProgress.completed();
+            logger.info(STR."Backfill completed: \{backfillProgress.toDetails()}");
+        } catch (RuntimeException e) {
+            backfillProgress.failed(e);
+            logger.error("Backfill failed: ", e);
+        }
+    }
+
+    /**
+     * Stops a running backfill on shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,208 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.ingestion;
+
+import com.example.workaagencyapi.repositories.DescriptionStore;
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.service.dedup.NearDuplicateDetector;
+import com.example.workaagencyapi.service.dedup.VacancyUrlIndex;
+import com.example.workaagencyapi.tables.VacancyTable;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Delivers every vacancy inserted into the database to the {@link VacancyIngestionListener} beans of this instance.
+ * <p>
+ * On the instance holding the ingestion lease, saved batches are published directly after they are written.
+ * Every other instance tails the "vacancies" table by id every `ingestion.tail.interval` ms, so its in-memory
+ * indexes, aggregates and caches follow the writes of the leader. Each vacancy is delivered once: before a
+ * batch is published, vacancies written by another instance since the last delivered id are caught up first.
+ * <p>
+ * Ids are generated when a row is inserted, not when it commits, so a row can become visible after rows with
+ * higher ids, e.g. while the lease moves between two writing instances. Tailing therefore re-scans the ids of
+ * the last {@value #TAIL_WINDOW} ids below the highest delivered one and delivers the rows it has not delivered
+ * yet; the ids delivered within that window are remembered to deliver each row once.
+ * <p>
+ * The feed starts after the highest id loaded by the {@link IndexWarmup}, and delivers nothing before the
+ * warmup has finished: publishing waits for it, and tailing is skipped until then.
+ */
+@Component
+public class VacancyChangeFeed {
+
+    private static final Logger logger = LogManager.getLogger(VacancyChangeFeed.class);
+
+    private static final int TAIL_BATCH_SIZE = 1000;
+
+    /**
+     * Number of ids below the highest delivered one that are scanned again for rows committed late.
+     */
+    static final int TAIL_WINDOW = 10_000;
+
+    private final VacanciesRepository vacanciesRepository;
+    private final VacancyUrlIndex vacancyUrlIndex;
+    private final DescriptionStore descriptionStore;
+    private final NearDuplicateDetector nearDuplicateDetector;
+    private final List<VacancyIngestionListener> ingestionListeners;
+    private final IndexWarmup indexWarmup;
+
+    private final RoaringBitmap deliveredIds = new RoaringBitmap();
+    private int lastDeliveredId;
+
+    /**
+     * Constructs a new instance of {@link VacancyChangeFeed}.
+     *
+     * @param vacanciesRepository   the repository used to tail new vacancies
+     * @param vacancyUrlIndex       the in-memory index of stored vacancy URLs, updated with tailed vacancies
+     * @param descriptionStore      the store of the descriptions of tailed vacancies that are not stored inline
+     * @param nearDuplicateDetector the detector marking tailed vacancies that repost stored ones
+     * @param ingestionListeners    the components notified of every inserted vacancy
+     * @param indexWarmup           the warmup loading the vacancies stored at startup
+     */
+    @Autowired
+    public VacancyChangeFeed(VacanciesRepository vacanciesRepository, VacancyUrlIndex vacancyUrlIndex,
+                             DescriptionStore descriptionStore, NearDuplicateDetector nearDuplicateDetector,
+                             List<VacancyIngestionListener> ingestionListeners, IndexWarmup indexWarmup) {
+        this.vacanciesRepository = vacanciesRepository;
+        this.vacancyUrlIndex = vacancyUrlIndex;
+        this.descriptionStore = descriptionStore;
+        this.nearDuplicateDetector = nearDuplicateDetector;
+        this.ingestionListeners = ingestionListeners;
+        this.indexWarmup = indexWarmup;
+    }
+
+    /**
+     * Starts the feed after the vacancies loaded by the {@link IndexWarmup}.
+     */
+    @PostConstruct
+    public synchronized void initialize() {
+        lastDeliveredId = indexWarmup.getMaxId();
+
+        for (int after = windowStart(); after < lastDeliveredId; ) {
+            List<Integer> ids = vacanciesRepository.findIdsGreaterThan(after, Limit.of(TAIL_BATCH_SIZE));
+
+            if (ids.isEmpty()) {
+                break;
+            }
+            ids.stream().filter(id -> id <= lastDeliveredId).forEach(deliveredIds::add);
+            after = ids.getLast();
+        }
+    }
+
+    /**
+     * Delivers a batch of vacancies inserted by this instance.
+     * <p>
+     * Vacancies already delivered, by an earlier catch-up, are left out. Waits until the warmup has finished.
+     *
+     * @param insertedVacancies the inserted vacancies, with their generated ids
+     */
+    public synchronized void publish(List<VacancyTable> insertedVacancies) {
+        if (insertedVacancies.isEmpty()) {
+            return;
+        }
+
+        indexWarmup.awaitLoaded();
+
+        int firstId = insertedVacancies.stream().mapToInt(VacancyTable::getId).min().orElseThrow();
+
+        catchUp(firstId);
+        deliver(insertedVacancies.stream().filter(vacancy -> !deliveredIds.contains(vacancy.getId())).toList());
+    }
+
+    /**
+     * Delivers the vacancies inserted by other instances since the last delivered one, and those of the
+     * trailing window that committed late. Skipped while the warmup is running.
+     */
+    @Scheduled(fixedRateString = "${ingestion.tail.interval}")
+    public synchronized void tail() {
+        if (!isStarted()) {
+            return;
+        }
+
+        int delivered = catchUp(Integer.MAX_VALUE);
+
+        if (delivered > 0) {
+            logger.info(STR."Tailed \{delivered} vacancies written by another instance");
+        }
+    }
+
+    /**
+     * Delivers the stored vacancies not delivered yet with ids between the start of the trailing window and
+     * {@code beforeId}.
+     *
+     * @return the number of vacancies delivered
+     */
+    private int catchUp(int beforeId) {
+        int delivered = 0;
+        int after = windowStart();
+        List<Integer> ids;
+
+        do {
+            ids = vacanciesRepository.findIdsGreaterThan(after, Limit.of(TAIL_BATCH_SIZE));
+            List<Integer> missing = ids.stream().filter(id -> id < beforeId && !deliveredIds.contains(id)).toList();
+
+            if (!missing.isEmpty()) {
+                List<VacancyTable> batch = new ArrayList<>(vacanciesRepository.findAllById(missing));
+                batch.sort(Comparator.comparingInt(VacancyTable::getId));
+
+                batch.forEach(vacancy -> vacancyUrlIndex.add(vacancy.getUrl()));
+                descriptionStore.fillAll(batch);
+                nearDuplicateDetector.detect(batch);
+                deliver(batch);
+
+                delivered += batch.size();
+            }
+
+            if (!ids.isEmpty()) {
+                after = ids.getLast();
+            }
+        } while (ids.size() == TAIL_BATCH_SIZE && after < beforeId);
+
+        deliveredIds.remove(0L, windowStart() + 1L);
+
+        return delivered;
+    }
+
+    private int windowStart() {
+        return Math.max(0, lastDeliveredId - TAIL_WINDOW);
+    }
+
+    private void deliver(List<VacancyTable> vacancies) {
+        if (vacancies.isEmpty()) {
+            return;
+        }
+
+        ingestionListeners.forEach(listener -> listener.onVacanciesSaved(vacancies));
+        vacancies.forEach(vacancy -> {
+            deliveredIds.add(vacancy.getId());
+            lastDeliveredId = Math.max(lastDeliveredId, vacancy.getId());
+        });
+    }
+
+    /**
+     * @return true once the warmup has finished and vacancies are delivered
+     */
+    public boolean isStarted() {
+        return indexWarmup.isLoaded();
+    }
+
+    /**
+     * @return the id of the last delivered vacancy
+     */
+    public synchronized int getLastDeliveredId() {
+        return lastDeliveredId;
+    }
+
+}
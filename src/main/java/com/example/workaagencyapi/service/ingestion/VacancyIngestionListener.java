@@ -0,0 +1,29 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.ingestion;
+
+import com.example.workaagencyapi.tables.VacancyTable;
+import java.util.List;
+
+/**
+ * Callback for components that keep derived in-memory state of the "vacancies" table up to date.
+ * <p>
+ * All beans implementing this interface are notified by the {@link VacancyChangeFeed} of every vacancy inserted
+ * into the database, whether written by this instance or, through tailing, by the instance holding the
+ * ingestion lease.
+ */
+public interface VacancyIngestionListener {
+
+    /**
+     * Called after a batch of vacancies has been inserted into the database.
+     * Calls are not concurrent, and each vacancy is delivered once.
+     *
+     * @param savedVacancies the newly inserted vacancies, with their generated ids
+     */
+    void onVacanciesSaved(List<VacancyTable> savedVacancies);
+
+}
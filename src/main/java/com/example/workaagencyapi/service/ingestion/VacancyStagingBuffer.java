@@ -0,0 +1,132 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.ingestion;
+
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.tables.VacancyTable;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded buffer between the fetchers of upstream pages and the saver of vacancies.
+ * <p>
+ * Backed by a two-lock {@link LinkedBlockingQueue}, so producers and the draining saver do not contend.
+ * The buffer holds at most `staging.buffer.capacity` vacancies. A producer that finds it full waits up to
+ * `staging.offer.timeout` ms and then runs the overflow action it was given, normally saving a batch itself,
+ * before trying again; a slow database therefore slows the fetch down instead of growing the heap or losing
+ * vacancies. Queue depth, overflows and drops (vacancies abandoned because the producer was interrupted)
+ * are published as metrics.
+ */
+@Component
+public class VacancyStagingBuffer {
+
+    private static final Logger logger = LogManager.getLogger(VacancyStagingBuffer.class);
+
+    private final BlockingQueue<VacancyTable> queue;
+    private final int capacity;
+    private final long offerTimeoutMillis;
+
+    private final LongAdder overflows = new LongAdder();
+    private final LongAdder drops = new LongAdder();
+
+    /**
+     * Constructs a new instance of {@link VacancyStagingBuffer}.
+     *
+     * @param configLoader  the configuration loader for retrieving the capacity and offer timeout
+     * @param meterRegistry the registry the buffer metrics are published to
+     */
+    @Autowired
+    public VacancyStagingBuffer(ConfigLoader configLoader, MeterRegistry meterRegistry) {
+        this.capacity = configLoader.getStagingBufferCapacity();
+        this.offerTimeoutMillis = configLoader.getStagingOfferTimeout();
+        this.queue = new LinkedBlockingQueue<>(capacity);
+
+        Gauge.builder("ingestion.staging.depth", queue, BlockingQueue::size)
+                .description("Vacancies fetched and waiting to be saved")
+                .register(meterRegistry);
+        FunctionCounter.builder("ingestion.staging.overflows", overflows, LongAdder::sum)
+                .description("Times a producer found the staging buffer full")
+                .register(meterRegistry);
+        FunctionCounter.builder("ingestion.staging.drops", drops, LongAdder::sum)
+                .description("Vacancies abandoned because the producer was interrupted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds a vacancy, applying backpressure while the buffer is full.
+     *
+     * @param vacancy    the vacancy to stage
+     * @param onOverflow run each time the buffer stays full for `staging.offer.timeout` ms;
+     *                   expected to drain the buffer
+     */
+    public void put(VacancyTable vacancy, Runnable onOverflow) {
+        try {
+            while (!queue.offer(vacancy, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                overflows.increment();
+                onOverflow.run();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drops.increment();
+
+            logger.warn(STR."Interrupted while staging vacancy \{vacancy.getUrl()}, vacancy dropped");
+        }
+    }
+
+    /**
+     * Removes up to {@code maxVacancies} vacancies, oldest staged first.
+     *
+     * @param maxVacancies the maximum number of vacancies to remove
+     * @return the removed vacancies, empty if the buffer is empty
+     */
+    public List<VacancyTable> drain(int maxVacancies) {
+        List<VacancyTable> batch = new ArrayList<>(Math.min(maxVacancies, queue.size()));
+        queue.drainTo(batch, maxVacancies);
+
+        return batch;
+    }
+
+    /**
+     * @return the number of staged vacancies
+     */
+    public int depth() {
+        return queue.size();
+    }
+
+    /**
+     * @return the maximum number of staged vacancies
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the number of times a producer found the buffer full
+     */
+    public long getOverflowCount() {
+        return overflows.sum();
+    }
+
+    /**
+     * @return the number of vacancies abandoned because the producer was interrupted
+     */
+    public long getDropCount() {
+        return drops.sum();
+    }
+
+}
@@ -0,0 +1,48 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.ingestion;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the {@link IndexWarmup} as the `warmup` health component.
+ * <p>
+ * The component is part of the readiness group: it is OUT_OF_SERVICE while the in-memory indexes are loading,
+ * DOWN if one of them failed to load, and UP once all of them are loaded.
+ */
+@Component("warmup")
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final IndexWarmup indexWarmup;
+
+    /**
+     * Constructs a new instance of {@link WarmupHealthIndicator}.
+     *
+     * @param indexWarmup the warmup of the in-memory indexes
+     */
+    @Autowired
+    public WarmupHealthIndicator(IndexWarmup indexWarmup) {
+        this.indexWarmup = indexWarmup;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder;
+
+        if (!indexWarmup.isLoaded()) {
+            builder = Health.outOfService();
+        } else {
+            builder = indexWarmup.isFailed() ? Health.down() : Health.up();
+        }
+
+        return builder.withDetails(indexWarmup.toDetails()).build();
+    }
+
+}
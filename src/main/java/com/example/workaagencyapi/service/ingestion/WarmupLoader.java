@@ -0,0 +1,25 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.ingestion;
+
+/**
+ * Component holding in-memory state of the "vacancies" table that is loaded in the background at startup.
+ * <p>
+ * All beans implementing this interface are loaded by the {@link IndexWarmup}, concurrently, while the application
+ * is not ready yet. The vacancies stored afterwards are delivered by the {@link VacancyChangeFeed} once every
+ * loader has finished.
+ */
+public interface WarmupLoader {
+
+    /**
+     * Loads the state of the stored vacancies with ids up to {@code maxId}.
+     *
+     * @param maxId the highest id stored when the warmup started; higher ids are delivered by the change feed
+     */
+    void load(int maxId);
+
+}
@@ -0,0 +1,56 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.lease;
+
+/**
+ * Cluster-wide lease that elects the single instance allowed to crawl the upstream job board and write vacancies.
+ * <p>
+ * Every instance heartbeats the lease; the holder renews it and the others take it over once it expires,
+ * so a crashed leader is replaced within one lease TTL.
+ */
+public interface IngestionLease {
+
+    /**
+     * Acquires the lease if it is free or expired, or renews it if this instance already holds it.
+     *
+     * @return true if this instance holds the lease after the call
+     */
+    boolean heartbeat();
+
+    /**
+     * Checks whether this instance holds the lease.
+     * <p>
+     * Leadership ends locally as soon as the lease would expire without a successful renewal,
+     * even if the database could not be reached to find out.
+     *
+     * @return true if this instance currently holds the lease
+     */
+    boolean isLeader();
+
+    /**
+     * Checks, in the current transaction, that this instance still holds the lease, and locks the lease until the
+     * transaction ends.
+     * <p>
+     * Called at the start of every write transaction of the leader: {@link #isLeader()} is only as fresh as the last
+     * heartbeat, while this check fences the writes against an instance that has taken the lease over meanwhile,
+     * which in turn cannot take it over before the fenced transaction ends.
+     *
+     * @throws IllegalStateException if another instance holds the lease, or nobody does
+     */
+    void fence();
+
+    /**
+     * Gives the lease up, so another instance can take it over without waiting for it to expire.
+     */
+    void release();
+
+    /**
+     * @return the id this instance holds the lease under
+     */
+    String holderId();
+
+}
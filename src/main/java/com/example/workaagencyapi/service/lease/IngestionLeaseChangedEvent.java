@@ -0,0 +1,16 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.lease;
+
+/**
+ * Published when a heartbeat finds that this instance acquired or lost the {@link IngestionLease}.
+ *
+ * @param holderId the id this instance holds the lease under
+ * @param leader   true if the lease was acquired, false if it was lost or released
+ */
+public record IngestionLeaseChangedEvent(String holderId, boolean leader) {
+}
@@ -0,0 +1,213 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.lease;
+
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import java.time.Clock;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link IngestionLease} stored as a single row of the "ingestion_lease" table.
+ * <p>
+ * The lease is taken with one conditional UPDATE that only matches if this instance already holds it or it has
+ * expired, falling back to an INSERT when the row does not exist yet; the database serializes competing
+ * instances on that row. Expiry times are epoch milliseconds from the instance clocks, so the lease TTL
+ * (`ingestion.lease.ttl`) must be well above the clock skew between instances. Each heartbeat that finds the
+ * leadership of this instance changed, including a lease that expired locally since the last heartbeat,
+ * publishes an {@link IngestionLeaseChangedEvent}.
+ * <p>
+ * Heartbeats run every `ingestion.lease.heartbeat.interval` ms on a dedicated thread rather than on the shared
+ * scheduler, so a long refresh, save or reconcile cannot delay the renewal past the TTL. Write transactions are
+ * fenced by {@link #fence()}, which locks the lease row: a takeover waits for the running write to commit, and
+ * the writes of an instance that lost the lease fail.
+ */
+@Component
+public class JdbcIngestionLease implements IngestionLease {
+
+    private static final Logger logger = LogManager.getLogger(JdbcIngestionLease.class);
+
+    static final String LEASE_NAME = "vacancy-ingestion";
+
+    private static final String RENEW_SQL = "UPDATE ingestion_lease SET holder = ?, expires_at = ? " +
+            "WHERE name = ? AND (holder = ? OR expires_at < ?)";
+    private static final String INSERT_SQL = "INSERT INTO ingestion_lease (name, holder, expires_at) VALUES (?, ?, ?)";
+    private static final String RELEASE_SQL = "DELETE FROM ingestion_lease WHERE name = ? AND holder = ?";
+    private static final String FENCE_SQL = "SELECT holder FROM ingestion_lease WHERE name = ? FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long ttlMillis;
+    private final long heartbeatIntervalMillis;
+    private final Clock clock;
+    private final String holderId;
+
+    private final ScheduledExecutorService heartbeatExecutor =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("ingestion-lease-heartbeat").daemon().factory());
+
+    /**
+     * Local end of leadership: the expiry written by the last successful heartbeat.
+     */
+    private volatile long leaderUntil;
+
+    /**
+     * Leadership as of the last heartbeat or release.
+     */
+    private boolean leading;
+
+    /**
+     * Constructs a new instance of {@link JdbcIngestionLease} for this instance.
+     *
+     * @param jdbcTemplate   the JdbcTemplate used to read and write the lease
+     * @param eventPublisher the publisher of the leadership changes
+     * @param configLoader   the configuration loader for retrieving the lease TTL and heartbeat interval
+     */
+    @Autowired
+    public JdbcIngestionLease(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher, ConfigLoader configLoader) {
+        this(jdbcTemplate, eventPublisher, configLoader.getIngestionLeaseTtl(), configLoader.getIngestionLeaseHeartbeatInterval(),
+                Clock.systemUTC(), defaultHolderId());
+    }
+
+    /**
+     * Constructs a new instance of {@link JdbcIngestionLease}.
+     *
+     * @param jdbcTemplate   the JdbcTemplate used to read and write the lease
+     * @param eventPublisher the publisher of the leadership changes
+     * @param ttlMillis               how long a heartbeat keeps the lease, in ms
+     * @param heartbeatIntervalMillis the interval between the scheduled heartbeats, in ms
+     * @param clock                   the clock the lease expiry is computed from
+     * @param holderId                the id this instance holds the lease under, unique in the cluster
+     */
+    public JdbcIngestionLease(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher, long ttlMillis,
+                              long heartbeatIntervalMillis, Clock clock, String holderId) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.ttlMillis = ttlMillis;
+        this.heartbeatIntervalMillis = heartbeatIntervalMillis;
+        this.clock = clock;
+        this.holderId = holderId;
+    }
+
+    private static String defaultHolderId() {
+        String host = Optional.ofNullable(System.getenv("HOSTNAME")).orElse("instance");
+
+        return STR."\{host}-\{UUID.randomUUID().toString().substring(0, 8)}";
+    }
+
+    /**
+     * Tries to take the lease at startup, so the startup backfill knows whether to run, then starts the heartbeats.
+     */
+    @PostConstruct
+    public void initialize() {
+        this.heartbeat();
+
+        heartbeatExecutor.scheduleAtFixedRate(this::scheduledHeartbeat, heartbeatIntervalMillis, heartbeatIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void scheduledHeartbeat() {
+        try {
+            heartbeat();
+        } catch (RuntimeException e) {
+            logger.error("Ingestion lease heartbeat failed: ", e);
+        }
+    }
+
+    @Override
+    public boolean heartbeat() {
+        long now = clock.millis();
+        long expiresAt = now + ttlMillis;
+
+        boolean acquired;
+        try {
+            acquired = jdbcTemplate.update(RENEW_SQL, holderId, expiresAt, LEASE_NAME, holderId, now) == 1
+                    || insert(expiresAt);
+        } catch (DataAccessException e) {
+            logger.error("Could not heartbeat the ingestion lease: ", e);
+            acquired = false;
+        }
+
+        if (acquired) {
+            leaderUntil = expiresAt;
+        }
+
+        boolean leader = isLeader();
+        changed(leader);
+
+        return leader;
+    }
+
+    private void changed(boolean leader) {
+        synchronized (this) {
+            if (leader == leading) {
+                return;
+            }
+            leading = leader;
+        }
+
+        logger.info(leader ? STR."Ingestion lease acquired by \{holderId}" : STR."Ingestion lease lost by \{holderId}");
+        eventPublisher.publishEvent(new IngestionLeaseChangedEvent(holderId, leader));
+    }
+
+    private boolean insert(long expiresAt) {
+        try {
+            return jdbcTemplate.update(INSERT_SQL, LEASE_NAME, holderId, expiresAt) == 1;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isLeader() {
+        return clock.millis() < leaderUntil;
+    }
+
+    @Override
+    public void fence() {
+        List<String> holders = jdbcTemplate.queryForList(FENCE_SQL, String.class, LEASE_NAME);
+
+        if (holders.isEmpty() || !holderId.equals(holders.getFirst())) {
+            leaderUntil = 0;
+
+            throw new IllegalStateException(STR."Ingestion lease is no longer held by \{holderId}");
+        }
+    }
+
+    @Override
+    @PreDestroy
+    public void release() {
+        heartbeatExecutor.shutdownNow();
+        leaderUntil = 0;
+        changed(false);
+
+        try {
+            jdbcTemplate.update(RELEASE_SQL, LEASE_NAME, holderId);
+        } catch (DataAccessException e) {
+            logger.error("Could not release the ingestion lease: ", e);
+        }
+    }
+
+    @Override
+    public String holderId() {
+        return holderId;
+    }
+
+}
@@ -0,0 +1,118 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.search;
+
+import java.util.Arrays;
+
+/**
+ * Compressed postings list of a single term.
+ * <p>
+ * Each posting is a document ordinal and the term frequency in that document. Ordinals are appended in
+ * increasing order and stored as variable-length encoded deltas, followed by the variable-length encoded
+ * frequency, so a posting usually takes two bytes.
+ */
+final class PostingsList {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private byte[] data = new byte[INITIAL_CAPACITY];
+    private int size;
+    private int documentCount;
+    private int lastOrdinal = -1;
+
+    /**
+     * Receives the postings of a list.
+     */
+    @FunctionalInterface
+    interface PostingConsumer {
+        void accept(int ordinal, int termFrequency);
+    }
+
+    /**
+     * Appends a posting.
+     *
+     * @param ordinal       the document ordinal, greater than every ordinal already added
+     * @param termFrequency the number of occurrences of the term in the document
+     */
+    void add(int ordinal, int termFrequency) {
+        if (ordinal <= lastOrdinal) {
+            throw new IllegalArgumentException(STR."Postings must be added in increasing order: \{ordinal} after \{lastOrdinal}");
+        }
+
+        ensureCapacity(10);
+        writeVarInt(ordinal - lastOrdinal);
+        writeVarInt(termFrequency);
+
+        lastOrdinal = ordinal;
+        documentCount++;
+    }
+
+    /**
+     * Decodes every posting in ordinal order.
+     *
+     * @param consumer receives each posting
+     */
+    void forEach(PostingConsumer consumer) {
+        int position = 0;
+        int ordinal = -1;
+
+        while (position < size) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+
+            do {
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            ordinal += value;
+
+            int termFrequency = 0;
+            shift = 0;
+
+            do {
+                b = data[position++];
+                termFrequency |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            consumer.accept(ordinal, termFrequency);
+        }
+    }
+
+    /**
+     * @return the number of documents containing the term
+     */
+    int documentCount() {
+        return documentCount;
+    }
+
+    /**
+     * @return the number of bytes used by the encoded postings
+     */
+    int sizeInBytes() {
+        return size;
+    }
+
+    private void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            data[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        data[size++] = (byte) value;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(size + extra, data.length + (data.length >> 1)));
+        }
+    }
+
+}
@@ -0,0 +1,291 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.search;
+
+import com.example.workaagencyapi.dto.SearchHit;
+import com.example.workaagencyapi.repositories.DescriptionStore;
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.service.ingestion.VacancyIngestionListener;
+import com.example.workaagencyapi.tables.VacancyTable;
+import com.example.workaagencyapi.service.ingestion.WarmupLoader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over the title, company name, tags and description of every vacancy.
+ * <p>
+ * The index is loaded from the database in the background at startup and updated incrementally with every
+ * saved ingestion batch. Each term maps to a {@link PostingsList} of document ordinals, and queries are ranked
+ * with BM25 entirely in memory. Title terms count three times and company and tag terms twice, so that matches in
+ * the short fields outrank matches buried in the description.
+ */
+@Component
+public class VacancySearchIndex implements VacancyIngestionListener, WarmupLoader {
+
+    private static final Logger logger = LogManager.getLogger(VacancySearchIndex.class);
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final int TITLE_WEIGHT = 3;
+    private static final int COMPANY_WEIGHT = 2;
+    private static final int TAG_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final VacanciesRepository vacanciesRepository;
+    private final DescriptionStore descriptionStore;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, PostingsList> postings = new HashMap<>();
+    private final List<StoredVacancy> documents = new ArrayList<>();
+    private final Set<Integer> indexedIds = new HashSet<>();
+    private int[] documentLengths = new int[1024];
+    private long totalLength;
+
+    /**
+     * Fields of an indexed vacancy returned with search hits, so that searches never query the database.
+     */
+    private record StoredVacancy(int id, String title, String company_name, String location, String url) {
+    }
+
+    /**
+     * Constructs a new instance of {@link VacancySearchIndex}.
+     *
+     * @param vacanciesRepository the repository used to load the vacancies at startup
+     * @param descriptionStore    the store of the descriptions that are not stored inline
+     */
+    @Autowired
+    public VacancySearchIndex(VacanciesRepository vacanciesRepository, DescriptionStore descriptionStore) {
+        this.vacanciesRepository = vacanciesRepository;
+        this.descriptionStore = descriptionStore;
+    }
+
+    /**
+     * Loads the stored vacancies up to {@code maxId} into the index, in batches ordered by id.
+     *
+     * @param maxId the highest id to load
+     */
+    @Override
+    public void load(int maxId) {
+        int lastId = 0;
+        List<VacancyTable> batch;
+
+        do {
+            batch = vacanciesRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(LOAD_BATCH_SIZE)).stream()
+                    .filter(vacancy -> vacancy.getId() <= maxId)
+                    .toList();
+
+            if (!batch.isEmpty()) {
+                descriptionStore.fillAll(batch);
+                index(batch);
+                lastId = batch.getLast().getId();
+            }
+        } while (batch.size() == LOAD_BATCH_SIZE);
+
+        logger.info(STR."Search index loaded: \{size()} vacancies, \{termCount()} terms");
+    }
+
+    @Override
+    public void onVacanciesSaved(List<VacancyTable> savedVacancies) {
+        index(savedVacancies);
+    }
+
+    /**
+     * Adds vacancies to the index. Vacancies that are already indexed are ignored.
+     *
+     * @param vacancies the vacancies to index
+     */
+    public void index(List<VacancyTable> vacancies) {
+        lock.writeLock().lock();
+
+        try {
+            for (VacancyTable vacancy : vacancies) {
+                if (indexedIds.add(vacancy.getId())) {
+                    addDocument(vacancy);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches the index and ranks the matching vacancies with BM25.
+     *
+     * @param query the free-text query
+     * @param limit the maximum number of hits to return
+     * @return the best matching vacancies, most relevant first
+     */
+    public List<SearchHit> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(VacancyTokenizer.tokenize(query));
+
+        if (terms.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+
+        try {
+            int documentCount = documents.size();
+
+            if (documentCount == 0) {
+                return List.of();
+            }
+
+            float averageLength = (float) totalLength / documentCount;
+            ScoreAccumulator scores = new ScoreAccumulator(documentCount);
+
+            for (String term : terms) {
+                PostingsList postingsList = postings.get(term);
+
+                if (postingsList == null) {
+                    continue;
+                }
+
+                int df = postingsList.documentCount();
+                float idf = (float) Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+
+                postingsList.forEach((ordinal, tf) -> {
+                    float norm = K1 * (1 - B + B * documentLengths[ordinal] / averageLength);
+                    scores.add(ordinal, idf * tf * (K1 + 1) / (tf + norm));
+                });
+            }
+
+            return topHits(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of indexed vacancies
+     */
+    public int size() {
+        lock.readLock().lock();
+
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of distinct terms in the index
+     */
+    public int termCount() {
+        lock.readLock().lock();
+
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addDocument(VacancyTable vacancy) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+
+        addTerms(termFrequencies, vacancy.getTitle(), TITLE_WEIGHT);
+        addTerms(termFrequencies, vacancy.getCompany_name(), COMPANY_WEIGHT);
+
+        if (vacancy.getTags() != null) {
+            for (String tag : vacancy.getTags()) {
+                addTerms(termFrequencies, tag, TAG_WEIGHT);
+            }
+        }
+
+        addTerms(termFrequencies, vacancy.getDescription(), DESCRIPTION_WEIGHT);
+
+        int ordinal = documents.size();
+        int length = termFrequencies.values().stream().mapToInt(Integer::intValue).sum();
+
+        documents.add(new StoredVacancy(vacancy.getId(), vacancy.getTitle(), vacancy.getCompany_name(),
+                vacancy.getLocation(), vacancy.getUrl()));
+
+        if (ordinal == documentLengths.length) {
+            documentLengths = Arrays.copyOf(documentLengths, ordinal + (ordinal >> 1));
+        }
+
+        documentLengths[ordinal] = length;
+        totalLength += length;
+
+        termFrequencies.forEach((term, tf) -> postings.computeIfAbsent(term, _ -> new PostingsList()).add(ordinal, tf));
+    }
+
+    private static void addTerms(Map<String, Integer> termFrequencies, String text, int weight) {
+        VacancyTokenizer.tokenize(text, term -> termFrequencies.merge(term, weight, Integer::sum));
+    }
+
+    private List<SearchHit> topHits(ScoreAccumulator scores, int limit) {
+        PriorityQueue<Integer> heap = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(scores::score));
+
+        for (int i = 0; i < scores.touchedCount; i++) {
+            int ordinal = scores.touched[i];
+
+            if (heap.size() < limit || scores.score(ordinal) > scores.score(heap.peek())) {
+                heap.offer(ordinal);
+
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+        }
+
+        List<SearchHit> hits = new ArrayList<>(heap.size());
+
+        while (!heap.isEmpty()) {
+            int ordinal = heap.poll();
+            StoredVacancy vacancy = documents.get(ordinal);
+
+            hits.add(new SearchHit(vacancy.id(), vacancy.title(), vacancy.company_name(), vacancy.location(),
+                    vacancy.url(), scores.score(ordinal)));
+        }
+
+        Collections.reverse(hits);
+
+        return hits;
+    }
+
+    /**
+     * Dense per-query score array with the list of ordinals that received a score.
+     */
+    private static final class ScoreAccumulator {
+
+        private final float[] scores;
+        private int[] touched = new int[64];
+        private int touchedCount;
+
+        ScoreAccumulator(int documentCount) {
+            this.scores = new float[documentCount];
+        }
+
+        void add(int ordinal, float score) {
+            if (scores[ordinal] == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount << 1);
+                }
+
+                touched[touchedCount++] = ordinal;
+            }
+
+            scores[ordinal] += score;
+        }
+
+        float score(int ordinal) {
+            return scores[ordinal];
+        }
+    }
+
+}
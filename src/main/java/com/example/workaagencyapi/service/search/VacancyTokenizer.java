@@ -0,0 +1,97 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Splits vacancy text into lower-case search terms.
+ * <p>
+ * Terms are maximal runs of letters and digits; HTML tags and entities found in job descriptions
+ * are skipped, and single-character terms are dropped.
+ */
+public final class VacancyTokenizer {
+
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private VacancyTokenizer() {
+    }
+
+    /**
+     * Tokenizes the given text.
+     *
+     * @param text the text to tokenize, may be null
+     * @return the terms in order of appearance
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        tokenize(text, terms::add);
+
+        return terms;
+    }
+
+    /**
+     * Tokenizes the given text, handing each term to the consumer in order of appearance.
+     *
+     * @param text     the text to tokenize, may be null
+     * @param consumer receives each term
+     */
+    public static void tokenize(String text, Consumer<String> consumer) {
+        if (text == null) {
+            return;
+        }
+
+        StringBuilder term = new StringBuilder();
+        int length = text.length();
+        int i = 0;
+
+        while (i < length) {
+            char c = text.charAt(i);
+
+            if (c == '<') {
+                int tagEnd = text.indexOf('>', i);
+
+                if (tagEnd > 0) {
+                    emit(term, consumer);
+                    i = tagEnd + 1;
+
+                    continue;
+                }
+            } else if (c == '&') {
+                int entityEnd = text.indexOf(';', i);
+
+                if (entityEnd > 0 && entityEnd - i <= 8) {
+                    emit(term, consumer);
+                    i = entityEnd + 1;
+
+                    continue;
+                }
+            }
+
+            if (Character.isLetterOrDigit(c)) {
+                term.append(Character.toLowerCase(c));
+            } else {
+                emit(term, consumer);
+            }
+
+            i++;
+        }
+
+        emit(term, consumer);
+    }
+
+    private static void emit(StringBuilder term, Consumer<String> consumer) {
+        if (term.length() >= MIN_TERM_LENGTH) {
+            consumer.accept(term.toString());
+        }
+
+        term.setLength(0);
+    }
+
+}
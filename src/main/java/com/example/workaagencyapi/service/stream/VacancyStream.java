@@ -0,0 +1,266 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.stream;
+
+import com.example.workaagencyapi.dto.VacancySummary;
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.ingestion.VacancyIngestionListener;
+import com.example.workaagencyapi.tables.VacancyTable;
+import jakarta.annotation.PostConstruct;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-sent events of the vacancies inserted into the database, for {@code /api/v1/vacancies/stream}.
+ * <p>
+ * Every saved batch is appended to one ring buffer of the newest `stream.buffer.size` vacancies shared by all
+ * subscribers. A subscriber is only a cursor into the ring: when new vacancies arrive, each subscriber behind the
+ * newest one is handed to a short-lived virtual thread that sends its pending events and ends, so no thread is
+ * held per idle connection and a slow connection only blocks its own sender. A subscriber that falls so far behind
+ * that the ring has dropped events it has not sent yet is disconnected; the client reconnects with the
+ * `Last-Event-ID` of the last event received, and events older than the ring are then read from the database.
+ */
+@Component
+public class VacancyStream implements VacancyIngestionListener {
+
+    private static final Logger logger = LogManager.getLogger(VacancyStream.class);
+
+    private static final String EVENT_NAME = "vacancy";
+
+    private static final int REPLAY_BATCH_SIZE = 100;
+
+    private final VacanciesRepository vacanciesRepository;
+    private final ConfigLoader configLoader;
+    private final Executor executor;
+
+    private final VacancySummary[] ring;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private int head;
+    private int size;
+    private int floorId;
+
+    /**
+     * Constructs a new instance of {@link VacancyStream} sending events on virtual threads.
+     *
+     * @param vacanciesRepository the repository used to replay events older than the ring
+     * @param configLoader        the configuration loader for retrieving the ring size and the connection timeout
+     */
+    @Autowired
+    public VacancyStream(VacanciesRepository vacanciesRepository, ConfigLoader configLoader) {
+        this(vacanciesRepository, configLoader, Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("vacancy-stream-", 0).factory()));
+    }
+
+    /**
+     * Constructs a new instance of {@link VacancyStream}.
+     *
+     * @param vacanciesRepository the repository used to replay events older than the ring
+     * @param configLoader        the configuration loader for retrieving the ring size and the connection timeout
+     * @param executor            the executor running the senders of the subscribers
+     */
+    public VacancyStream(VacanciesRepository vacanciesRepository, ConfigLoader configLoader, Executor executor) {
+        this.vacanciesRepository = vacanciesRepository;
+        this.configLoader = configLoader;
+        this.executor = executor;
+        this.ring = new VacancySummary[configLoader.getStreamBufferSize()];
+    }
+
+    /**
+     * Starts the ring after the vacancies currently stored, which are only replayed from the database.
+     */
+    @PostConstruct
+    public synchronized void initialize() {
+        floorId = vacanciesRepository.findMaxId();
+    }
+
+    /**
+     * Opens a stream of the vacancies inserted from now on, or after a given vacancy.
+     *
+     * @param lastEventId the id of the last vacancy received by the client, or null to only receive new vacancies
+     * @return the emitter of the stream, completed when the subscriber falls behind the ring
+     */
+    public SseEmitter subscribe(Integer lastEventId) {
+        SseEmitter emitter = new SseEmitter(configLoader.getStreamEmitterTimeout());
+        register(emitter, lastEventId);
+
+        return emitter;
+    }
+
+    /**
+     * Sends the vacancies inserted after a given vacancy, or from now on, to an emitter until it is completed.
+     *
+     * @param emitter     the emitter of the stream
+     * @param lastEventId the id of the last vacancy received by the client, or null to only receive new vacancies
+     */
+    public void register(SseEmitter emitter, Integer lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter, lastEventId != null ? lastEventId : newestId());
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(_ -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        schedule(subscriber);
+    }
+
+    @Override
+    public void onVacanciesSaved(List<VacancyTable> savedVacancies) {
+        synchronized (this) {
+            for (VacancyTable vacancy : savedVacancies) {
+                if (size == ring.length) {
+                    floorId = ring[head].id();
+                } else {
+                    size++;
+                }
+
+                ring[head] = VacancySummary.of(vacancy);
+                head = (head + 1) % ring.length;
+            }
+        }
+
+        subscribers.forEach(this::schedule);
+    }
+
+    /**
+     * @return the number of open streams
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.lastSentId < newestId() && subscriber.scheduled.compareAndSet(false, true)) {
+            executor.execute(() -> send(subscriber));
+        }
+    }
+
+    /**
+     * Sends the pending events of a subscriber until it has caught up with the ring. A new batch appended while
+     * the last events are being sent is picked up by the same sender, or schedules a new one once this one ended.
+     */
+    private void send(Subscriber subscriber) {
+        try {
+            while (subscribers.contains(subscriber)) {
+                List<VacancySummary> pending = next(subscriber);
+
+                if (pending == null) {
+                    logger.info(STR."Stream subscriber fell behind at vacancy \{subscriber.lastSentId}, disconnecting");
+                    subscribers.remove(subscriber);
+                    subscriber.emitter.complete();
+
+                    return;
+                }
+
+                if (pending.isEmpty()) {
+                    subscriber.scheduled.set(false);
+
+                    if (subscriber.lastSentId >= newestId() || !subscriber.scheduled.compareAndSet(false, true)) {
+                        return;
+                    }
+
+                    continue;
+                }
+
+                for (VacancySummary vacancy : pending) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(Integer.toString(vacancy.id()))
+                            .name(EVENT_NAME)
+                            .data(vacancy, MediaType.APPLICATION_JSON));
+                    subscriber.lastSentId = vacancy.id();
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            logger.debug(STR."Stream subscriber disconnected: \{e.getMessage()}");
+            subscribers.remove(subscriber);
+            subscriber.emitter.complete();
+        }
+
+        subscriber.scheduled.set(false);
+    }
+
+    /**
+     * Selects the next events of a subscriber: from the ring if it still holds them, otherwise from the database
+     * for a subscriber that has not reached the ring yet.
+     *
+     * @return the next events, empty if there are none, or null if the ring has dropped events not yet sent
+     */
+    private List<VacancySummary> next(Subscriber subscriber) {
+        int ringFloorId;
+
+        synchronized (this) {
+            if (subscriber.lastSentId >= floorId) {
+                subscriber.live = true;
+                return after(subscriber.lastSentId);
+            }
+
+            if (subscriber.live) {
+                return null;
+            }
+
+            ringFloorId = floorId;
+        }
+
+        List<VacancySummary> replayed = vacanciesRepository.findSummariesByIdGreaterThan(subscriber.lastSentId, Limit.of(REPLAY_BATCH_SIZE));
+
+        if (replayed.isEmpty()) {
+            subscriber.lastSentId = ringFloorId;
+            return next(subscriber);
+        }
+
+        return replayed;
+    }
+
+    /**
+     * @return the vacancies of the ring with an id greater than the given one, in id order
+     */
+    private List<VacancySummary> after(int id) {
+        List<VacancySummary> pending = new ArrayList<>();
+
+        for (int i = 0; i < size; i++) {
+            VacancySummary vacancy = ring[(head - size + i + ring.length) % ring.length];
+
+            if (vacancy.id() > id) {
+                pending.add(vacancy);
+            }
+        }
+
+        return pending;
+    }
+
+    private synchronized int newestId() {
+        return size == 0 ? floorId : ring[(head - 1 + ring.length) % ring.length].id();
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private volatile int lastSentId;
+        private volatile boolean live;
+
+        private Subscriber(SseEmitter emitter, int lastSentId) {
+            this.emitter = emitter;
+            this.lastSentId = lastSentId;
+        }
+    }
+
+}
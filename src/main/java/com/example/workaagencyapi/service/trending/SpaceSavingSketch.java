@@ -0,0 +1,176 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.trending;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Space-Saving summary of the most frequent values of a stream, in a fixed number of counters.
+ * <p>
+ * Each monitored value has a counter that never underestimates its true count. When all counters are taken, a new
+ * value replaces the one with the lowest count and starts from that count plus one, so every estimate is within
+ * {@code total / capacity} of the true count, and every value occurring more often than that is monitored. The counters form a min-heap, so an update takes O(log capacity) time.
+ */
+public class SpaceSavingSketch {
+
+    private final Map<String, Counter> counters;
+    private final Counter[] heap;
+
+    private int size;
+    private long total;
+
+    /**
+     * Constructs an empty sketch.
+     *
+     * @param capacity the number of counters, i.e. 1 / epsilon for estimates within epsilon * total
+     */
+    public SpaceSavingSketch(int capacity) {
+        this.counters = HashMap.newHashMap(capacity);
+        this.heap = new Counter[capacity];
+    }
+
+    /**
+     * Counts one occurrence of a value.
+     *
+     * @param value the value to count
+     */
+    public void offer(String value) {
+        total++;
+        Counter counter = counters.get(value);
+
+        if (counter != null) {
+            counter.count++;
+            siftDown(counter.position);
+        } else if (size < heap.length) {
+            counter = new Counter(value, size);
+            heap[size++] = counter;
+            counters.put(value, counter);
+            siftUp(counter.position);
+        } else {
+            Counter evicted = heap[0];
+            counters.remove(evicted.value);
+
+            evicted.value = value;
+            evicted.count++;
+            counters.put(value, evicted);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Adds the estimated count of every monitored value to the given totals.
+     *
+     * @param counts the totals to add to, keyed by value
+     */
+    public void addTo(Map<String, Long> counts) {
+        for (int i = 0; i < size; i++) {
+            counts.merge(heap[i].value, heap[i].count, Long::sum);
+        }
+    }
+
+    /**
+     * Passes every monitored value with its estimated count to the given action.
+     *
+     * @param action the action receiving each value and its count
+     */
+    public void forEach(ObjLongConsumer<String> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(heap[i].value, heap[i].count);
+        }
+    }
+
+    /**
+     * @param value the value to look up
+     * @return the estimated count of the value, or 0 if it is not monitored
+     */
+    public long estimate(String value) {
+        Counter counter = counters.get(value);
+        return counter == null ? 0 : counter.count;
+    }
+
+    /**
+     * @return the number of values counted
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * @return the largest possible overestimate of any count, which is 0 until all counters are taken; it is also
+     * the largest possible count of a value that is not monitored
+     */
+    public long maxError() {
+        return size < heap.length ? 0 : heap[0].count;
+    }
+
+    /**
+     * Discards all counts.
+     */
+    public void clear() {
+        counters.clear();
+        Arrays.fill(heap, 0, size, null);
+        size = 0;
+        total = 0;
+    }
+
+    private void siftUp(int position) {
+        Counter counter = heap[position];
+
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], position);
+            position = parent;
+        }
+
+        place(counter, position);
+    }
+
+    private void siftDown(int position) {
+        Counter counter = heap[position];
+
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], position);
+            position = child;
+        }
+
+        place(counter, position);
+    }
+
+    private void place(Counter counter, int position) {
+        heap[position] = counter;
+        counter.position = position;
+    }
+
+    private static final class Counter {
+
+        private String value;
+        private long count = 1;
+        private int position;
+
+        private Counter(String value, int position) {
+            this.value = value;
+            this.position = position;
+        }
+    }
+
+}
@@ -0,0 +1,290 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.trending;
+
+import com.example.workaagencyapi.dto.TrendingResult;
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.ingestion.VacancyIngestionListener;
+import com.example.workaagencyapi.tables.VacancyTable;
+import com.example.workaagencyapi.service.ingestion.WarmupLoader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import java.time.Clock;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Approximate top titles and companies of the vacancies created in the last hours or days.
+ * <p>
+ * Vacancies are counted by their `created_at` hour in a ring of {@value #BUCKETS} hourly buckets, each holding a
+ * {@link SpaceSavingSketch} of titles and one of company names with 1 / `trending.epsilon` counters. A bucket is
+ * reused once its hour has left the ring, so memory does not grow with the number of vacancies, and a query merges
+ * at most {@value #BUCKETS} sketches of fixed size. A value that a bucket does not monitor is counted with that
+ * bucket's smallest counter when the sketches are merged, so a count is never underestimated, and it is
+ * overestimated by at most epsilon times the number of vacancies in the window. The buckets are seeded from the database and updated with every saved
+ * ingestion batch; near-duplicates are not counted.
+ */
+@Component
+public class TrendingVacancies implements VacancyIngestionListener, WarmupLoader {
+
+    private static final Logger logger = LogManager.getLogger(TrendingVacancies.class);
+
+    /**
+     * The number of hourly buckets, i.e. the longest window in hours.
+     */
+    public static final int BUCKETS = 168;
+
+    private static final long SECONDS_PER_HOUR = 3600;
+
+    private static final Pattern WINDOW_PATTERN = Pattern.compile("(\\d{1,3})([hd])");
+
+    private static final String SELECT_RECENT_SQL =
+            "SELECT title, company_name, created_at FROM vacancies WHERE created_at >= ? AND id <= ? AND duplicate_of IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConfigLoader configLoader;
+    private final Clock clock;
+
+    private final Bucket[] buckets = new Bucket[BUCKETS];
+
+    /**
+     * Constructs a new instance of {@link TrendingVacancies} on the system clock.
+     *
+     * @param jdbcTemplate the JdbcTemplate used to seed the buckets
+     * @param configLoader the configuration loader for retrieving the error bound and the default top size
+     */
+    @Autowired
+    public TrendingVacancies(JdbcTemplate jdbcTemplate, ConfigLoader configLoader) {
+        this(jdbcTemplate, configLoader, Clock.systemUTC());
+    }
+
+    /**
+     * Constructs a new instance of {@link TrendingVacancies}.
+     *
+     * @param jdbcTemplate the JdbcTemplate used to seed the buckets
+     * @param configLoader the configuration loader for retrieving the error bound and the default top size
+     * @param clock        the clock defining the current hour
+     */
+    public TrendingVacancies(JdbcTemplate jdbcTemplate, ConfigLoader configLoader, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.configLoader = configLoader;
+        this.clock = clock;
+
+        int capacity = (int) Math.ceil(1 / configLoader.getTrendingEpsilon());
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new Bucket(capacity);
+        }
+    }
+
+    /**
+     * Seeds the buckets with the vacancies up to {@code maxId} created within the ring.
+     *
+     * @param maxId the highest id to load
+     */
+    @Override
+    public void load(int maxId) {
+        long since = (currentHour() - BUCKETS + 1) * SECONDS_PER_HOUR;
+        int[] seeded = {0};
+
+        synchronized (this) {
+            jdbcTemplate.query(SELECT_RECENT_SQL, rs -> {
+                add(rs.getString(1), rs.getString(2), rs.getLong(3));
+                seeded[0]++;
+            }, since, maxId);
+        }
+
+        logger.info(STR."Trending buckets seeded with \{seeded[0]} vacancies");
+    }
+
+    @Override
+    public synchronized void onVacanciesSaved(List<VacancyTable> savedVacancies) {
+        for (VacancyTable vacancy : savedVacancies) {
+            if (vacancy.getDuplicate_of() == null) {
+                add(vacancy.getTitle(), vacancy.getCompany_name(), vacancy.getCreated_at());
+            }
+        }
+    }
+
+    /**
+     * Retrieves the most frequent titles and companies of the vacancies created within a window ending now.
+     *
+     * @param window the window length in hours or days, e.g. "24h" or "7d", at most {@value #BUCKETS} hours
+     * @param limit  the number of titles and companies to return; values below 1 return `top.titles.size`
+     * @return the trending titles and companies with their estimated counts
+     * @throws IllegalArgumentException if the window is malformed, empty or longer than {@value #BUCKETS} hours
+     */
+    public TrendingResult getTrending(String window, int limit) {
+        int hours = parseWindow(window);
+        int size = limit < 1 ? configLoader.getTopTitlesSize() : limit;
+
+        MergedCounts titles = new MergedCounts();
+        MergedCounts companies = new MergedCounts();
+        long vacancies = 0;
+
+        synchronized (this) {
+            long currentHour = currentHour();
+
+            for (long hour = currentHour - hours + 1; hour <= currentHour; hour++) {
+                Bucket bucket = buckets[slot(hour)];
+
+                if (bucket.hour == hour) {
+                    titles.add(bucket.titles);
+                    companies.add(bucket.companies);
+                    vacancies += bucket.vacancies;
+                }
+            }
+        }
+
+        return new TrendingResult(window, vacancies, Math.max(titles.maxError, companies.maxError),
+                top(titles.estimates(), size), top(companies.estimates(), size));
+    }
+
+    /**
+     * Parses a window length such as "24h" or "7d".
+     *
+     * @param window the window length, a number followed by "h" for hours or "d" for days
+     * @return the window length in hours
+     * @throws IllegalArgumentException if the window is malformed, empty or longer than {@value #BUCKETS} hours
+     */
+    public static int parseWindow(String window) {
+        Matcher matcher = WINDOW_PATTERN.matcher(window);
+
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException(STR."Malformed window: \{window}");
+        }
+
+        int hours = Integer.parseInt(matcher.group(1)) * ("d".equals(matcher.group(2)) ? 24 : 1);
+
+        if (hours < 1 || hours > BUCKETS) {
+            throw new IllegalArgumentException(STR."Window out of range: \{window}");
+        }
+
+        return hours;
+    }
+
+    /**
+     * Counts a vacancy in the bucket of its creation hour, starting the bucket over if it still holds an older
+     * hour. Vacancies created before the ring are ignored, and those dated in the future count for the current hour.
+     */
+    private void add(String title, String companyName, long createdAt) {
+        long currentHour = currentHour();
+        long hour = Math.min(Math.floorDiv(createdAt, SECONDS_PER_HOUR), currentHour);
+
+        if (hour <= currentHour - BUCKETS) {
+            return;
+        }
+
+        Bucket bucket = buckets[slot(hour)];
+
+        if (bucket.hour < hour) {
+            bucket.reset(hour);
+        } else if (bucket.hour > hour) {
+            return;
+        }
+
+        bucket.vacancies++;
+        if (title != null) {
+            bucket.titles.offer(title);
+        }
+        if (companyName != null) {
+            bucket.companies.offer(companyName);
+        }
+    }
+
+    private long currentHour() {
+        return Math.floorDiv(clock.millis(), SECONDS_PER_HOUR * 1000);
+    }
+
+    private static int slot(long hour) {
+        return (int) Math.floorMod(hour, (long) BUCKETS);
+    }
+
+    /**
+     * Selects the highest counts with a min-heap bounded to {@code size} entries.
+     */
+    private static List<Map<String, Long>> top(Map<String, Long> counts, int size) {
+        Comparator<Map.Entry<String, Long>> byCountDesc =
+                Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<String, Long>> heap = new PriorityQueue<>(size + 1, byCountDesc.reversed());
+
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            heap.offer(entry);
+
+            if (heap.size() > size) {
+                heap.poll();
+            }
+        }
+
+        return heap.stream()
+                .sorted(byCountDesc)
+                .map(entry -> Map.of(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * Sum of the sketches of several buckets.
+     * <p>
+     * A value that a bucket does not monitor may still have occurred there, up to the bucket's
+     * {@link SpaceSavingSketch#maxError()} times. Summing the monitored counters alone could then underestimate a
+     * value monitored in some buckets only, so every value is also credited the maxError of each bucket not
+     * monitoring it: the merged count never falls below the true count and exceeds it by at most the summed maxError.
+     */
+    private static final class MergedCounts {
+
+        private final Map<String, Long> counts = new HashMap<>();
+        private final Map<String, Long> monitoredError = new HashMap<>();
+
+        private long maxError;
+
+        private void add(SpaceSavingSketch sketch) {
+            long error = sketch.maxError();
+
+            sketch.forEach((value, count) -> {
+                counts.merge(value, count, Long::sum);
+
+                if (error > 0) {
+                    monitoredError.merge(value, error, Long::sum);
+                }
+            });
+            maxError += error;
+        }
+
+        private Map<String, Long> estimates() {
+            if (maxError > 0) {
+                counts.replaceAll((value, count) -> count + maxError - monitoredError.getOrDefault(value, 0L));
+            }
+
+            return counts;
+        }
+    }
+
+    private static final class Bucket {
+
+        private final SpaceSavingSketch titles;
+        private final SpaceSavingSketch companies;
+
+        private long hour = Long.MIN_VALUE;
+        private long vacancies;
+
+        private Bucket(int capacity) {
+            this.titles = new SpaceSavingSketch(capacity);
+            this.companies = new SpaceSavingSketch(capacity);
+        }
+
+        private void reset(long hour) {
+            this.hour = hour;
+            this.vacancies = 0;
+            titles.clear();
+            companies.clear();
+        }
+    }
+
+}
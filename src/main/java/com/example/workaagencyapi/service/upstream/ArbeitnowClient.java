@@ -0,0 +1,186 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.upstream;
+
+import com.example.workaagencyapi.service.ingestion.IngestionMetrics;
+import com.example.workaagencyapi.service.ingestion.IngestionMetrics.FetchStatus;
+import com.example.workaagencyapi.tables.VacancyTable;
+import io.micrometer.core.instrument.Timer;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Client for the arbeitnow job board API.
+ * <p>
+ * Requests go through the pooled, gzip-enabled {@link CloseableHttpClient} configured in
+ * {@link com.example.workaagencyapi.config.AppConfig}. The ETag and Last-Modified validators of every
+ * page URL are remembered and sent back on the next request, so a page that has not changed upstream
+ * is answered with 304 Not Modified and skipped without being downloaded or parsed.
+ * <p>
+ * The validators are remembered as soon as a page is fetched, while its vacancies are only staged. If the
+ * staged vacancies are then lost, the caller must call {@link #forgetValidators()}: otherwise the next
+ * requests would be answered with 304 and the lost vacancies would never be fetched again.
+ */
+@Component
+public class ArbeitnowClient {
+
+    private static final String API_URL = "https://www.arbeitnow.com/api/job-board-api";
+    private static final Logger logger = LogManager.getLogger(ArbeitnowClient.class);
+
+    private final CloseableHttpClient httpClient;
+    private final VacancyStreamParser vacancyStreamParser;
+    private final IngestionMetrics ingestionMetrics;
+
+    private final Map<String, Validators> validatorsByUrl = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new instance of {@link ArbeitnowClient}.
+     *
+     * @param httpClient          the pooled HTTP client used for upstream requests
+     * @param vacancyStreamParser the streaming parser for page bodies
+     * @param ingestionMetrics    the meters of the fetch and parse stages
+     */
+    @Autowired
+    public ArbeitnowClient(CloseableHttpClient httpClient, VacancyStreamParser vacancyStreamParser,
+                           IngestionMetrics ingestionMetrics) {
+        this.httpClient = httpClient;
+        this.vacancyStreamParser = vacancyStreamParser;
+        this.ingestionMetrics = ingestionMetrics;
+    }
+
+    /**
+     * Fetches and parses a single page of the job board.
+     *
+     * @param page the page number to fetch
+     * @return the page result, {@link PageResult.Status#NOT_MODIFIED} if the page is unchanged since the last fetch
+     */
+    public PageResult fetchPage(int page) {
+        String url = String.format("%s?page=%d", API_URL, page);
+        HttpGet request = new HttpGet(url);
+        request.setHeader(HttpHeaders.ACCEPT, "application/json");
+        request.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        Validators validators = validatorsByUrl.get(url);
+
+        if (validators != null) {
+            validators.applyTo(request);
+        }
+
+        Timer.Sample fetchSample = Timer.start();
+        boolean responded = false;
+
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            int responseCode = response.getStatusLine().getStatusCode();
+            responded = true;
+
+            if (responseCode == HttpStatus.SC_NOT_MODIFIED) {
+                fetchSample.stop(ingestionMetrics.fetchTimer(FetchStatus.NOT_MODIFIED));
+
+                return PageResult.notModified(page);
+            }
+
+            if (responseCode != HttpStatus.SC_OK) {
+                fetchSample.stop(ingestionMetrics.fetchTimer(FetchStatus.FAILED));
+                EntityUtils.consumeQuietly(response.getEntity());
+                logger.error(STR."Error occurred while fetching job data page \{page}: HttpResponseCode: \{responseCode}");
+
+                return PageResult.failed(page);
+            }
+
+            fetchSample.stop(ingestionMetrics.fetchTimer(FetchStatus.FETCHED));
+
+            List<VacancyTable> vacancies = new ArrayList<>();
+            HttpEntity entity = response.getEntity();
+
+            if (entity != null) {
+                Timer.Sample parseSample = Timer.start();
+                CountingInputStream body = new CountingInputStream(entity.getContent());
+
+                vacancyStreamParser.parse(body, vacancies::add);
+
+                parseSample.stop(ingestionMetrics.parseTimer());
+                ingestionMetrics.recordPageBytes(body.getCount());
+            }
+
+            Validators.from(response).ifPresentOrElse(
+                    received -> validatorsByUrl.put(url, received),
+                    () -> validatorsByUrl.remove(url));
+
+            return PageResult.fetched(page, vacancies);
+        } catch (IOException e) {
+            if (!responded) {
+                fetchSample.stop(ingestionMetrics.fetchTimer(FetchStatus.FAILED));
+            }
+            logger.error("Error occurred while parsing job data: ", e);
+
+            return PageResult.failed(page);
+        }
+    }
+
+    /**
+     * Forgets the validators of every page URL, so the next request of each page downloads it in full.
+     * <p>
+     * Called when fetched vacancies could not be saved, as the pages they came from must not be skipped as
+     * unchanged.
+     */
+    public void forgetValidators() {
+        if (!validatorsByUrl.isEmpty()) {
+            validatorsByUrl.clear();
+            logger.warn("Fetched vacancies were not saved, page validators cleared");
+        }
+    }
+
+    /**
+     * Cache validators received for a page URL.
+     *
+     * @param etag         the ETag header value, or null
+     * @param lastModified the Last-Modified header value, or null
+     */
+    private record Validators(String etag, String lastModified) {
+
+        static Optional<Validators> from(CloseableHttpResponse response) {
+            String etag = headerValue(response.getFirstHeader(HttpHeaders.ETAG));
+            String lastModified = headerValue(response.getFirstHeader(HttpHeaders.LAST_MODIFIED));
+
+            if (etag == null && lastModified == null) {
+                return Optional.empty();
+            }
+
+            return Optional.of(new Validators(etag, lastModified));
+        }
+
+        void applyTo(HttpGet request) {
+            if (etag != null) {
+                request.setHeader(HttpHeaders.IF_NONE_MATCH, etag);
+            }
+            if (lastModified != null) {
+                request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+        }
+
+        private static String headerValue(Header header) {
+            return header == null ? null : header.getValue();
+        }
+    }
+
+}
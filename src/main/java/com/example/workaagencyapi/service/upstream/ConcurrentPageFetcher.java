@@ -0,0 +1,113 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.upstream;
+
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Fetches consecutive pages of the upstream job board concurrently on virtual threads.
+ * <p>
+ * At most {@code upstream.max.concurrent.pages} page requests are kept in flight. Pages are handed
+ * to the consumer strictly in page order, and the first empty or failed page stops the crawl and cancels
+ * the requests still outstanding for the pages after it. Pages that are unchanged since the last fetch
+ * are skipped without stopping the crawl.
+ */
+@Component
+public class ConcurrentPageFetcher {
+
+    private static final Logger logger = LogManager.getLogger(ConcurrentPageFetcher.class);
+
+    private final ConfigLoader configLoader;
+
+    /**
+     * Constructs a new instance of {@link ConcurrentPageFetcher}.
+     *
+     * @param configLoader the configuration loader for retrieving the concurrency limit
+     */
+    @Autowired
+    public ConcurrentPageFetcher(ConfigLoader configLoader) {
+        this.configLoader = configLoader;
+    }
+
+    /**
+     * Fetches pages starting from page 1 until an empty page is returned or {@code lastPage} is reached.
+     *
+     * @param pageLoader   loads a single page
+     * @param lastPage     the last page number to fetch
+     * @param pageConsumer receives the vacancies of each non-empty page, in page order
+     * @return the number of pages downloaded and handed to the consumer
+     */
+    public int fetchPages(IntFunction<PageResult> pageLoader, int lastPage, Consumer<List<VacancyTable>> pageConsumer) {
+        int maxInFlight = Math.max(1, configLoader.getMaxConcurrentPageRequests());
+        Deque<Future<PageResult>> inFlight = new ArrayDeque<>();
+        int nextPage = 1;
+        int fetchedPages = 0;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (inFlight.size() < maxInFlight && nextPage <= lastPage) {
+                inFlight.add(submit(executor, pageLoader, nextPage++));
+            }
+
+            while (!inFlight.isEmpty()) {
+                PageResult result = await(inFlight.poll());
+
+                if (result.isLastPage()) {
+                    inFlight.forEach(future -> future.cancel(true));
+                    inFlight.clear();
+
+                    break;
+                }
+
+                if (result.status() == PageResult.Status.FETCHED) {
+                    pageConsumer.accept(result.vacancies());
+                    fetchedPages++;
+                }
+
+                if (nextPage <= lastPage) {
+                    inFlight.add(submit(executor, pageLoader, nextPage++));
+                }
+            }
+        }
+
+        logger.info(STR."Fetched \{fetchedPages} upstream pages");
+
+        return fetchedPages;
+    }
+
+    private static Future<PageResult> submit(ExecutorService executor, IntFunction<PageResult> pageLoader, int page) {
+        return executor.submit(() -> pageLoader.apply(page));
+    }
+
+    private static PageResult await(Future<PageResult> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            return PageResult.failed(0);
+        } catch (ExecutionException e) {
+            logger.error("Error occurred while fetching upstream page: ", e.getCause());
+
+            return PageResult.failed(0);
+        }
+    }
+
+}
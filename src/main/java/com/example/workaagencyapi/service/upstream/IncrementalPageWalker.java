@@ -0,0 +1,159 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.upstream;
+
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.ingestion.IngestionWatermark;
+import com.example.workaagencyapi.service.ingestion.IngestionWatermark.Mark;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Walks the upstream pages, newest vacancies first, until it reaches the {@link IngestionWatermark}.
+ * <p>
+ * Each page is fetched only if the previous one held nothing but new vacancies, so a quiet interval costs a
+ * single request (answered 304 when the first page is unchanged) and a busy one follows every new page,
+ * up to `refresh.max.pages` pages per walk. A walk that stops at that limit, or at a failed page, before
+ * reaching the watermark leaves the watermark where it is and the next walk resumes from the page it stopped at,
+ * so no vacancy between the two is skipped. Vacancies published in the meantime are fetched by the walk after
+ * the one that reaches the watermark.
+ */
+@Component
+public class IncrementalPageWalker {
+
+    private static final Logger logger = LogManager.getLogger(IncrementalPageWalker.class);
+
+    private final ConfigLoader configLoader;
+    private final IngestionWatermark ingestionWatermark;
+
+    /**
+     * The walk that has not reached its watermark yet, or null.
+     */
+    private Resume resume;
+
+    /**
+     * Set by {@link #rewind()}, so a walk running meanwhile does not move the watermark past the lost vacancies,
+     * and the next walk starts from page 1.
+     */
+    private volatile boolean rewound;
+
+    /**
+     * Position of a walk that stopped before reaching its watermark.
+     *
+     * @param target the watermark the walk goes down to
+     * @param page   the page the next walk starts from
+     * @param newest the newest vacancy handed over since the walk started, or null
+     */
+    private record Resume(Mark target, int page, VacancyTable newest) {
+    }
+
+    /**
+     * Constructs a new instance of {@link IncrementalPageWalker}.
+     *
+     * @param configLoader       the configuration loader for retrieving the page limit
+     * @param ingestionWatermark the mark of the newest vacancy already fetched
+     */
+    @Autowired
+    public IncrementalPageWalker(ConfigLoader configLoader, IngestionWatermark ingestionWatermark) {
+        this.configLoader = configLoader;
+        this.ingestionWatermark = ingestionWatermark;
+    }
+
+    /**
+     * Fetches pages from page 1, or from the page a previous walk stopped at, and hands over the vacancies newer
+     * than the watermark.
+     * <p>
+     * The walk reaches the watermark at the first page that is empty, holds a vacancy at or behind the watermark,
+     * or, on page 1, is unchanged; the watermark is then moved to the newest vacancy handed over. Other unchanged
+     * pages are skipped. A failed page, or `refresh.max.pages` fetched pages, stop the walk where the next one
+     * resumes.
+     *
+     * @param pageLoader   loads a single page
+     * @param pageConsumer receives the new vacancies of each page, in page order
+     * @return the number of new vacancies handed to the consumer
+     */
+    public synchronized int walk(IntFunction<PageResult> pageLoader, Consumer<List<VacancyTable>> pageConsumer) {
+        if (rewound) {
+            rewound = false;
+            resume = null;
+        }
+
+        Resume from = resume != null ? resume : new Resume(ingestionWatermark.current(), 1, null);
+        int lastPage = from.page() + configLoader.getRefreshMaxPages() - 1;
+        VacancyTable newest = from.newest();
+        boolean reached = false;
+        int newVacancies = 0;
+        int page = from.page();
+
+        for (; page <= lastPage; page++) {
+            PageResult result = pageLoader.apply(page);
+
+            if (result.status() == PageResult.Status.FAILED) {
+                break;
+            }
+            if (result.status() == PageResult.Status.NOT_MODIFIED) {
+                reached = page == 1;
+
+                if (reached) {
+                    break;
+                }
+                continue;
+            }
+
+            List<VacancyTable> fresh = result.vacancies().stream().filter(from.target()::isBefore).toList();
+
+            if (!fresh.isEmpty()) {
+                pageConsumer.accept(fresh);
+                newest = newest == null ? fresh.getFirst() : newest;
+                newVacancies += fresh.size();
+            }
+
+            if (fresh.size() < result.vacancies().size() || result.vacancies().isEmpty()) {
+                reached = true;
+                break;
+            }
+        }
+
+        if (rewound) {
+            resume = null;
+        } else if (reached) {
+            resume = null;
+
+            if (newest != null) {
+                ingestionWatermark.fetched(List.of(newest));
+            }
+        } else {
+            resume = new Resume(from.target(), page, newest);
+
+            logger.warn(STR."Incremental refresh stopped at page \{page} before reaching the watermark, the next refresh resumes there");
+        }
+
+        logger.info(STR."Incremental refresh found \{newVacancies} new vacancies in pages \{from.page()}-\{Math.min(page, lastPage)}");
+
+        return newVacancies;
+    }
+
+    /**
+     * Forgets the progress of the walks when staged vacancies could not be saved.
+     * <p>
+     * The fetched mark of the {@link IngestionWatermark} is moved back to the saved mark and an unfinished walk is
+     * dropped, so the next walk starts from page 1 and fetches the lost vacancies again. A walk running meanwhile
+     * leaves the watermark where it is. Not synchronized with the walks, as a failing save may hold the lock a
+     * walk waits for to save an overflowing buffer.
+     */
+    public void rewind() {
+        rewound = true;
+        ingestionWatermark.rewind();
+    }
+
+}
@@ -0,0 +1,58 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.upstream;
+
+import com.example.workaagencyapi.tables.VacancyTable;
+import java.util.List;
+
+/**
+ * Outcome of fetching a single page of the upstream job board.
+ *
+ * @param page      the fetched page number
+ * @param status    whether the page was fetched, unchanged since the last fetch, or failed
+ * @param vacancies the vacancies of the page, empty unless the page was fetched
+ */
+public record PageResult(int page, Status status, List<VacancyTable> vacancies) {
+
+    /**
+     * Status of a page fetch.
+     */
+    public enum Status {
+        FETCHED,
+        NOT_MODIFIED,
+        FAILED
+    }
+
+    /**
+     * @return a result for a page that was downloaded and parsed
+     */
+    public static PageResult fetched(int page, List<VacancyTable> vacancies) {
+        return new PageResult(page, Status.FETCHED, vacancies);
+    }
+
+    /**
+     * @return a result for a page that is unchanged since the last fetch
+     */
+    public static PageResult notModified(int page) {
+        return new PageResult(page, Status.NOT_MODIFIED, List.of());
+    }
+
+    /**
+     * @return a result for a page that could not be fetched or parsed
+     */
+    public static PageResult failed(int page) {
+        return new PageResult(page, Status.FAILED, List.of());
+    }
+
+    /**
+     * @return true if there is nothing after this page: it failed, or it was fetched and had no vacancies
+     */
+    public boolean isLastPage() {
+        return status == Status.FAILED || (status == Status.FETCHED && vacancies.isEmpty());
+    }
+
+}
@@ -0,0 +1,80 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.service.upstream;
+
+import com.example.workaagencyapi.tables.VacancyTable;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Streaming parser for job board pages.
+ * <p>
+ * Reads the response body token by token with Jackson's {@link JsonParser} and maps each element of the
+ * {@code data} array straight to a {@link VacancyTable}, so a page is never buffered as a String or
+ * as a {@link com.fasterxml.jackson.databind.JsonNode} tree. All other top-level fields are skipped.
+ */
+@Component
+public class VacancyStreamParser {
+
+    private static final String DATA_FIELD = "data";
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructs a new instance of {@link VacancyStreamParser}.
+     *
+     * @param objectMapper the ObjectMapper used to map each vacancy object
+     */
+    @Autowired
+    public VacancyStreamParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Parses a job board page and hands each vacancy to the consumer as soon as it is read.
+     * <p>
+     * The input stream is closed when parsing finishes.
+     *
+     * @param body     the response body of a job board page
+     * @param consumer receives each parsed vacancy, in document order
+     * @return the number of parsed vacancies
+     * @throws IOException if the body cannot be read or is not a job board page
+     */
+    public int parse(InputStream body, Consumer<VacancyTable> consumer) throws IOException {
+        int count = 0;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object at the root of the page");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                if (DATA_FIELD.equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        consumer.accept(objectMapper.readValue(parser, VacancyTable.class));
+                        count++;
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        return count;
+    }
+
+}
@@ -0,0 +1,45 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.tables;
+
+import com.example.workaagencyapi.repositories.TagDictionary;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Stores the tags and job types of a vacancy as packed {@link TagDictionary} ids.
+ * <p>
+ * Instantiated by Hibernate through the Spring bean container. Loaded arrays hold the dictionary's
+ * shared string instances, so the same tag is never held twice on the heap.
+ */
+@Converter
+public class TagArrayConverter implements AttributeConverter<String[], byte[]> {
+
+    private final TagDictionary tagDictionary;
+
+    /**
+     * Constructs a new instance of {@link TagArrayConverter}.
+     *
+     * @param tagDictionary the dictionary of tag and job type strings
+     */
+    @Autowired
+    public TagArrayConverter(TagDictionary tagDictionary) {
+        this.tagDictionary = tagDictionary;
+    }
+
+    @Override
+    public byte[] convertToDatabaseColumn(String[] values) {
+        return values == null ? null : tagDictionary.encode(values);
+    }
+
+    @Override
+    public String[] convertToEntityAttribute(byte[] ids) {
+        return ids == null ? null : tagDictionary.decode(ids);
+    }
+
+}
@@ -0,0 +1,35 @@
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+package com.example.workaagencyapi.tables;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entry of the dictionary of tag and job type strings.
+ * <p>
+ * Maps to the "vacancy_symbols" table. Vacancies store the ids of their tags and job types
+ * ({@link TagArrayConverter}), so each distinct string is stored once.
+ */
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@Entity
+@Table(name = "vacancy_symbols", uniqueConstraints = @UniqueConstraint(name = "uk_vacancy_symbols_value", columnNames = "name"))
+
+public class VacancySymbol {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    int id;
+
+    @Column(nullable = false)
+    private String name;
+
+}
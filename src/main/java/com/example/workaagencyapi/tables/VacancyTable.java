@@ -13,7 +13,8 @@ import lombok.*;
  * Represents a job vacancy entity in the database.
  * <p>
  * Maps to the "vacancies" table and contains attributes such as job title, company name,
- * description, remote status, URL, tags, job types, location, and creation timestamp.
+ * description, remote status, URL, tags, job types, location, creation timestamp, and the id of the
+ * vacancy it is a near-duplicate of, if any.
  * <p>
  * Uses JPA annotations for ORM mapping and Lombok annotations for boilerplate code reduction.
  * <p>
@@ -33,7 +34,7 @@ import lombok.*;
 @Getter
 @Setter
 @Entity
-@Table(name = "vacancies")
+@Table(name = "vacancies", uniqueConstraints = @UniqueConstraint(name = "uk_vacancies_url", columnNames = "url"))
 
 public class VacancyTable {
 
@@ -50,7 +51,7 @@ public class VacancyTable {
     @Column()
     private String title;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
+    @Column(columnDefinition = "TEXT")
 
     private String description;
 
@@ -60,10 +61,12 @@ public class VacancyTable {
     @Column()
     private String url;
 
-    @Column()
+    @Convert(converter = TagArrayConverter.class)
+    @Column(name = "tag_ids", length = 1024)
     private String[] tags;
 
-    @Column()
+    @Convert(converter = TagArrayConverter.class)
+    @Column(name = "job_type_ids", length = 1024)
     private String[] job_types;
 
     @Column(nullable = false)
@@ -72,4 +75,7 @@ public class VacancyTable {
     @Column()
     private long created_at;
 
+    @Column()
+    private Integer duplicate_of;
+
 }
@@ -0,0 +1,7 @@
+-- Single-row lease electing the instance that crawls the upstream job board and writes vacancies.
+-- expires_at is in epoch milliseconds.
+CREATE TABLE IF NOT EXISTS ingestion_lease (
+    name VARCHAR(64) PRIMARY KEY,
+    holder VARCHAR(255) NOT NULL,
+    expires_at BIGINT NOT NULL
+);
@@ -0,0 +1,6 @@
+-- High-water mark of the incremental refresh: the newest created_at (epoch seconds) and url saved.
+CREATE TABLE IF NOT EXISTS ingestion_state (
+    name VARCHAR(64) PRIMARY KEY,
+    created_at BIGINT NOT NULL,
+    url VARCHAR(255)
+);
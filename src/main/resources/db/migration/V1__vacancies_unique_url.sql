@@ -0,0 +1,5 @@
+-- Removes rows stored more than once under the same url (keeping the oldest one)
+-- and backs the ingestion INSERT ... ON CONFLICT DO NOTHING with a unique index.
+-- Applied once per database by SchemaMigrations.
+DELETE FROM vacancies a USING vacancies b WHERE a.url = b.url AND a.id > b.id;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_vacancies_url ON vacancies (url);
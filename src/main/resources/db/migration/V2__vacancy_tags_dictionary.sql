@@ -0,0 +1,15 @@
+-- Copies the tags and job_types text arrays stored before the tag dictionary to the tag_ids and job_type_ids
+-- columns (dictionary ids packed as 4-byte big-endian integers). Applied once per database by SchemaMigrations.
+-- The text columns are kept: instances of the previous release still insert into them during a rolling deploy.
+-- A migration of a later release copies the rows they wrote the same way, then drops the columns.
+-- On a schema without them, the text columns are created empty.
+ALTER TABLE vacancies ADD COLUMN IF NOT EXISTS tags VARCHAR(255)[];
+ALTER TABLE vacancies ADD COLUMN IF NOT EXISTS job_types VARCHAR(255)[];
+INSERT INTO vacancy_symbols (name)
+    SELECT DISTINCT symbol.value FROM vacancies v, unnest(v.tags || v.job_types) AS symbol(value)
+    WHERE symbol.value IS NOT NULL AND v.tag_ids IS NULL AND v.job_type_ids IS NULL
+    ON CONFLICT (name) DO NOTHING;
+UPDATE vacancies v SET
+    tag_ids = CASE WHEN v.tags IS NOT NULL THEN COALESCE((SELECT string_agg(int4send(s.id), ''::bytea ORDER BY t.n) FROM unnest(v.tags) WITH ORDINALITY AS t(value, n) JOIN vacancy_symbols s ON s.name = t.value), ''::bytea) END,
+    job_type_ids = CASE WHEN v.job_types IS NOT NULL THEN COALESCE((SELECT string_agg(int4send(s.id), ''::bytea ORDER BY t.n) FROM unnest(v.job_types) WITH ORDINALITY AS t(value, n) JOIN vacancy_symbols s ON s.name = t.value), ''::bytea) END
+    WHERE v.tag_ids IS NULL AND v.job_type_ids IS NULL AND (v.tags IS NOT NULL OR v.job_types IS NOT NULL);
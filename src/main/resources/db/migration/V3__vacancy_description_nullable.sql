@@ -0,0 +1,3 @@
+-- Descriptions stored in the vacancy_descriptions side table leave the inline column NULL, so it must allow NULL.
+-- Applied once per database by SchemaMigrations.
+ALTER TABLE vacancies ALTER COLUMN description DROP NOT NULL;
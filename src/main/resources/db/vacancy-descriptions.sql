@@ -0,0 +1,7 @@
+-- Side table holding the deflate-compressed vacancy descriptions (description.storage=compressed).
+-- Descriptions moved there leave the inline column NULL; see migration V3.
+CREATE TABLE IF NOT EXISTS vacancy_descriptions (
+    vacancy_id INT PRIMARY KEY,
+    compressed BYTEA NOT NULL,
+    raw_length INT NOT NULL
+);
@@ -0,0 +1,134 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.service.ingestion.IngestionMetrics;
+import com.example.workaagencyapi.service.upstream.ArbeitnowClient;
+import com.example.workaagencyapi.service.upstream.PageResult;
+import com.example.workaagencyapi.service.upstream.VacancyStreamParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHeader;
+import org.apache.http.message.BasicStatusLine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the conditional requests of the ArbeitnowClient.
+ */
+class ArbeitnowClientTest {
+
+    private static final String ETAG = "\"page-1-v1\"";
+    private static final String LAST_MODIFIED = "Wed, 21 Oct 2015 07:28:00 GMT";
+
+    private static final String PAGE = """
+            {"data": [{"slug": "a", "company_name": "Acme", "title": "Java Developer", "description": "<p>A</p>",
+            "remote": false, "url": "https://example.com/a", "tags": ["java"], "job_types": ["full-time"],
+            "location": "Berlin", "created_at": 1700000000}]}""";
+
+    @Mock
+    private CloseableHttpClient httpClient;
+
+    private ArbeitnowClient arbeitnowClient;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        arbeitnowClient = new ArbeitnowClient(httpClient, new VacancyStreamParser(new ObjectMapper()),
+                new IngestionMetrics(new SimpleMeterRegistry()));
+    }
+
+    /**
+     * Test case for a page fetched again after it was answered with validators.
+     * Ensures that the validators are sent back, and that a 304 answer yields a NOT_MODIFIED result without vacancies.
+     */
+    @Test
+    void testFetchPage_NotModified() throws IOException {
+        CloseableHttpResponse ok = ok();
+        CloseableHttpResponse notModified = notModified();
+        when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(ok, notModified);
+
+        PageResult fetched = arbeitnowClient.fetchPage(1);
+        PageResult unchanged = arbeitnowClient.fetchPage(1);
+
+        assertEquals(PageResult.Status.FETCHED, fetched.status());
+        assertEquals(1, fetched.vacancies().size());
+        assertEquals(PageResult.Status.NOT_MODIFIED, unchanged.status());
+        assertTrue(unchanged.vacancies().isEmpty());
+
+        List<HttpUriRequest> requests = captureRequests(2);
+        assertNull(requests.get(0).getFirstHeader(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(ETAG, requests.get(1).getFirstHeader(HttpHeaders.IF_NONE_MATCH).getValue());
+        assertEquals(LAST_MODIFIED, requests.get(1).getFirstHeader(HttpHeaders.IF_MODIFIED_SINCE).getValue());
+    }
+
+    /**
+     * Test case for validators forgotten after the fetched vacancies were lost.
+     * Ensures that the next request of the page is unconditional, so the page is downloaded again in full.
+     */
+    @Test
+    void testFetchPage_AfterForgetValidators() throws IOException {
+        CloseableHttpResponse first = ok();
+        CloseableHttpResponse second = ok();
+        when(httpClient.execute(any(HttpUriRequest.class))).thenReturn(first, second);
+
+        arbeitnowClient.fetchPage(1);
+        arbeitnowClient.forgetValidators();
+        PageResult refetched = arbeitnowClient.fetchPage(1);
+
+        assertEquals(PageResult.Status.FETCHED, refetched.status());
+        assertEquals(1, refetched.vacancies().size());
+
+        HttpUriRequest request = captureRequests(2).get(1);
+        assertNull(request.getFirstHeader(HttpHeaders.IF_NONE_MATCH));
+        assertNull(request.getFirstHeader(HttpHeaders.IF_MODIFIED_SINCE));
+    }
+
+    private List<HttpUriRequest> captureRequests(int count) throws IOException {
+        ArgumentCaptor<HttpUriRequest> captor = ArgumentCaptor.forClass(HttpUriRequest.class);
+        verify(httpClient, times(count)).execute(captor.capture());
+
+        return captor.getAllValues();
+    }
+
+    private static CloseableHttpResponse ok() {
+        CloseableHttpResponse response = response(HttpStatus.SC_OK);
+        when(response.getEntity()).thenReturn(new StringEntity(PAGE, StandardCharsets.UTF_8));
+        when(response.getFirstHeader(HttpHeaders.ETAG)).thenReturn(new BasicHeader(HttpHeaders.ETAG, ETAG));
+        when(response.getFirstHeader(HttpHeaders.LAST_MODIFIED)).thenReturn(new BasicHeader(HttpHeaders.LAST_MODIFIED, LAST_MODIFIED));
+
+        return response;
+    }
+
+    private static CloseableHttpResponse notModified() {
+        return response(HttpStatus.SC_NOT_MODIFIED);
+    }
+
+    private static CloseableHttpResponse response(int status) {
+        CloseableHttpResponse response = mock(CloseableHttpResponse.class);
+        when(response.getStatusLine()).thenReturn(new BasicStatusLine(HttpVersion.HTTP_1_1, status, null));
+
+        return response;
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.upstream.ConcurrentPageFetcher;
+import com.example.workaagencyapi.service.upstream.PageResult;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the ConcurrentPageFetcher with a stub page loader.
+ */
+class ConcurrentPageFetcherTest {
+
+    @Mock
+    private ConfigLoader configLoader;
+
+    private ConcurrentPageFetcher concurrentPageFetcher;
+
+    private final List<Integer> consumedPages = new CopyOnWriteArrayList<>();
+
+    private final List<Integer> requestedPages = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(configLoader.getMaxConcurrentPageRequests()).thenReturn(3);
+
+        concurrentPageFetcher = new ConcurrentPageFetcher(configLoader);
+    }
+
+    /**
+     * Test case for pages completing in reverse order.
+     * Ensures that they are still handed to the consumer in page order.
+     */
+    @Test
+    void testFetchPages_ConsumesInPageOrder() {
+        int fetched = concurrentPageFetcher.fetchPages(page -> {
+            sleep(10L * (6 - page));
+
+            return PageResult.fetched(page, vacancies(page));
+        }, 6, this::consume);
+
+        assertEquals(6, fetched);
+        assertEquals(List.of(1, 2, 3, 4, 5, 6), consumedPages);
+    }
+
+    /**
+     * Test case for more pages than `upstream.max.concurrent.pages`.
+     * Ensures that no more requests than that are in flight at any time, and that every page is fetched.
+     */
+    @Test
+    void testFetchPages_BoundsRequestsInFlight() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+
+        int fetched = concurrentPageFetcher.fetchPages(page -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(20);
+            inFlight.decrementAndGet();
+
+            return PageResult.fetched(page, vacancies(page));
+        }, 12, this::consume);
+
+        assertEquals(12, fetched);
+        assertEquals(IntStream.rangeClosed(1, 12).boxed().toList(), consumedPages);
+        assertTrue(maxInFlight.get() <= 3, () -> STR."\{maxInFlight.get()} requests in flight");
+    }
+
+    /**
+     * Test case for an empty page while the requests of the next pages are in flight.
+     * Ensures that the crawl stops there, the outstanding request is cancelled and no further page is requested.
+     */
+    @Test
+    void testFetchPages_EmptyPageCancelsOutstandingRequests() throws InterruptedException {
+        when(configLoader.getMaxConcurrentPageRequests()).thenReturn(2);
+        CountDownLatch thirdStarted = new CountDownLatch(1);
+        CountDownLatch thirdInterrupted = new CountDownLatch(1);
+
+        int fetched = concurrentPageFetcher.fetchPages(page -> {
+            requestedPages.add(page);
+
+            return switch (page) {
+                case 1 -> PageResult.fetched(page, vacancies(page));
+                case 2 -> {
+                    await(thirdStarted);
+                    yield PageResult.fetched(page, List.of());
+                }
+                default -> {
+                    thirdStarted.countDown();
+                    try {
+                        new CountDownLatch(1).await();
+                    } catch (InterruptedException e) {
+                        thirdInterrupted.countDown();
+                    }
+                    yield PageResult.fetched(page, vacancies(page));
+                }
+            };
+        }, 10, this::consume);
+
+        assertEquals(1, fetched);
+        assertEquals(List.of(1), consumedPages);
+        assertTrue(thirdInterrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2, 3), requestedPages.stream().sorted().toList());
+    }
+
+    /**
+     * Test case for an unchanged page followed by a failed one, one request at a time.
+     * Ensures that the unchanged page is skipped without stopping the crawl, and that the failed page stops it.
+     */
+    @Test
+    void testFetchPages_StopsAtFailedPage() {
+        when(configLoader.getMaxConcurrentPageRequests()).thenReturn(1);
+
+        int fetched = concurrentPageFetcher.fetchPages(page -> {
+            requestedPages.add(page);
+
+            return switch (page) {
+                case 2 -> PageResult.notModified(page);
+                case 4 -> throw new IllegalStateException("Upstream unavailable");
+                default -> PageResult.fetched(page, vacancies(page));
+            };
+        }, 10, this::consume);
+
+        assertEquals(2, fetched);
+        assertEquals(List.of(1, 3), consumedPages);
+        assertEquals(List.of(1, 2, 3, 4), requestedPages);
+    }
+
+    private void consume(List<VacancyTable> vacancies) {
+        consumedPages.add(Integer.parseInt(vacancies.getFirst().getSlug()));
+    }
+
+    private static List<VacancyTable> vacancies(int page) {
+        return List.of(VacancyTable.builder().slug(String.valueOf(page)).build());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.api.VacanciesController;
+import com.example.workaagencyapi.api.VaryAcceptAdvice;
+import com.example.workaagencyapi.config.AppConfig;
+import com.example.workaagencyapi.dto.SearchHit;
+import com.example.workaagencyapi.service.VacancyService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Tests of the content negotiation of the VacanciesController between JSON, Smile, CBOR and event streams.
+ */
+class ContentNegotiationTest {
+
+    private static final Map<String, Integer> CITY_COUNTS = new LinkedHashMap<>(Map.of("Berlin", 12));
+
+    @InjectMocks
+    private VacanciesController vacanciesController;
+
+    @Mock
+    private VacancyService vacancyService;
+
+    private final AppConfig appConfig = new AppConfig();
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(vacancyService.getVacanciesCountByCity()).thenReturn(CITY_COUNTS);
+        when(vacancyService.searchVacancies(anyString(), anyInt())).thenReturn(List.of(
+                new SearchHit(7, "Java Developer", "Acme", "Berlin", "https://example.com/7", 1.5f)));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(vacanciesController)
+                .setMessageConverters(
+                        new MappingJackson2HttpMessageConverter(appConfig.objectMapper()),
+                        appConfig.smileHttpMessageConverter(),
+                        appConfig.cborHttpMessageConverter())
+                .setControllerAdvice(new VaryAcceptAdvice())
+                .build();
+    }
+
+    /**
+     * Test case for a client without preference.
+     * Ensures that JSON is returned.
+     */
+    @Test
+    void testDefaultsToJson() throws Exception {
+        MockHttpServletResponse response = perform("/api/v1/vacancies/city-counts", MediaType.ALL_VALUE);
+
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        assertEquals(CITY_COUNTS, decode(appConfig.objectMapper(), response));
+    }
+
+    /**
+     * Test case for clients accepting a binary format.
+     * Ensures that the response is written in that format and decodes to the same value.
+     */
+    @Test
+    void testBinaryFormats() throws Exception {
+        MockHttpServletResponse smile = perform("/api/v1/vacancies/city-counts", AppConfig.APPLICATION_SMILE_VALUE);
+        MockHttpServletResponse cbor = perform("/api/v1/vacancies/city-counts", MediaType.APPLICATION_CBOR_VALUE);
+
+        assertEquals(AppConfig.APPLICATION_SMILE_VALUE, smile.getContentType());
+        assertEquals(CITY_COUNTS, decode(appConfig.smileHttpMessageConverter().getObjectMapper(), smile));
+        assertEquals(MediaType.APPLICATION_CBOR_VALUE, cbor.getContentType());
+        assertEquals(CITY_COUNTS, decode(appConfig.cborHttpMessageConverter().getObjectMapper(), cbor));
+    }
+
+    /**
+     * Test case for responses negotiated from the Accept header.
+     * Ensures that each of them carries `Vary: Accept` once, so caches do not replay one format to another client.
+     */
+    @Test
+    void testNegotiatedResponsesVaryOnAccept() throws Exception {
+        MockHttpServletResponse json = perform("/api/v1/vacancies/city-counts", MediaType.APPLICATION_JSON_VALUE);
+        MockHttpServletResponse cbor = perform("/api/v1/vacancies/search?q=java", MediaType.APPLICATION_CBOR_VALUE);
+
+        assertEquals(List.of("Accept"), json.getHeaders("Vary"));
+        assertEquals(List.of("Accept"), cbor.getHeaders("Vary"));
+    }
+
+    /**
+     * Test case for a record response in CBOR.
+     * Ensures that all its fields are written.
+     */
+    @Test
+    void testSearchHitsAsCbor() throws Exception {
+        MockHttpServletResponse response = perform("/api/v1/vacancies/search?q=java", MediaType.APPLICATION_CBOR_VALUE);
+
+        List<SearchHit> hits = appConfig.cborHttpMessageConverter().getObjectMapper()
+                .readValue(response.getContentAsByteArray(), new TypeReference<>() {
+                });
+
+        assertEquals("Java Developer", hits.getFirst().title());
+        assertEquals(1.5f, hits.getFirst().score());
+    }
+
+    /**
+     * Test case for the vacancy stream.
+     * Ensures that it is served as an asynchronous event stream despite the formats declared by the controller.
+     */
+    @Test
+    void testStreamProducesEventStream() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(vacancyService.streamVacancies(42)).thenReturn(emitter);
+
+        MvcResult result = mockMvc.perform(get("/api/v1/vacancies/stream")
+                .header("Accept", MediaType.TEXT_EVENT_STREAM_VALUE)
+                .header("Last-Event-ID", "42")).andReturn();
+        emitter.send(SseEmitter.event().id("43").name("vacancy").data("{}"));
+
+        assertTrue(result.getRequest().isAsyncStarted());
+        assertEquals(MediaType.TEXT_EVENT_STREAM_VALUE, result.getResponse().getContentType());
+        assertEquals("id:43\nevent:vacancy\ndata:{}\n\n", result.getResponse().getContentAsString());
+    }
+
+    private MockHttpServletResponse perform(String uri, String accept) throws Exception {
+        return mockMvc.perform(get(uri).header("Accept", accept)).andReturn().getResponse();
+    }
+
+    private static Map<String, Integer> decode(ObjectMapper objectMapper, MockHttpServletResponse response) throws Exception {
+        return objectMapper.readValue(response.getContentAsByteArray(), new TypeReference<>() {
+        });
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.repositories.DescriptionStore;
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.description.DescriptionMigration;
+import com.example.workaagencyapi.service.lease.IngestionLease;
+import com.example.workaagencyapi.service.lease.IngestionLeaseChangedEvent;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests of the DescriptionStore against an embedded H2 database.
+ */
+class DescriptionStoreTest {
+
+    private static final String DESCRIPTION = "<p>We are looking for a Java developer to join our team.</p>".repeat(20);
+
+    @Mock
+    private ConfigLoader configLoader;
+
+    @Mock
+    private IngestionLease ingestionLease;
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(configLoader.getDescriptionStorage()).thenReturn("compressed");
+        when(configLoader.getDescriptionCacheSize()).thenReturn(16);
+
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE vacancies (id INT PRIMARY KEY, description TEXT NOT NULL)");
+        new ResourceDatabasePopulator(new ClassPathResource("db/vacancy-descriptions.sql"),
+                new ClassPathResource("db/migration/V3__vacancy_description_nullable.sql")).execute(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    /**
+     * Test case for the compression of a description.
+     * Ensures that the description is restored exactly, non-ASCII text included, and that it shrinks.
+     */
+    @Test
+    void testCompressRoundTrip() {
+        String description = DESCRIPTION + "<p>Gehalt: 60.000 € – Bewerbung über unser Portal.</p>";
+
+        byte[] compressed = DescriptionStore.compress(description);
+
+        assertEquals(description, DescriptionStore.decompress(compressed, description.length()));
+        assertTrue(compressed.length < description.length() / 5);
+    }
+
+    /**
+     * Test case for newly saved vacancies in compressed mode.
+     * Ensures that their descriptions are loaded back from the side table, one by one or in bulk.
+     */
+    @Test
+    void testSaveAllAndLoad() {
+        DescriptionStore store = store();
+
+        store.saveAll(List.of(vacancy(1, DESCRIPTION), vacancy(2, "<p>Second</p>")));
+
+        assertEquals(DESCRIPTION, store.withDescription(vacancy(1, null)).getDescription());
+
+        List<VacancyTable> loaded = List.of(vacancy(1, null), vacancy(2, null), vacancy(3, "<p>Inline</p>"));
+        store.fillAll(loaded);
+
+        assertEquals(List.of(DESCRIPTION, "<p>Second</p>", "<p>Inline</p>"), loaded.stream().map(VacancyTable::getDescription).toList());
+    }
+
+    /**
+     * Test case for the migration of inline descriptions.
+     * Ensures that every description is moved in batches, the inline column is cleared, and the text is kept.
+     */
+    @Test
+    void testMigrateBatch_MovesInlineDescriptions() {
+        for (int id = 1; id <= 5; id++) {
+            jdbcTemplate.update("INSERT INTO vacancies (id, description) VALUES (?, ?)", id, STR."\{DESCRIPTION}\{id}");
+        }
+        DescriptionStore store = store();
+
+        assertEquals(2, store.migrateBatch(0, 2));
+        assertEquals(4, store.migrateBatch(2, 2));
+        assertEquals(5, store.migrateBatch(4, 2));
+        assertEquals(0, store.migrateBatch(5, 2));
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vacancies WHERE description IS NOT NULL", Integer.class));
+        assertEquals(STR."\{DESCRIPTION}4", store.withDescription(vacancy(4, null)).getDescription());
+    }
+
+    /**
+     * Test case for an instance that acquires the ingestion lease after startup.
+     * Ensures that the migration is not run by a follower and runs in the background once the lease is acquired.
+     */
+    @Test
+    void testMigration_StartsWhenLeaseAcquired() throws InterruptedException {
+        for (int id = 1; id <= 3; id++) {
+            jdbcTemplate.update("INSERT INTO vacancies (id, description) VALUES (?, ?)", id, DESCRIPTION);
+        }
+        DescriptionMigration migration = new DescriptionMigration(store(), ingestionLease);
+
+        try {
+            migration.runWhenReady();
+            assertEquals(3, inlineCount());
+
+            when(ingestionLease.isLeader()).thenReturn(true);
+            migration.onLeaseChanged(new IngestionLeaseChangedEvent("instance-1", true));
+
+            long deadline = System.currentTimeMillis() + 5000;
+
+            while (inlineCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(0, inlineCount());
+            assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vacancy_descriptions", Integer.class));
+        } finally {
+            migration.shutdown();
+        }
+    }
+
+    /**
+     * Test case for the inline storage mode.
+     * Ensures that nothing is written to the side table.
+     */
+    @Test
+    void testSaveAll_InlineModeWritesNothing() {
+        when(configLoader.getDescriptionStorage()).thenReturn("inline");
+
+        store().saveAll(List.of(vacancy(1, DESCRIPTION)));
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vacancy_descriptions", Integer.class));
+    }
+
+    private int inlineCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vacancies WHERE description IS NOT NULL", Integer.class);
+    }
+
+    private DescriptionStore store() {
+        return new DescriptionStore(jdbcTemplate, new DataSourceTransactionManager(database), configLoader);
+    }
+
+    private static VacancyTable vacancy(int id, String description) {
+        return VacancyTable.builder().id(id).description(description).build();
+    }
+
+}
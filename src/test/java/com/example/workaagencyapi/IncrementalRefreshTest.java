@@ -0,0 +1,271 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.ingestion.IngestionWatermark;
+import com.example.workaagencyapi.service.lease.IngestionLease;
+import com.example.workaagencyapi.service.upstream.IncrementalPageWalker;
+import com.example.workaagencyapi.service.upstream.PageResult;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+import java.util.stream.LongStream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests of the incremental refresh: the IncrementalPageWalker and the IngestionWatermark, persisted in an
+ * embedded H2 database.
+ */
+class IncrementalRefreshTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    @Mock
+    private ConfigLoader configLoader;
+
+    @Mock
+    private IngestionLease ingestionLease;
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Integer> fetchedPages = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(configLoader.getRefreshMaxPages()).thenReturn(10);
+        when(ingestionLease.isLeader()).thenReturn(true);
+
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("db/ingestion-state.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE vacancies (id INT PRIMARY KEY, url VARCHAR(255), created_at BIGINT)");
+        jdbcTemplate.update("INSERT INTO vacancies VALUES (1, 'https://example.com/100', 100), (2, 'https://example.com/101', 101)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    /**
+     * Test case for the first start.
+     * Ensures that the watermark is seeded from the newest stored vacancy and the walk stops on the page reaching it.
+     */
+    @Test
+    void testWalkStopsAtSeededWatermark() {
+        IngestionWatermark watermark = watermark();
+        List<VacancyTable> staged = new ArrayList<>();
+
+        int found = new IncrementalPageWalker(configLoader, watermark).walk(feed(106), staged::addAll);
+
+        assertEquals(101, watermark.saved().createdAt());
+        assertEquals(5, found);
+        assertEquals(List.of(106L, 105L, 104L, 103L, 102L), staged.stream().map(VacancyTable::getCreated_at).toList());
+        assertEquals(List.of(1, 2), fetchedPages);
+    }
+
+    /**
+     * Test case for a refresh before the staged vacancies are saved.
+     * Ensures that they are not fetched again, and a single page is requested.
+     */
+    @Test
+    void testNextWalkResumesFromFetchedVacancies() {
+        IngestionWatermark watermark = watermark();
+        IncrementalPageWalker walker = new IncrementalPageWalker(configLoader, watermark);
+
+        walker.walk(feed(106), _ -> {});
+        fetchedPages.clear();
+
+        assertEquals(0, walker.walk(feed(106), _ -> {}));
+        assertEquals(List.of(1), fetchedPages);
+    }
+
+    /**
+     * Test case for a restart.
+     * Ensures that the saved watermark is persisted and loaded, while a fetched but unsaved one is not.
+     */
+    @Test
+    void testSavedWatermarkSurvivesRestart() {
+        IngestionWatermark watermark = watermark();
+        new IncrementalPageWalker(configLoader, watermark).walk(feed(106), _ -> {});
+        watermark.onVacanciesSaved(List.of(vacancy(103), vacancy(102)));
+
+        IngestionWatermark restarted = watermark();
+
+        assertEquals(103, restarted.current().createdAt());
+        assertEquals("https://example.com/103", restarted.current().url());
+
+        restarted.onVacanciesSaved(List.of(vacancy(102)));
+        assertEquals(103, watermark().saved().createdAt());
+    }
+
+    /**
+     * Test case for an instance that does not hold the ingestion lease.
+     * Ensures that its saved watermark moves in memory only, leaving the persisted one to the leader.
+     */
+    @Test
+    void testFollowerDoesNotPersistWatermark() {
+        when(ingestionLease.isLeader()).thenReturn(false);
+        IngestionWatermark watermark = watermark();
+
+        watermark.onVacanciesSaved(List.of(vacancy(103)));
+
+        assertEquals(103, watermark.saved().createdAt());
+        assertEquals(101, watermark().saved().createdAt());
+    }
+
+    /**
+     * Test case for an unchanged first page.
+     * Ensures that the walk stops without fetching any further page.
+     */
+    @Test
+    void testUnchangedFirstPageStopsWalk() {
+        IntFunction<PageResult> unchanged = page -> {
+            fetchedPages.add(page);
+
+            return PageResult.notModified(page);
+        };
+
+        assertEquals(0, new IncrementalPageWalker(configLoader, watermark()).walk(unchanged, _ -> {}));
+        assertEquals(List.of(1), fetchedPages);
+    }
+
+    /**
+     * Test case for more new vacancies than the page limit allows, while more are published between walks.
+     * Ensures that a walk stopping at `refresh.max.pages` leaves the watermark in place, and that the next walks
+     * resume from the page it stopped at until every vacancy down to the watermark is fetched.
+     */
+    @Test
+    void testWalkCappedByMaxPages_ResumesWithoutLosingVacancies() {
+        when(configLoader.getRefreshMaxPages()).thenReturn(2);
+        IngestionWatermark watermark = watermark();
+        IncrementalPageWalker walker = new IncrementalPageWalker(configLoader, watermark);
+        Set<Long> staged = new TreeSet<>();
+
+        assertEquals(6, walker.walk(feed(130), vacancies -> vacancies.forEach(vacancy -> staged.add(vacancy.getCreated_at()))));
+        assertEquals(List.of(1, 2), fetchedPages);
+        assertEquals(101, watermark.current().createdAt());
+
+        fetchedPages.clear();
+        walker.walk(feed(133), vacancies -> vacancies.forEach(vacancy -> staged.add(vacancy.getCreated_at())));
+        assertEquals(List.of(3, 4), fetchedPages);
+
+        for (int walks = 0; walks < 10 && watermark.current().createdAt() < 133; walks++) {
+            walker.walk(feed(133), vacancies -> vacancies.forEach(vacancy -> staged.add(vacancy.getCreated_at())));
+        }
+
+        assertEquals(LongStream.rangeClosed(102, 133).boxed().toList(), List.copyOf(staged));
+        assertEquals(133, watermark.current().createdAt());
+    }
+
+    /**
+     * Test case for a page failing in the middle of a walk.
+     * Ensures that the watermark stays in place and the next walk retries the failed page.
+     */
+    @Test
+    void testFailedPage_IsRetriedByNextWalk() {
+        IngestionWatermark watermark = watermark();
+        IncrementalPageWalker walker = new IncrementalPageWalker(configLoader, watermark);
+        IntFunction<PageResult> feed = feed(106);
+        List<VacancyTable> staged = new ArrayList<>();
+
+        walker.walk(page -> page == 2 ? PageResult.failed(page) : feed.apply(page), staged::addAll);
+        assertEquals(101, watermark.current().createdAt());
+
+        fetchedPages.clear();
+        walker.walk(feed, staged::addAll);
+
+        assertEquals(List.of(2), fetchedPages);
+        assertEquals(List.of(106L, 105L, 104L, 103L, 102L), staged.stream().map(VacancyTable::getCreated_at).toList());
+        assertEquals(106, watermark.current().createdAt());
+    }
+
+    /**
+     * Test case for staged vacancies that are lost before they are saved.
+     * Ensures that the rewound walk fetches them again instead of stopping at the fetched mark.
+     */
+    @Test
+    void testRewind_RefetchesLostVacancies() {
+        IngestionWatermark watermark = watermark();
+        IncrementalPageWalker walker = new IncrementalPageWalker(configLoader, watermark);
+        List<VacancyTable> staged = new ArrayList<>();
+
+        walker.walk(feed(106), staged::addAll);
+        assertEquals(106, watermark.current().createdAt());
+
+        walker.rewind();
+        assertEquals(101, watermark.current().createdAt());
+
+        staged.clear();
+        walker.walk(feed(106), staged::addAll);
+
+        assertEquals(List.of(106L, 105L, 104L, 103L, 102L), staged.stream().map(VacancyTable::getCreated_at).toList());
+        assertEquals(106, watermark.current().createdAt());
+    }
+
+    /**
+     * Test case for vacancies lost while the walk that fetched them is still running.
+     * Ensures that the walk does not move the watermark past them.
+     */
+    @Test
+    void testRewindDuringWalk_KeepsWatermark() {
+        IngestionWatermark watermark = watermark();
+        IncrementalPageWalker walker = new IncrementalPageWalker(configLoader, watermark);
+
+        walker.walk(feed(106), _ -> walker.rewind());
+
+        assertEquals(101, watermark.current().createdAt());
+    }
+
+    private IngestionWatermark watermark() {
+        IngestionWatermark watermark = new IngestionWatermark(jdbcTemplate, ingestionLease);
+        watermark.initialize();
+
+        return watermark;
+    }
+
+    /**
+     * @return an upstream feed of vacancies created from {@code newest} down to 100, newest first
+     */
+    private IntFunction<PageResult> feed(long newest) {
+        return page -> {
+            fetchedPages.add(page);
+            long first = newest - (long) (page - 1) * PAGE_SIZE;
+
+            return PageResult.fetched(page, LongStream.iterate(first, createdAt -> createdAt - 1)
+                    .limit(PAGE_SIZE)
+                    .filter(createdAt -> createdAt >= 100)
+                    .mapToObj(IncrementalRefreshTest::vacancy)
+                    .toList());
+        };
+    }
+
+    private static VacancyTable vacancy(long createdAt) {
+        return VacancyTable.builder().url(STR."https://example.com/\{createdAt}").created_at(createdAt).build();
+    }
+
+}
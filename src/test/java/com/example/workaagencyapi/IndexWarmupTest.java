@@ -0,0 +1,117 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.service.ingestion.IndexWarmup;
+import com.example.workaagencyapi.service.ingestion.WarmupHealthIndicator;
+import com.example.workaagencyapi.service.ingestion.WarmupLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the IndexWarmup and its WarmupHealthIndicator.
+ */
+class IndexWarmupTest {
+
+    @Mock
+    private VacanciesRepository vacanciesRepository;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final List<Integer> loadedUpTo = new CopyOnWriteArrayList<>();
+
+    private IndexWarmup indexWarmup;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(vacanciesRepository.findMaxId()).thenReturn(42);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        indexWarmup.shutdown();
+    }
+
+    /**
+     * Test case for the loaders of a starting application.
+     * Ensures that they run in the background up to the highest stored id, and that the readiness component is
+     * OUT_OF_SERVICE until all of them have finished.
+     */
+    @Test
+    void testLoadersRunInBackground_ReadyOnceLoaded() {
+        indexWarmup = new IndexWarmup(vacanciesRepository, List.of(new BlockingLoader(), new QuickLoader()));
+        WarmupHealthIndicator healthIndicator = new WarmupHealthIndicator(indexWarmup);
+
+        indexWarmup.start();
+
+        assertFalse(indexWarmup.isLoaded());
+        assertEquals(Status.OUT_OF_SERVICE, healthIndicator.health().getStatus());
+
+        release.countDown();
+        indexWarmup.awaitLoaded();
+
+        Health health = healthIndicator.health();
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(2, health.getDetails().size());
+        assertEquals(List.of(42, 42), loadedUpTo);
+        assertEquals(42, indexWarmup.getMaxId());
+    }
+
+    /**
+     * Test case for a loader that fails.
+     * Ensures that the warmup still finishes, so the change feed is not held back, and is reported DOWN.
+     */
+    @Test
+    void testFailedLoader_IsReportedDown() {
+        WarmupLoader failing = _ -> {
+            throw new IllegalStateException("database unavailable");
+        };
+        indexWarmup = new IndexWarmup(vacanciesRepository, List.of(failing));
+
+        indexWarmup.start();
+        indexWarmup.awaitLoaded();
+
+        Health health = new WarmupHealthIndicator(indexWarmup).health();
+        assertEquals(Status.DOWN, health.getStatus());
+        assertTrue(health.getDetails().values().iterator().next().toString().contains("database unavailable"));
+    }
+
+    private class BlockingLoader implements WarmupLoader {
+
+        @Override
+        public void load(int maxId) {
+            loadedUpTo.add(maxId);
+
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private class QuickLoader implements WarmupLoader {
+
+        @Override
+        public void load(int maxId) {
+            loadedUpTo.add(maxId);
+        }
+    }
+
+}
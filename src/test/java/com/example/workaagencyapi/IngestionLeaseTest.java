@@ -0,0 +1,240 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.service.lease.IngestionLeaseChangedEvent;
+import com.example.workaagencyapi.service.lease.JdbcIngestionLease;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the JdbcIngestionLease against an embedded H2 database, with several simulated instances.
+ */
+class IngestionLeaseTest {
+
+    private static final long TTL = 30_000;
+
+    private EmbeddedDatabase database;
+
+    private MutableClock clock;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private List<JdbcIngestionLease> instances;
+
+    private final List<IngestionLeaseChangedEvent> events = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("db/ingestion-lease.sql")
+                .build();
+        clock = new MutableClock();
+
+        jdbcTemplate = new JdbcTemplate(database);
+        instances = IntStream.range(0, 3)
+                .mapToObj(i -> lease(jdbcTemplate, TTL / 3, STR."instance-\{i}"))
+                .toList();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    /**
+     * Test case for instances starting at the same time.
+     * Ensures that exactly one of them acquires the lease.
+     */
+    @Test
+    void testExactlyOneInstanceLeads() throws Exception {
+        List<Callable<Boolean>> heartbeats = instances.stream().<Callable<Boolean>>map(lease -> lease::heartbeat).toList();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(instances.size())) {
+            long leaders = 0;
+            for (Future<Boolean> result : executor.invokeAll(heartbeats)) {
+                leaders += result.get() ? 1 : 0;
+            }
+
+            assertEquals(1, leaders);
+        }
+        assertEquals(1, instances.stream().filter(JdbcIngestionLease::isLeader).count());
+    }
+
+    /**
+     * Test case for a leader that keeps heartbeating.
+     * Ensures that it keeps the lease past the TTL and no other instance takes it over.
+     */
+    @Test
+    void testHeartbeatRenewsLease() {
+        assertTrue(instances.get(0).heartbeat());
+
+        for (int i = 0; i < 5; i++) {
+            clock.advance(TTL / 3);
+
+            assertTrue(instances.get(0).heartbeat());
+            assertFalse(instances.get(1).heartbeat());
+            assertFalse(instances.get(2).heartbeat());
+        }
+    }
+
+    /**
+     * Test case for a leader that stops heartbeating.
+     * Ensures that it steps down locally once the lease expires and another instance takes over.
+     */
+    @Test
+    void testFailoverAfterLeaseExpires() {
+        assertTrue(instances.get(0).heartbeat());
+        assertFalse(instances.get(1).heartbeat());
+
+        clock.advance(TTL - 1);
+        assertTrue(instances.get(0).isLeader());
+        assertFalse(instances.get(1).heartbeat());
+
+        clock.advance(2);
+        assertFalse(instances.get(0).isLeader());
+        assertTrue(instances.get(1).heartbeat());
+        assertFalse(instances.get(0).heartbeat());
+    }
+
+    /**
+     * Test case for an instance started with scheduled heartbeats.
+     * Ensures that its own heartbeat thread keeps renewing the lease past the TTL.
+     */
+    @Test
+    void testScheduledHeartbeatsRenewLease() throws InterruptedException {
+        JdbcIngestionLease lease = lease(jdbcTemplate, 10, "instance-3");
+        lease.initialize();
+
+        try {
+            for (int i = 0; i < 3; i++) {
+                clock.advance(TTL / 2);
+                long renewedAfter = clock.millis() + TTL / 2;
+
+                for (int wait = 0; wait < 500 && expiresAt() <= renewedAfter; wait++) {
+                    Thread.sleep(10);
+                }
+
+                assertTrue(lease.isLeader());
+            }
+            assertFalse(instances.get(0).heartbeat());
+        } finally {
+            lease.release();
+        }
+    }
+
+    /**
+     * Test case for a write fenced by a leader whose lease was taken over.
+     * Ensures that the fence passes while the instance holds the lease and fails once another instance took it.
+     */
+    @Test
+    void testFenceFailsAfterTakeover() {
+        assertTrue(instances.get(0).heartbeat());
+        instances.get(0).fence();
+
+        clock.advance(TTL + 1);
+        assertTrue(instances.get(1).heartbeat());
+
+        assertThrows(IllegalStateException.class, () -> instances.get(0).fence());
+        assertFalse(instances.get(0).isLeader());
+        instances.get(1).fence();
+    }
+
+    /**
+     * Test case for a leader that shuts down.
+     * Ensures that another instance takes the lease over without waiting for it to expire.
+     */
+    @Test
+    void testReleaseHandsLeaseOver() {
+        assertTrue(instances.get(0).heartbeat());
+
+        instances.get(0).release();
+
+        assertFalse(instances.get(0).isLeader());
+        assertTrue(instances.get(2).heartbeat());
+    }
+
+    /**
+     * Test case for a lease that changes hands.
+     * Ensures that each instance publishes one event when it acquires the lease and one when it loses it,
+     * including a lease that expired without a successful renewal.
+     */
+    @Test
+    void testLeadershipChangesArePublished() {
+        instances.get(0).heartbeat();
+        instances.get(0).heartbeat();
+        instances.get(1).heartbeat();
+
+        clock.advance(TTL + 1);
+        instances.get(1).heartbeat();
+        instances.get(0).heartbeat();
+
+        assertEquals(List.of(
+                new IngestionLeaseChangedEvent("instance-0", true),
+                new IngestionLeaseChangedEvent("instance-1", true),
+                new IngestionLeaseChangedEvent("instance-0", false)), events);
+    }
+
+    /**
+     * Clock whose time is moved forward by the test.
+     */
+    private JdbcIngestionLease lease(JdbcTemplate jdbcTemplate, long heartbeatInterval, String holderId) {
+        return new JdbcIngestionLease(jdbcTemplate, event -> events.add((IngestionLeaseChangedEvent) event), TTL,
+                heartbeatInterval, clock, holderId);
+    }
+
+    private long expiresAt() {
+        return jdbcTemplate.queryForObject("SELECT expires_at FROM ingestion_lease", Long.class);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant now = Instant.parse("2024-08-01T00:00:00Z");
+
+        void advance(long millis) {
+            now = now.plusMillis(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.service.ingestion.IngestionMetrics;
+import com.example.workaagencyapi.service.upstream.ArbeitnowClient;
+import com.example.workaagencyapi.service.upstream.PageResult;
+import com.example.workaagencyapi.service.upstream.VacancyStreamParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the upstream fetch and parse meters, with the ArbeitnowClient routed to a local stub of the job board API.
+ */
+class IngestionMetricsTest {
+
+    private static final String PAGE = "{\"data\":[{\"slug\":\"a\",\"url\":\"https://example.com/a\",\"location\":\"Berlin\"}," +
+            "{\"slug\":\"b\",\"url\":\"https://example.com/b\",\"location\":\"Munich\"}],\"meta\":{\"current_page\":1}}";
+
+    private HttpServer server;
+
+    private CloseableHttpClient httpClient;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ArbeitnowClient arbeitnowClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        byte[] page = PAGE.getBytes(StandardCharsets.UTF_8);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/job-board-api", exchange -> {
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+
+                return;
+            }
+
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            exchange.sendResponseHeaders(200, page.length);
+
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(page);
+            }
+        });
+        server.start();
+
+        HttpHost stub = new HttpHost("localhost", server.getAddress().getPort(), "http");
+        httpClient = HttpClients.custom().setRoutePlanner((_, _, _) -> new HttpRoute(stub)).build();
+
+        meterRegistry = new SimpleMeterRegistry();
+        arbeitnowClient = new ArbeitnowClient(httpClient, new VacancyStreamParser(new ObjectMapper()),
+                new IngestionMetrics(meterRegistry));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    /**
+     * Test case for a downloaded page.
+     * Ensures that the fetch latency, parse time and body size are recorded.
+     */
+    @Test
+    void testFetchedPageIsMeasured() {
+        PageResult result = arbeitnowClient.fetchPage(1);
+
+        assertEquals(2, result.vacancies().size());
+        assertEquals(1, meterRegistry.get("upstream.page.fetch").tag("status", "fetched").timer().count());
+        assertEquals(1, meterRegistry.get("upstream.page.parse").timer().count());
+        assertEquals(PAGE.length(), meterRegistry.get("upstream.page.bytes").summary().totalAmount());
+    }
+
+    /**
+     * Test case for a page unchanged since the last fetch.
+     * Ensures that it is recorded under its own status and not counted as parsed.
+     */
+    @Test
+    void testNotModifiedPageIsMeasuredSeparately() {
+        arbeitnowClient.fetchPage(1);
+        PageResult result = arbeitnowClient.fetchPage(1);
+
+        assertEquals(PageResult.Status.NOT_MODIFIED, result.status());
+        assertEquals(1, meterRegistry.get("upstream.page.fetch").tag("status", "not_modified").timer().count());
+        assertEquals(1, meterRegistry.get("upstream.page.parse").timer().count());
+    }
+
+    /**
+     * Test case for the save stage counters.
+     * Ensures that each outcome is counted under its own tag.
+     */
+    @Test
+    void testSaveOutcomesAreCounted() {
+        IngestionMetrics ingestionMetrics = new IngestionMetrics(meterRegistry);
+
+        ingestionMetrics.recordSaved(3, 1, 6);
+
+        assertEquals(3, meterRegistry.get("ingestion.vacancies").tag("outcome", "deduped").counter().count());
+        assertEquals(1, meterRegistry.get("ingestion.vacancies").tag("outcome", "conflict").counter().count());
+        assertEquals(6, meterRegistry.get("ingestion.vacancies").tag("outcome", "inserted").counter().count());
+    }
+
+}
@@ -0,0 +1,204 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.repositories.DescriptionStore;
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.repositories.VacancyBatchWriter;
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.dedup.NearDuplicateDetector;
+import com.example.workaagencyapi.service.lease.IngestionLease;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the NearDuplicateDetector.
+ */
+class NearDuplicateDetectorTest {
+
+    @Mock
+    private VacanciesRepository vacanciesRepository;
+
+    @Mock
+    private DescriptionStore descriptionStore;
+
+    @Mock
+    private VacancyBatchWriter vacancyBatchWriter;
+
+    @Mock
+    private IngestionLease ingestionLease;
+
+    @Mock
+    private ConfigLoader configLoader;
+
+    private final List<VacancyTable> stored = new ArrayList<>();
+
+    private NearDuplicateDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(configLoader.getNearDuplicateThreshold()).thenReturn(0.8);
+        when(vacanciesRepository.findByIdGreaterThanOrderByIdAsc(anyInt(), any(Limit.class))).thenAnswer(invocation -> {
+            int after = invocation.getArgument(0);
+            return stored.stream().filter(v -> v.getId() > after).toList();
+        });
+
+        detector = new NearDuplicateDetector(vacanciesRepository, descriptionStore, vacancyBatchWriter, ingestionLease, configLoader);
+    }
+
+    /**
+     * Test case for a vacancy reposted with a slightly edited description.
+     * Ensures that the repost is marked as a duplicate of the original and an unrelated vacancy is not.
+     */
+    @Test
+    void testDetect_MarksRepost() {
+        detector.load(Integer.MAX_VALUE);
+        VacancyTable original = vacancy(1, "Java Developer", "Acme", description(0, -1));
+        VacancyTable repost = vacancy(2, "Java Developer", "Acme Recruiting", description(0, 40));
+        VacancyTable unrelated = vacancy(3, "Java Developer", "Initech", description(1_000, -1));
+
+        Map<Integer, Integer> marked = detector.detect(List.of(original, repost, unrelated));
+
+        assertEquals(Map.of(2, 1), marked);
+        assertEquals(1, repost.getDuplicate_of());
+        assertNull(original.getDuplicate_of());
+        assertNull(unrelated.getDuplicate_of());
+    }
+
+    /**
+     * Test case for vacancies delivered again, e.g. by the change feed after the save.
+     * Ensures that each vacancy is processed once, so that an original never becomes its own duplicate.
+     */
+    @Test
+    void testDetect_ProcessesEachVacancyOnce() {
+        detector.load(Integer.MAX_VALUE);
+        VacancyTable original = vacancy(1, "Java Developer", "Acme", description(0, -1));
+
+        detector.detect(List.of(original));
+        Map<Integer, Integer> marked = detector.detect(List.of(original));
+
+        assertTrue(marked.isEmpty());
+        assertNull(original.getDuplicate_of());
+        assertEquals(1, detector.getProcessedCount());
+    }
+
+    /**
+     * Test case for duplicates stored before detection was enabled.
+     * Ensures that they are found at startup and written by the instance holding the lease.
+     */
+    @Test
+    void testLoad_WritesStoredDuplicatesOnLeader() {
+        storeDuplicates();
+        when(ingestionLease.isLeader()).thenReturn(true);
+
+        detector.load(Integer.MAX_VALUE);
+
+        verify(vacancyBatchWriter).writeDuplicateOf(Map.of(2, 1));
+    }
+
+    /**
+     * Test case for duplicates stored before detection was enabled, on an instance not holding the lease.
+     * Ensures that nothing is written.
+     */
+    @Test
+    void testLoad_DoesNotWriteWithoutLease() {
+        storeDuplicates();
+        when(ingestionLease.isLeader()).thenReturn(false);
+
+        detector.load(Integer.MAX_VALUE);
+
+        verify(vacancyBatchWriter, never()).writeDuplicateOf(any());
+    }
+
+    /**
+     * Test case for vacancies stored after the id the warmup loads up to.
+     * Ensures that they are left to the change feed and not processed by the load.
+     */
+    @Test
+    void testLoad_StopsAtMaxId() {
+        storeDuplicates();
+
+        detector.load(1);
+
+        assertEquals(1, detector.getProcessedCount());
+        verify(vacancyBatchWriter, never()).writeDuplicateOf(any());
+    }
+
+    /**
+     * Test case for vacancies saved while the stored ones are still loading.
+     * Ensures that they are classified only after the load, so that reposts of stored vacancies are found.
+     */
+    @Test
+    void testDetect_WaitsForLoad() throws Exception {
+        stored.add(vacancy(1, "Java Developer", "Acme", description(0, -1)));
+        VacancyTable repost = vacancy(2, "Java Developer", "Acme Recruiting", description(0, 40));
+
+        CompletableFuture<Map<Integer, Integer>> marked = CompletableFuture.supplyAsync(() -> detector.detect(List.of(repost)));
+        Thread.sleep(100);
+        assertFalse(marked.isDone());
+
+        detector.load(1);
+
+        assertEquals(Map.of(2, 1), marked.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Test case for ids above 43 million, whose sketch offsets overflowed an int when indexed by id.
+     * Ensures that reposts are still found.
+     */
+    @Test
+    void testDetect_LargeIds() {
+        detector.load(0);
+        VacancyTable original = vacancy(50_000_000, "Java Developer", "Acme", description(0, -1));
+        VacancyTable repost = vacancy(50_000_001, "Java Developer", "Acme Recruiting", description(0, 40));
+
+        assertEquals(Map.of(50_000_001, 50_000_000), detector.detect(List.of(original, repost)));
+    }
+
+    /**
+     * Stores an original, an unmarked repost and a repost already marked.
+     */
+    private void storeDuplicates() {
+        stored.add(vacancy(1, "Java Developer", "Acme", description(0, -1)));
+        stored.add(vacancy(2, "Java Developer", "Acme", description(0, 10)));
+
+        VacancyTable marked = vacancy(3, "Java Developer", "Acme", description(0, 20));
+        marked.setDuplicate_of(1);
+        stored.add(marked);
+    }
+
+    /**
+     * Builds a description of 80 distinct words, optionally with one of them replaced.
+     */
+    private static String description(int firstWord, int replacedWord) {
+        return IntStream.range(0, 80)
+                .mapToObj(i -> i == replacedWord ? "changed" : STR."word\{firstWord + i}")
+                .collect(Collectors.joining(" ", "<p>", "</p>"));
+    }
+
+    private static VacancyTable vacancy(int id, String title, String companyName, String description) {
+        return VacancyTable.builder().id(id).title(title).company_name(companyName).description(description)
+                .url(STR."https://example.com/\{id}").location("Berlin").build();
+    }
+
+}
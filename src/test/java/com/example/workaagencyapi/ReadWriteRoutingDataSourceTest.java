@@ -0,0 +1,182 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.config.ReadWriteRoutingDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the ReadWriteRoutingDataSource with two embedded H2 databases standing for the primary and the replica.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+
+    private EmbeddedDatabase replica;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readWrite;
+
+    private TransactionTemplate readOnly;
+
+    private LazyConnectionDataSourceProxy dataSource;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+
+        dataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primary, replica));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (entityManagerFactory != null) {
+            entityManagerFactory.close();
+        }
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    /**
+     * Test case for a read-only transaction.
+     * Ensures that it is served by the replica.
+     */
+    @Test
+    void testReadOnlyTransaction_UsesReplica() {
+        assertEquals("replica", readOnly.execute(_ -> name()));
+    }
+
+    /**
+     * Test case for read-write transactions and statements outside a transaction.
+     * Ensures that they are served by the primary, where the writes land.
+     */
+    @Test
+    void testWrites_UsePrimary() {
+        assertEquals("primary", readWrite.execute(_ -> name()));
+        assertEquals("primary", name());
+
+        jdbcTemplate.update("INSERT INTO vacancies (id) VALUES (1)");
+        readWrite.executeWithoutResult(_ -> jdbcTemplate.update("INSERT INTO vacancies (id) VALUES (2)"));
+
+        assertEquals(2, new JdbcTemplate(primary).queryForObject("SELECT COUNT(*) FROM vacancies", Integer.class));
+        assertEquals(0, new JdbcTemplate(replica).queryForObject("SELECT COUNT(*) FROM vacancies", Integer.class));
+    }
+
+    /**
+     * Test case for a read-only transaction started after a read-write one on the same thread.
+     * Ensures that each transaction is routed by its own flag.
+     */
+    @Test
+    void testAlternatingTransactions_AreRoutedIndependently() {
+        assertEquals("primary", readWrite.execute(_ -> name()));
+        assertEquals("replica", readOnly.execute(_ -> name()));
+        assertEquals("primary", readWrite.execute(_ -> name()));
+    }
+
+    /**
+     * Test case for methods annotated with {@link Transactional} and run by the JpaTransactionManager, as the
+     * services are.
+     * Ensures that the read-only method is served by the replica, although the JPA transaction begins before
+     * its read-only flag is published.
+     */
+    @Test
+    void testJpaReadOnlyTransaction_UsesReplica() {
+        LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+        factoryBean.setDataSource(dataSource);
+        factoryBean.setManagedTypes(PersistenceManagedTypes.of());
+        factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "none"));
+        factoryBean.afterPropertiesSet();
+        entityManagerFactory = factoryBean.getObject();
+
+        ProxyFactory proxyFactory = new ProxyFactory(new DatabaseNames(SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory)));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TransactionInterceptor(new JpaTransactionManager(entityManagerFactory),
+                new AnnotationTransactionAttributeSource()));
+        DatabaseNames databaseNames = (DatabaseNames) proxyFactory.getProxy();
+
+        assertEquals("replica", databaseNames.readOnly());
+        assertEquals("primary", databaseNames.readWrite());
+        assertEquals("replica", databaseNames.readOnly());
+    }
+
+    /**
+     * Reads the name of the database serving the current transaction through JPA.
+     */
+    static class DatabaseNames {
+
+        private final EntityManager entityManager;
+
+        DatabaseNames(EntityManager entityManager) {
+            this.entityManager = entityManager;
+        }
+
+        @Transactional(readOnly = true)
+        public String readOnly() {
+            return name();
+        }
+
+        @Transactional
+        public String readWrite() {
+            return name();
+        }
+
+        private String name() {
+            return (String) entityManager.createNativeQuery("SELECT name FROM database_name").getSingleResult();
+        }
+    }
+
+    private String name() {
+        return jdbcTemplate.queryForObject("SELECT name FROM database_name", String.class);
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE database_name (name VARCHAR(16))");
+        jdbcTemplate.update("INSERT INTO database_name VALUES (?)", name);
+        jdbcTemplate.execute("CREATE TABLE vacancies (id INT PRIMARY KEY)");
+
+        return database;
+    }
+
+}
@@ -0,0 +1,186 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.api.ResponseCacheFilter;
+import com.example.workaagencyapi.service.cache.ResponseCache;
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the ResponseCacheFilter.
+ */
+class ResponseCacheFilterTest {
+
+    @Mock
+    private ConfigLoader configLoader;
+
+    private ResponseCache responseCache;
+
+    private ResponseCacheFilter responseCacheFilter;
+
+    private final AtomicInteger controllerCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(configLoader.getResponseCacheMaxBytes()).thenReturn(1_000_000L);
+        when(configLoader.getResponseCachePaths()).thenReturn(List.of("/api/v1/vacancies/city-counts"));
+
+        responseCache = new ResponseCache(configLoader, new SimpleMeterRegistry());
+        responseCacheFilter = new ResponseCacheFilter(responseCache, configLoader);
+    }
+
+    /**
+     * Test case for a repeated request.
+     * Ensures that the second response is served from the cache with the same body, ETag and `Vary: Accept`.
+     */
+    @Test
+    void testRepeatedRequestIsServedFromCache() throws Exception {
+        MockHttpServletResponse first = perform(request(null));
+        MockHttpServletResponse second = perform(request(null));
+
+        assertEquals(1, controllerCalls.get());
+        assertEquals(200, second.getStatus());
+        assertEquals("{\"Berlin\":3}", second.getContentAsString());
+        assertEquals("application/json", second.getContentType());
+        assertNotNull(first.getHeader("ETag"));
+        assertEquals(first.getHeader("ETag"), second.getHeader("ETag"));
+        assertEquals("Accept", first.getHeader("Vary"));
+        assertEquals("Accept", second.getHeader("Vary"));
+    }
+
+    /**
+     * Test case for a conditional request.
+     * Ensures that a matching If-None-Match is answered with 304 and no body.
+     */
+    @Test
+    void testMatchingETagReturnsNotModified() throws Exception {
+        String etag = perform(request(null)).getHeader("ETag");
+
+        MockHttpServletResponse response = perform(request(etag));
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentLength());
+        assertEquals(etag, response.getHeader("ETag"));
+        assertEquals("Accept", response.getHeader("Vary"));
+        assertEquals(1, controllerCalls.get());
+    }
+
+    /**
+     * Test case for a save of new vacancies.
+     * Ensures that the cache is invalidated and the next request reaches the controller.
+     */
+    @Test
+    void testSaveInvalidatesCache() throws Exception {
+        perform(request(null));
+        responseCache.onVacanciesSaved(List.of());
+        perform(request(null));
+
+        assertEquals(2, controllerCalls.get());
+    }
+
+    /**
+     * Test case for a response computed while a save happens.
+     * Ensures that the stale response is not cached.
+     */
+    @Test
+    void testResponseComputedBeforeInvalidationIsNotCached() throws Exception {
+        long generation = responseCache.generation();
+        responseCache.invalidateAll();
+
+        responseCache.put("key", ResponseCache.CachedResponse.of(new byte[]{1}, "application/json"), generation);
+
+        assertEquals(null, responseCache.get("key"));
+    }
+
+    /**
+     * Test case for requests right after a save, while the replica may still lag behind the primary.
+     * Ensures that their responses are not cached until `response.cache.fill.delay` has passed.
+     */
+    @Test
+    void testResponsesAreNotCachedDuringFillDelay() throws Exception {
+        AtomicLong now = new AtomicLong(10_000);
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenAnswer(_ -> now.get());
+        when(configLoader.getResponseCacheFillDelay()).thenReturn(1_000L);
+        responseCache = new ResponseCache(configLoader, new SimpleMeterRegistry(), clock);
+        responseCacheFilter = new ResponseCacheFilter(responseCache, configLoader);
+
+        responseCache.invalidateAll();
+        perform(request(null));
+        perform(request(null));
+
+        assertEquals(2, controllerCalls.get());
+
+        now.addAndGet(1_000);
+        perform(request(null));
+        perform(request(null));
+
+        assertEquals(3, controllerCalls.get());
+    }
+
+    /**
+     * Test case for a path that is not configured.
+     * Ensures that the request always reaches the controller.
+     */
+    @Test
+    void testUncachedPathIsPassedThrough() throws Exception {
+        MockHttpServletRequest request = request(null);
+        request.setRequestURI("/api/v1/vacancies/search");
+
+        perform(request);
+        perform(request);
+
+        assertEquals(2, controllerCalls.get());
+    }
+
+    private static MockHttpServletRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/vacancies/city-counts");
+
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+
+        return request;
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        responseCacheFilter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                controllerCalls.incrementAndGet();
+                resp.setContentType("application/json");
+                resp.getWriter().write("{\"Berlin\":3}");
+            }
+        }));
+
+        return response;
+    }
+
+}
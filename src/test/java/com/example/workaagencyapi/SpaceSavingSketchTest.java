@@ -0,0 +1,87 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.service.trending.SpaceSavingSketch;
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the SpaceSavingSketch.
+ */
+class SpaceSavingSketchTest {
+
+    /**
+     * Test case for a stream with fewer distinct values than counters.
+     * Ensures that the counts are exact.
+     */
+    @Test
+    void testExactBelowCapacity() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(4);
+
+        for (String value : new String[]{"a", "b", "a", "c", "a", "b"}) {
+            sketch.offer(value);
+        }
+
+        Map<String, Long> counts = new HashMap<>();
+        sketch.addTo(counts);
+
+        assertEquals(Map.of("a", 3L, "b", 2L, "c", 1L), counts);
+        assertEquals(0, sketch.maxError());
+    }
+
+    /**
+     * Test case for a skewed stream with many more distinct values than counters.
+     * Ensures that the heavy hitters are kept and their estimates are within total / capacity of the true counts.
+     */
+    @Test
+    void testHeavyHittersWithinErrorBound() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(50);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 20_000; i++) {
+            String value = random.nextInt(4) == 0 ? STR."hot \{random.nextInt(5)}" : STR."cold \{random.nextInt(5_000)}";
+            sketch.offer(value);
+            exact.merge(value, 1L, Long::sum);
+        }
+
+        long bound = sketch.total() / 50;
+        assertTrue(sketch.maxError() <= bound);
+
+        for (int i = 0; i < 5; i++) {
+            String hot = STR."hot \{i}";
+            long estimate = sketch.estimate(hot);
+
+            assertTrue(estimate >= exact.get(hot));
+            assertTrue(estimate - exact.get(hot) <= bound);
+        }
+    }
+
+    /**
+     * Test case for clearing a sketch.
+     * Ensures that all counts are discarded.
+     */
+    @Test
+    void testClear() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+        sketch.offer("a");
+        sketch.offer("b");
+        sketch.offer("c");
+
+        sketch.clear();
+        sketch.offer("d");
+
+        assertEquals(1, sketch.total());
+        assertEquals(0, sketch.estimate("a"));
+        assertEquals(1, sketch.estimate("d"));
+    }
+
+}
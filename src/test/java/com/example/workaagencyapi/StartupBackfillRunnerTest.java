@@ -0,0 +1,210 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.service.VacancyService;
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.ingestion.BackfillHealthIndicator;
+import com.example.workaagencyapi.service.ingestion.BackfillProgress;
+import com.example.workaagencyapi.service.ingestion.StartupBackfillRunner;
+import com.example.workaagencyapi.service.lease.IngestionLease;
+import com.example.workaagencyapi.service.lease.IngestionLeaseChangedEvent;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.actuate.health.Status;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the StartupBackfillRunner.
+ */
+class StartupBackfillRunnerTest {
+
+    @Mock
+    private VacancyService vacancyService;
+
+    @Mock
+    private ConfigLoader configLoader;
+
+    @Mock
+    private IngestionLease ingestionLease;
+
+    private BackfillProgress backfillProgress;
+
+    private BackfillHealthIndicator healthIndicator;
+
+    private StartupBackfillRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(ingestionLease.isLeader()).thenReturn(true);
+
+        backfillProgress = new BackfillProgress();
+        healthIndicator = new BackfillHealthIndicator(backfillProgress);
+    }
+
+    @AfterEach
+    void tearDown() {
+        runner.shutdown();
+    }
+
+    /**
+     * Test case for the asynchronous startup mode.
+     * Ensures that startup returns before the backfill finishes and that the progress follows the backfill.
+     */
+    @Test
+    void testAsyncBackfillRunsInBackground() throws InterruptedException {
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch upstreamDone = new CountDownLatch(1);
+
+        when(configLoader.isStartupBackfillAsync()).thenReturn(true);
+        when(vacancyService.loadAllPages()).thenAnswer(_ -> {
+            fetchStarted.countDown();
+            backfillProgress.onVacanciesSaved(List.of(new VacancyTable(), new VacancyTable()));
+            upstreamDone.await();
+
+            return 3;
+        });
+        runner = new StartupBackfillRunner(vacancyService, backfillProgress, ingestionLease, configLoader);
+
+        runner.runOnStartup();
+        verify(vacancyService, never()).loadAllPages();
+
+        runner.runWhenReady();
+        assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+        assertEquals(BackfillProgress.Phase.FETCHING, backfillProgress.getPhase());
+        assertEquals(Status.UP, healthIndicator.health().getStatus());
+
+        upstreamDone.countDown();
+        verify(vacancyService, timeout(5000)).saveVacanciesToDBService();
+        awaitPhase(BackfillProgress.Phase.COMPLETED);
+
+        assertEquals(3, backfillProgress.toDetails().get("fetchedPages"));
+        assertEquals(2L, backfillProgress.toDetails().get("insertedVacancies"));
+    }
+
+    /**
+     * Test case for the synchronous startup mode.
+     * Ensures that the backfill completes during startup and is not started again when the application is ready.
+     */
+    @Test
+    void testSyncBackfillRunsDuringStartup() {
+        when(configLoader.isStartupBackfillAsync()).thenReturn(false);
+        runner = new StartupBackfillRunner(vacancyService, backfillProgress, ingestionLease, configLoader);
+
+        runner.runOnStartup();
+        runner.runWhenReady();
+
+        assertEquals(BackfillProgress.Phase.COMPLETED, backfillProgress.getPhase());
+        verify(vacancyService, times(1)).loadAllPages();
+    }
+
+    /**
+     * Test case for a failing backfill.
+     * Ensures that the failure is reported by the health component.
+     */
+    @Test
+    void testFailedBackfillIsReported() {
+        when(configLoader.isStartupBackfillAsync()).thenReturn(false);
+        when(vacancyService.loadAllPages()).thenThrow(new IllegalStateException("upstream down"));
+        runner = new StartupBackfillRunner(vacancyService, backfillProgress, ingestionLease, configLoader);
+
+        runner.runOnStartup();
+
+        assertEquals(Status.DOWN, healthIndicator.health().getStatus());
+        assertEquals("java.lang.IllegalStateException: upstream down", healthIndicator.health().getDetails().get("error"));
+    }
+
+    /**
+     * Test case for an instance that does not hold the ingestion lease.
+     * Ensures that the backfill is skipped.
+     */
+    @Test
+    void testFollowerSkipsBackfill() {
+        when(configLoader.isStartupBackfillAsync()).thenReturn(false);
+        when(ingestionLease.isLeader()).thenReturn(false);
+        runner = new StartupBackfillRunner(vacancyService, backfillProgress, ingestionLease, configLoader);
+
+        runner.runOnStartup();
+
+        assertEquals(BackfillProgress.Phase.SKIPPED, backfillProgress.getPhase());
+        verify(vacancyService, never()).loadAllPages();
+    }
+
+    /**
+     * Test case for an instance that acquires the ingestion lease after startup.
+     * Ensures that it runs the backfill then.
+     */
+    @Test
+    void testLeaseAcquiredAfterStartup_RunsBackfill() throws InterruptedException {
+        when(configLoader.isStartupBackfillAsync()).thenReturn(true);
+        when(ingestionLease.isLeader()).thenReturn(false);
+        runner = new StartupBackfillRunner(vacancyService, backfillProgress, ingestionLease, configLoader);
+
+        runner.runWhenReady();
+        awaitPhase(BackfillProgress.Phase.SKIPPED);
+
+        when(ingestionLease.isLeader()).thenReturn(true);
+        runner.onLeaseChanged(new IngestionLeaseChangedEvent("instance-1", true));
+
+        awaitPhase(BackfillProgress.Phase.COMPLETED);
+        verify(vacancyService).loadAllPages();
+        verify(vacancyService).saveVacanciesToDBService();
+    }
+
+    /**
+     * Test case for an instance that loses the ingestion lease during its backfill.
+     * Ensures that the crawl is interrupted and nothing is saved.
+     */
+    @Test
+    void testLeaseLostDuringBackfill_StopsBackfill() throws InterruptedException {
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+
+        when(configLoader.isStartupBackfillAsync()).thenReturn(true);
+        when(vacancyService.loadAllPages()).thenAnswer(_ -> {
+            fetchStarted.countDown();
+
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return 1;
+        });
+        runner = new StartupBackfillRunner(vacancyService, backfillProgress, ingestionLease, configLoader);
+
+        runner.runWhenReady();
+        assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+
+        when(ingestionLease.isLeader()).thenReturn(false);
+        runner.onLeaseChanged(new IngestionLeaseChangedEvent("instance-0", false));
+
+        awaitPhase(BackfillProgress.Phase.STOPPED);
+        verify(vacancyService, never()).saveVacanciesToDBService();
+    }
+
+    private void awaitPhase(BackfillProgress.Phase phase) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+
+        while (backfillProgress.getPhase() != phase && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(phase, backfillProgress.getPhase());
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.repositories.TagDictionary;
+import com.example.workaagencyapi.service.aggregate.TagStatistics;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests of the TagDictionary and the TagStatistics counted on the encoded tags, against an embedded H2 database.
+ */
+class TagDictionaryTest {
+
+    private EmbeddedDatabase database;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TagDictionary tagDictionary;
+
+    @BeforeEach
+    void setUp() {
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("CREATE TABLE vacancy_symbols (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255) NOT NULL UNIQUE)");
+        jdbcTemplate.execute("CREATE TABLE vacancies (id INT PRIMARY KEY, tag_ids VARBINARY(1024), duplicate_of INT)");
+
+        tagDictionary = newDictionary();
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    /**
+     * Test case for encoding and decoding tags.
+     * Ensures that each tag gets one id and that decoded arrays share the dictionary's string instances.
+     */
+    @Test
+    void testEncodeDecode_SharesInstances() {
+        int[] ids = TagDictionary.ids(tagDictionary.encode(new String[]{"java", "spring", "java"}));
+
+        assertEquals(ids[0], ids[2]);
+        assertNotEquals(ids[0], ids[1]);
+
+        String[] first = tagDictionary.decode(tagDictionary.encode(new String[]{"java", "spring", "java"}));
+        String[] second = tagDictionary.decode(tagDictionary.encode(new String[]{new String("java")}));
+
+        assertArrayEquals(new String[]{"java", "spring", "java"}, first);
+        assertSame(first[0], second[0]);
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vacancy_symbols", Integer.class));
+    }
+
+    /**
+     * Test case for another instance sharing the database.
+     * Ensures that it reuses the stored ids and decodes ids it has never seen.
+     */
+    @Test
+    void testOtherInstance_ReusesStoredIds() {
+        int java = tagDictionary.idOf("java");
+        int spring = tagDictionary.idOf("spring");
+
+        TagDictionary other = newDictionary();
+
+        assertEquals("spring", other.valueOf(spring));
+        assertEquals(java, other.idOf("java"));
+        assertThrows(IllegalStateException.class, () -> other.valueOf(spring + 100));
+    }
+
+    /**
+     * Test case for the tag statistics.
+     * Ensures that the counts are seeded from the encoded column, updated with saved vacancies and ranked.
+     */
+    @Test
+    void testTagStatistics_CountsEncodedTags() {
+        insert(1, "java", "spring");
+        insert(2, "java");
+        insert(3, "python", "java");
+
+        TagStatistics tagStatistics = new TagStatistics(jdbcTemplate, tagDictionary);
+        tagStatistics.load(Integer.MAX_VALUE);
+        tagStatistics.onVacanciesSaved(List.of(
+                VacancyTable.builder().tags(new String[]{"spring"}).build(),
+                VacancyTable.builder().tags(new String[]{"spring", "kotlin"}).build()));
+
+        assertEquals(List.of(Map.of("java", 3), Map.of("spring", 3)), tagStatistics.getTopTags(2));
+        assertEquals(4, tagStatistics.getTopTags(10).size());
+    }
+
+    private void insert(int id, String... tags) {
+        jdbcTemplate.update("INSERT INTO vacancies (id, tag_ids) VALUES (?, ?)", id, tagDictionary.encode(tags));
+    }
+
+    private TagDictionary newDictionary() {
+        return new TagDictionary(jdbcTemplate, new DataSourceTransactionManager(database));
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.dto.TrendingResult;
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.trending.TrendingVacancies;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the TrendingVacancies.
+ */
+class TrendingVacanciesTest {
+
+    private static final long NOW = 1_700_000_000L;
+
+    private static final long HOUR = 3600;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ConfigLoader configLoader;
+
+    private TrendingVacancies trendingVacancies;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(configLoader.getTrendingEpsilon()).thenReturn(0.01);
+        when(configLoader.getTopTitlesSize()).thenReturn(2);
+
+        trendingVacancies = new TrendingVacancies(jdbcTemplate, configLoader,
+                Clock.fixed(Instant.ofEpochSecond(NOW), ZoneOffset.UTC));
+    }
+
+    /**
+     * Test case for windows of different lengths.
+     * Ensures that only the vacancies created within each window are counted, most frequent first.
+     */
+    @Test
+    void testGetTrending_CountsVacanciesWithinWindow() {
+        trendingVacancies.onVacanciesSaved(List.of(
+                vacancy("Developer", "Acme", NOW),
+                vacancy("Developer", "Acme", NOW - HOUR),
+                vacancy("Designer", "Initech", NOW - 2 * HOUR),
+                vacancy("Designer", "Initech", NOW - 30 * HOUR),
+                vacancy("Designer", "Initech", NOW - 40 * HOUR),
+                vacancy("Tester", "Acme", NOW - 200 * HOUR)));
+
+        TrendingResult day = trendingVacancies.getTrending("24h", 0);
+        TrendingResult week = trendingVacancies.getTrending("7d", 0);
+
+        assertEquals(3, day.vacancies());
+        assertEquals(List.of(Map.of("Developer", 2L), Map.of("Designer", 1L)), day.titles());
+        assertEquals(5, week.vacancies());
+        assertEquals(List.of(Map.of("Designer", 3L), Map.of("Developer", 2L)), week.titles());
+        assertEquals(List.of(Map.of("Initech", 3L), Map.of("Acme", 2L)), week.companies());
+        assertEquals(0, week.maxError());
+    }
+
+    /**
+     * Test case for a title monitored in one hourly bucket and evicted from another.
+     * Ensures that the merged count is credited the smallest counter of the other bucket, so it is not underestimated.
+     */
+    @Test
+    void testGetTrending_MergeDoesNotUnderestimate() {
+        when(configLoader.getTrendingEpsilon()).thenReturn(0.5);
+        trendingVacancies = new TrendingVacancies(jdbcTemplate, configLoader,
+                Clock.fixed(Instant.ofEpochSecond(NOW), ZoneOffset.UTC));
+
+        trendingVacancies.onVacanciesSaved(List.of(
+                vacancy("Developer", "Acme", NOW),
+                vacancy("Developer", "Acme", NOW),
+                vacancy("Developer", "Acme", NOW),
+                vacancy("Developer", "Acme", NOW - HOUR),
+                vacancy("Designer", "Acme", NOW - HOUR),
+                vacancy("Designer", "Acme", NOW - HOUR),
+                vacancy("Tester", "Acme", NOW - HOUR),
+                vacancy("Tester", "Acme", NOW - HOUR)));
+
+        TrendingResult trending = trendingVacancies.getTrending("2h", 3);
+
+        assertEquals(List.of(Map.of("Developer", 5L), Map.of("Tester", 3L), Map.of("Designer", 2L)), trending.titles());
+        assertEquals(2, trending.maxError());
+    }
+
+    /**
+     * Test case for a bucket reused by a newer hour.
+     * Ensures that the counts of the older hour are discarded and late vacancies of that hour are ignored.
+     */
+    @Test
+    void testGetTrending_ReusesBucketOfExpiredHour() {
+        trendingVacancies.onVacanciesSaved(List.of(vacancy("Tester", "Acme", NOW - 170 * HOUR)));
+        trendingVacancies.onVacanciesSaved(List.of(vacancy("Developer", "Acme", NOW - 2 * HOUR)));
+        trendingVacancies.onVacanciesSaved(List.of(vacancy("Tester", "Acme", NOW - 170 * HOUR)));
+
+        TrendingResult week = trendingVacancies.getTrending("168h", 10);
+
+        assertEquals(1, week.vacancies());
+        assertEquals(List.of(Map.of("Developer", 1L)), week.titles());
+    }
+
+    /**
+     * Test case for malformed and too long windows.
+     * Ensures that they are rejected.
+     */
+    @Test
+    void testParseWindow() {
+        assertEquals(24, TrendingVacancies.parseWindow("24h"));
+        assertEquals(168, TrendingVacancies.parseWindow("7d"));
+        assertThrows(IllegalArgumentException.class, () -> TrendingVacancies.parseWindow("8d"));
+        assertThrows(IllegalArgumentException.class, () -> TrendingVacancies.parseWindow("0h"));
+        assertThrows(IllegalArgumentException.class, () -> TrendingVacancies.parseWindow("week"));
+    }
+
+    private static VacancyTable vacancy(String title, String companyName, long createdAt) {
+        return VacancyTable.builder().title(title).company_name(companyName).created_at(createdAt).build();
+    }
+
+}
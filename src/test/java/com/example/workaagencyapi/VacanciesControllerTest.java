@@ -6,6 +6,9 @@ package com.example.workaagencyapi;
  */
 
 import com.example.workaagencyapi.api.VacanciesController;
+import com.example.workaagencyapi.dto.CursorPage;
+import com.example.workaagencyapi.dto.TrendingResult;
+import com.example.workaagencyapi.dto.VacancySummary;
 import com.example.workaagencyapi.service.VacancyService;
 import com.example.workaagencyapi.tables.VacancyTable;
 import org.junit.jupiter.api.BeforeEach;
@@ -17,8 +20,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import java.util.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 /**
@@ -43,15 +48,27 @@ class VacanciesControllerTest {
      */
     @Test
     void testGetVacancies_ReturnsVacancies() {
-        VacancyTable vacancy = new VacancyTable();
-        Page<VacancyTable> vacanciesPage = new PageImpl<>(Collections.singletonList(vacancy));
+        VacancySummary vacancy = summary(1);
+        Page<VacancySummary> vacanciesPage = new PageImpl<>(Collections.singletonList(vacancy));
 
         when(vacancyService.getPaginatedVacancies(0)).thenReturn(vacanciesPage);
 
-        ResponseEntity<Page<VacancyTable>> response = vacanciesController.getVacancies(1);
+        ResponseEntity<MappingJacksonValue> response = vacanciesController.getVacancies(1, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(vacanciesPage, response.getBody());
+        assertEquals(vacanciesPage, response.getBody().getValue());
+    }
+
+    /**
+     * Test case for retrieving vacancies with an unknown field in the sparse fieldset.
+     * Ensures that the method returns HTTP status Bad Request without querying vacancies.
+     */
+    @Test
+    void testGetVacancies_UnknownField_ReturnsBadRequest() {
+        ResponseEntity<MappingJacksonValue> response = vacanciesController.getVacancies(1, Set.of("title", "description"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(vacancyService);
     }
 
     /**
@@ -60,10 +77,66 @@ class VacanciesControllerTest {
      */
     @Test
     void testGetVacancies_ReturnsNotFound() {
-        Page<VacancyTable> vacanciesPage = Page.empty();
+        Page<VacancySummary> vacanciesPage = Page.empty();
         when(vacancyService.getPaginatedVacancies(0)).thenReturn(vacanciesPage);
 
-        ResponseEntity<Page<VacancyTable>> response = vacanciesController.getVacancies(1);
+        ResponseEntity<MappingJacksonValue> response = vacanciesController.getVacancies(1, null);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    /**
+     * Test case for retrieving a cursor page of vacancies with valid data.
+     * Ensures that the method returns the page with its next cursor and HTTP status OK.
+     */
+    @Test
+    void testGetVacanciesAfter_ReturnsVacancies() {
+        CursorPage<VacancySummary> vacanciesPage = new CursorPage<>(Collections.singletonList(summary(42)), "NDI");
+        when(vacancyService.getVacanciesAfter("", 20)).thenReturn(vacanciesPage);
+
+        ResponseEntity<MappingJacksonValue> response = vacanciesController.getVacanciesAfter("", 20, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(vacanciesPage, response.getBody().getValue());
+    }
+
+    /**
+     * Test case for retrieving a cursor page with a malformed cursor.
+     * Ensures that the method returns HTTP status Bad Request.
+     */
+    @Test
+    void testGetVacanciesAfter_ReturnsBadRequest() {
+        when(vacancyService.getVacanciesAfter("not-a-cursor", 0)).thenThrow(new IllegalArgumentException());
+
+        ResponseEntity<MappingJacksonValue> response = vacanciesController.getVacanciesAfter("not-a-cursor", 0, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    /**
+     * Test case for retrieving a single vacancy.
+     * Ensures that the method returns the full vacancy and HTTP status OK.
+     */
+    @Test
+    void testGetVacancy_ReturnsVacancy() {
+        VacancyTable vacancy = VacancyTable.builder().id(7).description("<p>Full text</p>").build();
+        when(vacancyService.getVacancy(7)).thenReturn(Optional.of(vacancy));
+
+        ResponseEntity<VacancyTable> response = vacanciesController.getVacancy(7);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(vacancy, response.getBody());
+    }
+
+    /**
+     * Test case for retrieving a vacancy that does not exist.
+     * Ensures that the method returns HTTP status Not Found.
+     */
+    @Test
+    void testGetVacancy_ReturnsNotFound() {
+        when(vacancyService.getVacancy(7)).thenReturn(Optional.empty());
+
+        ResponseEntity<VacancyTable> response = vacanciesController.getVacancy(7);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
@@ -137,4 +210,37 @@ class VacanciesControllerTest {
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
+
+    /**
+     * Test case for retrieving the most used tags.
+     * Ensures that the requested number of tags is passed on and the counts are returned.
+     */
+    @Test
+    void testGetTopTags_ReturnsTagCounts() {
+        List<Map<String, Integer>> topTags = List.of(Map.of("java", 12), Map.of("spring", 7));
+        when(vacancyService.getTopTags(2)).thenReturn(topTags);
+
+        ResponseEntity<List<Map<String, Integer>>> response = vacanciesController.getTopTags(2);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(topTags, response.getBody());
+    }
+
+    /**
+     * Test case for a malformed trending window.
+     * Ensures that the request is rejected with a bad request status.
+     */
+    @Test
+    void testGetTrending_ReturnsBadRequestForMalformedWindow() {
+        when(vacancyService.getTrending("8d", 0)).thenThrow(new IllegalArgumentException("Window out of range: 8d"));
+
+        ResponseEntity<TrendingResult> response = vacanciesController.getTrending("8d", 0);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    private static VacancySummary summary(int id) {
+        return new VacancySummary(id, "developer", "Company", "Developer", true, "https://www.arbeitnow.com/jobs/developer",
+                new String[]{"java"}, new String[]{"full time"}, "Berlin", 1_700_000_000L);
+    }
 }
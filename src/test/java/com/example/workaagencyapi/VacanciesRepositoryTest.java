@@ -0,0 +1,108 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.dto.VacancySummary;
+import com.example.workaagencyapi.repositories.TagDictionary;
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the VacanciesRepository queries against an embedded H2 database.
+ */
+@DataJpaTest
+@Import(TagDictionary.class)
+@TestPropertySource(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class VacanciesRepositoryTest {
+
+    @Autowired
+    private VacanciesRepository vacanciesRepository;
+
+    private List<VacancyTable> saved;
+
+    @BeforeEach
+    void setUp() {
+        saved = vacanciesRepository.saveAll(List.of(vacancy(1), vacancy(2), vacancy(3)));
+    }
+
+    /**
+     * Test case for the summary projection.
+     * Ensures that every column except the description is selected.
+     */
+    @Test
+    void testFindAllSummaries_ReturnsSummaries() {
+        Page<VacancySummary> page = vacanciesRepository.findAllSummaries(PageRequest.of(0, 2, Sort.by(Sort.Order.desc("id"))));
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(2, page.getContent().size());
+
+        VacancySummary newest = page.getContent().getFirst();
+        assertEquals(saved.getLast().getId(), newest.id());
+        assertEquals("Developer 3", newest.title());
+        assertEquals("Company 3", newest.company_name());
+        assertArrayEquals(new String[]{"java", "spring"}, newest.tags());
+        assertEquals(1_700_000_003L, newest.created_at());
+    }
+
+    /**
+     * Test case for the keyset query.
+     * Ensures that the rows before the given id are returned newest first and that the slice knows if more follow.
+     */
+    @Test
+    void testFindSummariesByIdLessThan_SeeksPastCursor() {
+        PageRequest firstTwo = PageRequest.of(0, 2, Sort.by(Sort.Order.desc("id")));
+
+        Slice<VacancySummary> first = vacanciesRepository.findSummariesByIdLessThan(Integer.MAX_VALUE, firstTwo);
+        assertTrue(first.hasNext());
+
+        Slice<VacancySummary> second = vacanciesRepository.findSummariesByIdLessThan(first.getContent().getLast().id(), firstTwo);
+        assertFalse(second.hasNext());
+        assertEquals(List.of(saved.getFirst().getId()), second.getContent().stream().map(VacancySummary::id).toList());
+    }
+
+    /**
+     * Test case for the export stream.
+     * Ensures that only the vacancies created since the given time are streamed, in ascending id order.
+     */
+    @Test
+    void testStreamByCreatedAtSince_StreamsInIdOrder() {
+        try (Stream<VacancyTable> vacancies = vacanciesRepository.streamByCreatedAtSince(1_700_000_002L)) {
+            assertEquals(List.of(saved.get(1).getId(), saved.get(2).getId()), vacancies.map(VacancyTable::getId).toList());
+        }
+    }
+
+    private static VacancyTable vacancy(int i) {
+        return VacancyTable.builder()
+                .slug(STR."developer-\{i}")
+                .company_name(STR."Company \{i}")
+                .title(STR."Developer \{i}")
+                .description("<p>Description</p>")
+                .remote(true)
+                .url(STR."https://www.arbeitnow.com/jobs/developer-\{i}")
+                .tags(new String[]{"java", "spring"})
+                .job_types(new String[]{"full time"})
+                .location("Berlin")
+                .created_at(1_700_000_000L + i)
+                .build();
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.service.aggregate.VacancyAggregates;
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the VacancyAggregates.
+ */
+class VacancyAggregatesTest {
+
+    @Mock
+    private VacanciesRepository vacanciesRepository;
+
+    @Mock
+    private ConfigLoader configLoader;
+
+    private VacancyAggregates vacancyAggregates;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(configLoader.getTopTitlesSize()).thenReturn(10);
+        when(vacanciesRepository.findCityCountsAsMap(anyInt())).thenReturn(List.of(
+                Map.of("location", "Berlin", "city_count", 3L),
+                Map.of("location", "Munich", "city_count", 5L)));
+        when(vacanciesRepository.findTitleCounts(anyInt())).thenReturn(List.of(
+                Map.of("title", "Developer", "count", 2L),
+                Map.of("title", "Designer", "count", 1L)));
+
+        vacancyAggregates = new VacancyAggregates(vacanciesRepository, configLoader);
+        vacancyAggregates.load(10);
+    }
+
+    /**
+     * Test case for the seeded city counts.
+     * Ensures that the cities are ordered by their vacancy count in descending order.
+     */
+    @Test
+    void testGetCityCounts_SortedByCountDescending() {
+        assertEquals(List.of("Munich", "Berlin"), new ArrayList<>(vacancyAggregates.getCityCounts().keySet()));
+    }
+
+    /**
+     * Test case for updating the counters with a saved batch.
+     * Ensures that city counts and titles occurring more than once are updated incrementally.
+     */
+    @Test
+    void testOnVacanciesSaved_UpdatesCounters() {
+        vacancyAggregates.onVacanciesSaved(List.of(
+                vacancy("Designer", "Berlin"),
+                vacancy("Designer", "Berlin"),
+                vacancy("Designer", "Berlin")));
+
+        assertEquals(6, vacancyAggregates.getCityCounts().get("Berlin"));
+        assertEquals("Berlin", vacancyAggregates.getCityCounts().keySet().iterator().next());
+        assertEquals(List.of(Map.of("Designer", 4), Map.of("Developer", 2)), vacancyAggregates.getTopTitles());
+    }
+
+    /**
+     * Test case for the top titles size.
+     * Ensures that only the configured number of most popular titles is kept.
+     */
+    @Test
+    void testGetTopTitles_KeepsOnlyTopTitles() {
+        List<VacancyTable> vacancies = new ArrayList<>();
+
+        for (int i = 0; i < 12; i++) {
+            for (int j = 0; j < 100 - i; j++) {
+                vacancies.add(vacancy(STR."Developer\{i}", "Berlin"));
+            }
+        }
+
+        vacancyAggregates.onVacanciesSaved(vacancies);
+
+        List<Map<String, Integer>> topTitles = vacancyAggregates.getTopTitles();
+        assertEquals(10, topTitles.size());
+        assertEquals(Map.of("Developer0", 100), topTitles.getFirst());
+        assertEquals(Map.of("Developer9", 91), topTitles.getLast());
+    }
+
+    /**
+     * Test case for reconciling while batches are delivered.
+     * Ensures that a batch delivered during the scan is counted once, whether or not the scan covered it.
+     */
+    @Test
+    void testReconcile_ReappliesBatchesDeliveredDuringScan() {
+        when(vacanciesRepository.findMaxId()).thenReturn(20);
+        when(vacanciesRepository.findCityCountsAsMap(20)).thenAnswer(_ -> {
+            vacancyAggregates.onVacanciesSaved(List.of(vacancy(20, "Designer", "Berlin"), vacancy(21, "Designer", "Berlin")));
+
+            return List.of(Map.of("location", "Berlin", "city_count", 4L), Map.of("location", "Munich", "city_count", 5L));
+        });
+
+        vacancyAggregates.reconcile();
+
+        assertEquals(5, vacancyAggregates.getCityCounts().get("Berlin"));
+        assertEquals(5, vacancyAggregates.getCityCounts().get("Munich"));
+    }
+
+    /**
+     * Test case for reconciling against a lagging replica.
+     * Ensures that the counters are kept when they already include vacancies the scanned database lacks.
+     */
+    @Test
+    void testReconcile_SkippedWhileReplicaLags() {
+        vacancyAggregates.onVacanciesSaved(List.of(vacancy(12, "Designer", "Berlin")));
+        when(vacanciesRepository.findMaxId()).thenReturn(11);
+        when(vacanciesRepository.findCityCountsAsMap(11)).thenReturn(List.of(Map.of("location", "Berlin", "city_count", 1L)));
+
+        vacancyAggregates.reconcile();
+
+        assertEquals(4, vacancyAggregates.getCityCounts().get("Berlin"));
+        assertEquals(5, vacancyAggregates.getCityCounts().get("Munich"));
+    }
+
+    private static VacancyTable vacancy(int id, String title, String location) {
+        return VacancyTable.builder().id(id).title(title).location(location).build();
+    }
+
+    private static VacancyTable vacancy(String title, String location) {
+        return VacancyTable.builder().title(title).location(location).build();
+    }
+
+}
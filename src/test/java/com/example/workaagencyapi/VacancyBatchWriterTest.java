@@ -0,0 +1,208 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.repositories.DescriptionStore;
+import com.example.workaagencyapi.repositories.TagDictionary;
+import com.example.workaagencyapi.repositories.VacancyBatchWriter;
+import com.example.workaagencyapi.repositories.VacancyBatchWriter.BatchWriteResult;
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.lease.IngestionLease;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests of the VacancyBatchWriter against an embedded H2 database in PostgreSQL mode.
+ */
+class VacancyBatchWriterTest {
+
+    @Mock
+    private ConfigLoader configLoader;
+
+    @Mock
+    private IngestionLease ingestionLease;
+
+    private EmbeddedDatabase database;
+
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private VacancyBatchWriter vacancyBatchWriter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(configLoader.getDescriptionStorage()).thenReturn("compressed");
+        when(configLoader.getDescriptionCacheSize()).thenReturn(16);
+
+        database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .setName(STR."\{UUID.randomUUID()};MODE=PostgreSQL")
+                .build();
+        dataSource = withoutConflictTarget(database);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE vacancy_symbols (id SERIAL PRIMARY KEY, name VARCHAR(255) NOT NULL UNIQUE)");
+        jdbcTemplate.execute("CREATE TABLE vacancies (id SERIAL PRIMARY KEY, slug VARCHAR(255), company_name VARCHAR(255), " +
+                "title VARCHAR(255), description TEXT NOT NULL, remote BOOLEAN NOT NULL, url VARCHAR(255), tag_ids VARBINARY(1024), " +
+                "job_type_ids VARBINARY(1024), location VARCHAR(255), created_at BIGINT NOT NULL, duplicate_of INT)");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX uk_vacancies_url ON vacancies (url)");
+        new ResourceDatabasePopulator(new ClassPathResource("db/vacancy-descriptions.sql"),
+                new ClassPathResource("db/migration/V3__vacancy_description_nullable.sql")).execute(database);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        vacancyBatchWriter = new VacancyBatchWriter(jdbcTemplate, transactionManager,
+                new DescriptionStore(jdbcTemplate, transactionManager, configLoader),
+                new TagDictionary(jdbcTemplate, transactionManager), ingestionLease);
+    }
+
+    @AfterEach
+    void tearDown() {
+        database.shutdown();
+    }
+
+    /**
+     * Test case for a write mixing new and already stored URLs over several chunks.
+     * Ensures that stored URLs, and URLs repeated within the write, are counted as skipped and not overwritten.
+     */
+    @Test
+    void testWrite_SkipsStoredUrls() {
+        vacancyBatchWriter.write(List.of(vacancy("a", "First")), 10);
+
+        BatchWriteResult result = vacancyBatchWriter.write(
+                List.of(vacancy("b", "Second"), vacancy("a", "Changed"), vacancy("c", "Third"), vacancy("b", "Changed")), 2);
+
+        assertEquals(2, result.insertedCount());
+        assertEquals(2, result.skipped());
+        assertEquals(List.of("b", "c"), result.inserted().stream().map(VacancyTable::getUrl).toList());
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vacancies", Integer.class));
+        assertEquals("First", jdbcTemplate.queryForObject("SELECT title FROM vacancies WHERE url = 'a'", String.class));
+    }
+
+    /**
+     * Test case for chunks whose first or middle rows are skipped.
+     * Ensures that each inserted vacancy gets the id generated for its own row, not for a neighbour's.
+     */
+    @Test
+    void testWrite_MapsGeneratedIdsToInsertedRows() {
+        vacancyBatchWriter.write(List.of(vacancy("a", "A"), vacancy("c", "C")), 10);
+
+        BatchWriteResult result = vacancyBatchWriter.write(
+                List.of(vacancy("a", "A"), vacancy("b", "B"), vacancy("c", "C"), vacancy("d", "D"), vacancy("e", "E")), 3);
+
+        assertEquals(List.of("b", "d", "e"), result.inserted().stream().map(VacancyTable::getUrl).toList());
+        for (VacancyTable vacancy : result.inserted()) {
+            assertEquals(vacancy.getUrl(), jdbcTemplate.queryForObject("SELECT url FROM vacancies WHERE id = ?", String.class, vacancy.getId()));
+        }
+    }
+
+    /**
+     * Test case for a write in compressed description storage.
+     * Ensures that the inline column stays NULL and the descriptions are stored under the generated ids.
+     */
+    @Test
+    void testWrite_StoresDescriptionsUnderGeneratedIds() {
+        BatchWriteResult result = vacancyBatchWriter.write(List.of(vacancy("a", "A"), vacancy("b", "B")), 10);
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vacancies WHERE description IS NOT NULL", Integer.class));
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vacancy_descriptions", Integer.class));
+
+        DescriptionStore descriptionStore = new DescriptionStore(jdbcTemplate, new DataSourceTransactionManager(dataSource), configLoader);
+        VacancyTable stored = VacancyTable.builder().id(result.inserted().get(1).getId()).build();
+        assertEquals("<p>B</p>", descriptionStore.withDescription(stored).getDescription());
+    }
+
+    /**
+     * Test case for a chunk whose descriptions cannot be stored.
+     * Ensures that the rows of the chunk are rolled back with them, and the chunks committed before are kept.
+     */
+    @Test
+    void testWrite_DescriptionFailureRollsBackChunk() {
+        jdbcTemplate.update("INSERT INTO vacancy_descriptions (vacancy_id, compressed, raw_length) VALUES (3, X'00', 0)");
+
+        assertThrows(DataAccessException.class, () -> vacancyBatchWriter.write(
+                List.of(vacancy("a", "A"), vacancy("b", "B"), vacancy("c", "C"), vacancy("d", "D")), 2));
+
+        assertEquals(List.of("a", "b"), jdbcTemplate.queryForList("SELECT url FROM vacancies ORDER BY id", String.class));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vacancy_descriptions", Integer.class));
+    }
+
+    /**
+     * Test case for a chunk written after the ingestion lease was taken over by another instance.
+     * Ensures that the fence fails the chunk before any row of it is written.
+     */
+    @Test
+    void testWrite_FencedAfterLeaseLost() {
+        vacancyBatchWriter.write(List.of(vacancy("a", "A")), 10);
+        doThrow(new IllegalStateException("lease lost")).when(ingestionLease).fence();
+
+        assertThrows(IllegalStateException.class, () -> vacancyBatchWriter.write(List.of(vacancy("b", "B")), 10));
+
+        assertEquals(List.of("a"), jdbcTemplate.queryForList("SELECT url FROM vacancies", String.class));
+    }
+
+    private static VacancyTable vacancy(String url, String title) {
+        return VacancyTable.builder()
+                .slug(url)
+                .title(title)
+                .description(STR."<p>\{title}</p>")
+                .url(url)
+                .tags(new String[]{"java"})
+                .job_types(new String[]{"full-time"})
+                .created_at(1_700_000_000L)
+                .build();
+    }
+
+    /**
+     * H2 does not accept the conflict target of {@code ON CONFLICT (url) DO NOTHING}, so the statements are sent
+     * without it; in these tables the url index is the only unique key a vacancy row can conflict on.
+     */
+    private static DataSource withoutConflictTarget(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                Connection connection = super.getConnection();
+
+                return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                        (_, method, args) -> {
+                            if (method.getName().equals("prepareStatement") && args[0] instanceof String sql) {
+                                args[0] = sql.replace("ON CONFLICT (url) DO NOTHING", "ON CONFLICT DO NOTHING");
+                            }
+
+                            try {
+                                return method.invoke(connection, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                        });
+            }
+        };
+    }
+
+}
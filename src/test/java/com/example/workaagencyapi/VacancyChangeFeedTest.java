@@ -0,0 +1,198 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.repositories.DescriptionStore;
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.service.dedup.NearDuplicateDetector;
+import com.example.workaagencyapi.service.dedup.VacancyUrlIndex;
+import com.example.workaagencyapi.service.ingestion.IndexWarmup;
+import com.example.workaagencyapi.service.ingestion.VacancyChangeFeed;
+import com.example.workaagencyapi.service.ingestion.VacancyIngestionListener;
+import com.example.workaagencyapi.service.ingestion.WarmupLoader;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the VacancyChangeFeed.
+ */
+class VacancyChangeFeedTest {
+
+    @Mock
+    private VacanciesRepository vacanciesRepository;
+
+    @Mock
+    private VacancyUrlIndex vacancyUrlIndex;
+
+    @Mock
+    private DescriptionStore descriptionStore;
+
+    @Mock
+    private NearDuplicateDetector nearDuplicateDetector;
+
+    private final List<Integer> deliveredIds = new ArrayList<>();
+
+    private final List<VacancyTable> stored = new ArrayList<>();
+
+    private VacancyChangeFeed changeFeed;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        IntStream.rangeClosed(1, 3).forEach(id -> stored.add(vacancy(id)));
+
+        when(vacanciesRepository.findMaxId()).thenAnswer(_ -> stored.getLast().getId());
+        when(vacanciesRepository.findIdsGreaterThan(anyInt(), any(Limit.class))).thenAnswer(invocation -> {
+            int after = invocation.getArgument(0);
+            int limit = invocation.<Limit>getArgument(1).max();
+
+            return stored.stream().map(VacancyTable::getId).filter(id -> id > after).sorted().limit(limit).toList();
+        });
+        when(vacanciesRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Integer> ids = new ArrayList<>();
+            invocation.<Iterable<Integer>>getArgument(0).forEach(ids::add);
+
+            return stored.stream().filter(v -> ids.contains(v.getId())).toList();
+        });
+
+        VacancyIngestionListener listener = vacancies -> vacancies.forEach(v -> deliveredIds.add(v.getId()));
+        IndexWarmup indexWarmup = new IndexWarmup(vacanciesRepository, List.of());
+        indexWarmup.start();
+        changeFeed = new VacancyChangeFeed(vacanciesRepository, vacancyUrlIndex, descriptionStore, nearDuplicateDetector, List.of(listener), indexWarmup);
+        changeFeed.initialize();
+    }
+
+    /**
+     * Test case for an instance that does not write.
+     * Ensures that vacancies written by another instance are delivered once, in id order.
+     */
+    @Test
+    void testTailDeliversVacanciesWrittenElsewhere() {
+        IntStream.rangeClosed(4, 6).forEach(id -> stored.add(vacancy(id)));
+
+        changeFeed.tail();
+        changeFeed.tail();
+
+        assertEquals(List.of(4, 5, 6), deliveredIds);
+        assertEquals(6, changeFeed.getLastDeliveredId());
+        verify(vacancyUrlIndex).add("https://example.com/5");
+    }
+
+    /**
+     * Test case for a batch published by the writing instance.
+     * Ensures that it is delivered once, after the vacancies written before it by another instance.
+     */
+    @Test
+    void testPublishCatchesUpBeforeDelivering() {
+        stored.add(vacancy(4));
+        List<VacancyTable> batch = List.of(vacancy(5), vacancy(6));
+        stored.addAll(batch);
+
+        changeFeed.publish(batch);
+        changeFeed.tail();
+
+        assertEquals(List.of(4, 5, 6), deliveredIds);
+    }
+
+    /**
+     * Test case for a row committed after rows with higher ids.
+     * Ensures that tailing still delivers it, once.
+     */
+    @Test
+    void testTailDeliversRowCommittedLate() {
+        stored.add(vacancy(5));
+        changeFeed.tail();
+
+        stored.add(vacancy(4));
+        changeFeed.tail();
+        changeFeed.tail();
+
+        assertEquals(List.of(5, 4), deliveredIds);
+        assertEquals(5, changeFeed.getLastDeliveredId());
+    }
+
+    /**
+     * Test case for two batches saved at once, the one with the higher ids being published first.
+     * Ensures that the rows of the other batch are delivered by the catch-up and not again by its own publish.
+     */
+    @Test
+    void testBatchesPublishedOutOfOrder_AreDeliveredOnce() {
+        List<VacancyTable> first = List.of(vacancy(4), vacancy(5));
+        List<VacancyTable> second = List.of(vacancy(6), vacancy(7));
+        stored.addAll(first);
+        stored.addAll(second);
+
+        changeFeed.publish(second);
+        changeFeed.publish(first);
+        changeFeed.tail();
+
+        assertEquals(List.of(4, 5, 6, 7), deliveredIds);
+    }
+
+    /**
+     * Test case for vacancies written while the in-memory indexes are still loading.
+     * Ensures that tailing skips them, and that they are delivered, after the loaded ones, once the warmup finishes.
+     */
+    @Test
+    void testNothingDeliveredBeforeWarmupFinishes() {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> loadedUpTo = new ArrayList<>();
+        WarmupLoader loader = maxId -> {
+            loadedUpTo.add(maxId);
+            awaitQuietly(release);
+        };
+        IndexWarmup indexWarmup = new IndexWarmup(vacanciesRepository, List.of(loader));
+        indexWarmup.start();
+        changeFeed = new VacancyChangeFeed(vacanciesRepository, vacancyUrlIndex, descriptionStore, nearDuplicateDetector,
+                List.of(vacancies -> vacancies.forEach(v -> deliveredIds.add(v.getId()))), indexWarmup);
+        changeFeed.initialize();
+
+        stored.add(vacancy(4));
+        changeFeed.tail();
+        assertFalse(changeFeed.isStarted());
+        assertTrue(deliveredIds.isEmpty());
+
+        release.countDown();
+        indexWarmup.awaitLoaded();
+        changeFeed.tail();
+
+        assertEquals(List.of(3), loadedUpTo);
+        assertEquals(List.of(4), deliveredIds);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static VacancyTable vacancy(int id) {
+        VacancyTable vacancy = VacancyTable.builder().url(STR."https://example.com/\{id}").build();
+        vacancy.setId(id);
+
+        return vacancy;
+    }
+
+}
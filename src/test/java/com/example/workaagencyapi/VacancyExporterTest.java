@@ -0,0 +1,109 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.config.AppConfig;
+import com.example.workaagencyapi.repositories.DescriptionStore;
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.service.export.VacancyExporter;
+import com.example.workaagencyapi.tables.VacancyTable;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the VacancyExporter.
+ */
+class VacancyExporterTest {
+
+    @Mock
+    private VacanciesRepository vacanciesRepository;
+
+    @Mock
+    private DescriptionStore descriptionStore;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new AppConfig().objectMapper();
+
+    private VacancyExporter vacancyExporter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        vacancyExporter = new VacancyExporter(vacanciesRepository, descriptionStore, entityManager, transactionManager, objectMapper);
+    }
+
+    /**
+     * Test case for exporting more vacancies than fit in one batch.
+     * Ensures that every vacancy is written as one JSON line, detached, and that the stream is closed
+     * in a read-only transaction.
+     */
+    @Test
+    void testExport_WritesOneLinePerVacancy() throws Exception {
+        int count = VacanciesRepository.EXPORT_FETCH_SIZE + 3;
+        AtomicBoolean closed = new AtomicBoolean();
+        when(vacanciesRepository.streamByCreatedAtSince(1_700_000_000L)).thenReturn(IntStream.rangeClosed(1, count)
+                .mapToObj(VacancyExporterTest::vacancy)
+                .onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int exported = vacancyExporter.export(1_700_000_000L, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        JsonNode last = objectMapper.readTree(lines[count - 1]);
+
+        assertEquals(count, exported);
+        assertEquals(count, lines.length);
+        assertTrue(out.toString(StandardCharsets.UTF_8).endsWith("}\n"));
+        assertEquals(count, last.get("id").asInt());
+        assertEquals("Description", last.get("description").asText());
+        assertTrue(closed.get());
+        verify(entityManager, times(count)).detach(any(VacancyTable.class));
+        verify(descriptionStore, times(2)).fillAll(any());
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    /**
+     * Test case for exporting an empty table.
+     * Ensures that nothing is written.
+     */
+    @Test
+    void testExport_EmptyTable() {
+        when(vacanciesRepository.streamByCreatedAtSince(0)).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, vacancyExporter.export(0, out));
+        assertEquals(0, out.size());
+    }
+
+    private static VacancyTable vacancy(int id) {
+        return VacancyTable.builder().id(id).title(STR."Developer \{id}").description("Description")
+                .tags(new String[]{"java"}).location("Berlin").created_at(1_700_000_000L + id).build();
+    }
+
+}
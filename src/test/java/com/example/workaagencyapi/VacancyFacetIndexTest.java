@@ -0,0 +1,108 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.facet.FacetQuery;
+import com.example.workaagencyapi.service.facet.VacancyFacetIndex;
+import com.example.workaagencyapi.service.facet.VacancyFacetIndex.FacetSelection;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the VacancyFacetIndex.
+ */
+class VacancyFacetIndexTest {
+
+    @Mock
+    private VacanciesRepository vacanciesRepository;
+
+    @Mock
+    private ConfigLoader configLoader;
+
+    private VacancyFacetIndex facetIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(configLoader.getFacetsMaxValues()).thenReturn(20);
+        when(vacanciesRepository.findSummariesByIdGreaterThan(anyInt(), any())).thenReturn(List.of());
+
+        facetIndex = new VacancyFacetIndex(vacanciesRepository, configLoader);
+        facetIndex.load(Integer.MAX_VALUE);
+        facetIndex.onVacanciesSaved(List.of(
+                vacancy(1, new String[]{"java", "spring"}, "full time", "Berlin", true),
+                vacancy(2, new String[]{"java"}, "part time", "Munich", false),
+                vacancy(3, new String[]{"python"}, "full time", "Berlin", true)));
+    }
+
+    /**
+     * Test case for combining facets.
+     * Ensures that values of one facet are OR-ed and different facets are AND-ed.
+     */
+    @Test
+    void testFilter_CombinesFacets() {
+        FacetSelection selection = facetIndex.filter(
+                new FacetQuery(Set.of("java", "python"), false, Set.of("full time"), null, true));
+
+        assertArrayEquals(new int[]{1, 3}, selection.ids().toArray());
+    }
+
+    /**
+     * Test case for matching all tags.
+     * Ensures that only vacancies having every requested tag are selected.
+     */
+    @Test
+    void testFilter_MatchesAllTags() {
+        FacetSelection selection = facetIndex.filter(new FacetQuery(Set.of("java", "spring"), true, null, null, null));
+
+        assertArrayEquals(new int[]{1}, selection.ids().toArray());
+    }
+
+    /**
+     * Test case for facet counts.
+     * Ensures that the values are counted among the selected vacancies only.
+     */
+    @Test
+    void testFilter_CountsFacetValuesOfSelection() {
+        FacetSelection selection = facetIndex.filter(new FacetQuery(Set.of("java"), false, null, null, null));
+
+        assertEquals(Map.of("java", 2, "spring", 1), selection.facets().get("tags"));
+        assertEquals(Map.of("Berlin", 1, "Munich", 1), selection.facets().get("location"));
+        assertEquals(Map.of("true", 1), selection.facets().get("remote"));
+    }
+
+    /**
+     * Test case for excluding remote vacancies.
+     * Ensures that remote=false selects the vacancies without the remote flag.
+     */
+    @Test
+    void testFilter_ExcludesRemote() {
+        assertArrayEquals(new int[]{2}, facetIndex.filter(new FacetQuery(null, false, null, null, false)).ids().toArray());
+    }
+
+    private static VacancyTable vacancy(int id, String[] tags, String jobType, String location, boolean remote) {
+        return VacancyTable.builder()
+                .id(id)
+                .tags(tags)
+                .job_types(new String[]{jobType})
+                .location(location)
+                .remote(remote)
+                .build();
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.dto.SearchHit;
+import com.example.workaagencyapi.repositories.DescriptionStore;
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.service.search.VacancySearchIndex;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the VacancySearchIndex.
+ */
+class VacancySearchIndexTest {
+
+    @Mock
+    private VacanciesRepository vacanciesRepository;
+
+    @Mock
+    private DescriptionStore descriptionStore;
+
+    private VacancySearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(vacanciesRepository.findByIdGreaterThanOrderByIdAsc(anyInt(), any())).thenReturn(List.of(
+                vacancy(1, "Senior Java Developer", "Acme", new String[]{"java", "spring"}, "<p>Build <b>backend</b> services.</p>"),
+                vacancy(2, "Frontend Developer", "Globex", new String[]{"react"}, "<p>Some Java knowledge is a plus.</p>")));
+
+        searchIndex = new VacancySearchIndex(vacanciesRepository, descriptionStore);
+        searchIndex.load(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Test case for ranking.
+     * Ensures that a title and tag match outranks a description-only match.
+     */
+    @Test
+    void testSearch_RanksTitleMatchesFirst() {
+        List<SearchHit> hits = searchIndex.search("java", 10);
+
+        assertEquals(List.of(1, 2), hits.stream().map(SearchHit::id).toList());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    /**
+     * Test case for HTML in descriptions.
+     * Ensures that tag names are not indexed as terms while the tagged text is.
+     */
+    @Test
+    void testSearch_SkipsHtmlTags() {
+        assertEquals(1, searchIndex.search("backend", 10).getFirst().id());
+        assertTrue(searchIndex.search("p", 10).isEmpty());
+    }
+
+    /**
+     * Test case for incremental updates from ingestion.
+     * Ensures that saved vacancies become searchable and already indexed ids are ignored.
+     */
+    @Test
+    void testOnVacanciesSaved_IndexesNewVacancies() {
+        searchIndex.onVacanciesSaved(List.of(
+                vacancy(3, "Kotlin Developer", "Initech", new String[]{"kotlin"}, "Mobile apps"),
+                vacancy(1, "Senior Java Developer", "Acme", new String[]{"java", "spring"}, "Duplicate")));
+
+        assertEquals(3, searchIndex.size());
+        assertEquals(List.of(3), searchIndex.search("kotlin", 10).stream().map(SearchHit::id).toList());
+        assertTrue(searchIndex.search("duplicate", 10).isEmpty());
+    }
+
+    /**
+     * Test case for the result limit.
+     * Ensures that no more than the requested number of hits is returned.
+     */
+    @Test
+    void testSearch_LimitsHits() {
+        assertEquals(1, searchIndex.search("developer", 1).size());
+        assertEquals(2, searchIndex.search("developer", 10).size());
+    }
+
+    private static VacancyTable vacancy(int id, String title, String company, String[] tags, String description) {
+        return VacancyTable.builder()
+                .id(id)
+                .title(title)
+                .company_name(company)
+                .tags(tags)
+                .description(description)
+                .location("Berlin")
+                .url(STR."https://www.arbeitnow.com/jobs/\{id}")
+                .build();
+    }
+
+}
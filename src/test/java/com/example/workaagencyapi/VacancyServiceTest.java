@@ -0,0 +1,186 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.repositories.VacancyBatchWriter;
+import com.example.workaagencyapi.repositories.VacancyBatchWriter.BatchWriteResult;
+import com.example.workaagencyapi.service.VacancyService;
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.dedup.NearDuplicateDetector;
+import com.example.workaagencyapi.service.dedup.VacancyUrlIndex;
+import com.example.workaagencyapi.service.ingestion.IngestionMetrics;
+import com.example.workaagencyapi.service.ingestion.VacancyChangeFeed;
+import com.example.workaagencyapi.service.ingestion.VacancyStagingBuffer;
+import com.example.workaagencyapi.service.lease.IngestionLease;
+import com.example.workaagencyapi.service.upstream.ArbeitnowClient;
+import com.example.workaagencyapi.service.upstream.ConcurrentPageFetcher;
+import com.example.workaagencyapi.service.upstream.IncrementalPageWalker;
+import com.example.workaagencyapi.service.upstream.PageResult;
+import com.example.workaagencyapi.tables.VacancyTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.QueryTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the saving of staged vacancies by the VacancyService.
+ */
+class VacancyServiceTest {
+
+    private static final int PAGE_SIZE = 4;
+
+    @Mock
+    private VacanciesRepository vacanciesRepository;
+
+    @Mock
+    private ConfigLoader configLoader;
+
+    @Mock
+    private VacancyUrlIndex vacancyUrlIndex;
+
+    @Mock
+    private VacancyBatchWriter vacancyBatchWriter;
+
+    @Mock
+    private ArbeitnowClient arbeitnowClient;
+
+    @Mock
+    private VacancyChangeFeed vacancyChangeFeed;
+
+    @Mock
+    private NearDuplicateDetector nearDuplicateDetector;
+
+    @Mock
+    private IngestionLease ingestionLease;
+
+    @Mock
+    private IncrementalPageWalker incrementalPageWalker;
+
+    private final List<VacancyTable> inserted = new ArrayList<>();
+
+    private VacancyService vacancyService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(configLoader.getIngestionBatchSize()).thenReturn(3);
+        when(configLoader.isLimitedPagination()).thenReturn(true);
+        when(configLoader.getMaxPageCountParse()).thenReturn(3);
+        when(configLoader.getMaxConcurrentPageRequests()).thenReturn(2);
+        when(configLoader.getStagingBufferCapacity()).thenReturn(100);
+        when(configLoader.getStagingOfferTimeout()).thenReturn(1L);
+        when(ingestionLease.isLeader()).thenReturn(true);
+        when(arbeitnowClient.fetchPage(anyInt())).thenAnswer(invocation -> page(invocation.getArgument(0)));
+        when(vacancyBatchWriter.write(anyList(), anyInt())).thenAnswer(invocation -> {
+            List<VacancyTable> vacancies = invocation.getArgument(0);
+            vacancies.forEach(vacancy -> {
+                vacancy.setId(inserted.size() + 1);
+                inserted.add(vacancy);
+            });
+
+            return new BatchWriteResult(List.copyOf(vacancies), 0);
+        });
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        vacancyService = new VacancyService(vacanciesRepository, configLoader, vacancyUrlIndex, vacancyBatchWriter,
+                new ConcurrentPageFetcher(configLoader), arbeitnowClient, null, null, null,
+                new VacancyStagingBuffer(configLoader, meterRegistry), vacancyChangeFeed, ingestionLease, incrementalPageWalker,
+                new IngestionMetrics(meterRegistry), null, null, null, null, null, nearDuplicateDetector);
+    }
+
+    /**
+     * Test case for a backfill larger than `ingestion.batch.size`.
+     * Ensures that the vacancies of every batch are inserted oldest first, so that ids follow the creation order.
+     */
+    @Test
+    void testBackfillOverSeveralBatches_InsertsOldestFirst() {
+        vacancyService.loadAllPages();
+        vacancyService.saveVacanciesToDBService();
+
+        assertEquals(12, inserted.size());
+        assertEquals(IntStream.rangeClosed(1, 12).boxed().toList(), inserted.stream().map(VacancyTable::getId).toList());
+        assertEquals(LongStream.rangeClosed(201, 212).boxed().toList(), inserted.stream().map(VacancyTable::getCreated_at).toList());
+    }
+
+    /**
+     * Test case for a backfill that fills the staging buffer.
+     * Ensures that the buffer saved by the fetcher itself is inserted oldest first, too.
+     */
+    @Test
+    void testOverflowingBackfill_InsertsEachBufferOldestFirst() {
+        when(configLoader.getStagingBufferCapacity()).thenReturn(8);
+        vacancyService = new VacancyService(vacanciesRepository, configLoader, vacancyUrlIndex, vacancyBatchWriter,
+                new ConcurrentPageFetcher(configLoader), arbeitnowClient, null, null, null,
+                new VacancyStagingBuffer(configLoader, new SimpleMeterRegistry()), vacancyChangeFeed, ingestionLease, incrementalPageWalker,
+                new IngestionMetrics(new SimpleMeterRegistry()), null, null, null, null, null, nearDuplicateDetector);
+
+        vacancyService.loadAllPages();
+
+        assertEquals(8, inserted.size());
+        assertEquals(List.of(205L, 206L, 207L, 208L, 209L, 210L, 211L, 212L),
+                inserted.stream().map(VacancyTable::getCreated_at).toList());
+    }
+
+    /**
+     * Test case for a save that fails after the pages were fetched.
+     * Ensures that the page validators are forgotten and the incremental refresh rewound, so the lost vacancies are
+     * fetched again.
+     */
+    @Test
+    void testFailedSave_ForgetsPageValidators() {
+        when(vacancyBatchWriter.write(anyList(), anyInt())).thenThrow(new QueryTimeoutException("timeout"));
+
+        vacancyService.loadAllPages();
+
+        assertThrows(QueryTimeoutException.class, () -> vacancyService.saveVacanciesToDBService());
+        verify(arbeitnowClient).forgetValidators();
+        verify(incrementalPageWalker).rewind();
+    }
+
+    /**
+     * Test case for a save that continues after the ingestion lease was lost.
+     * Ensures that no further batch is written and the page validators are forgotten.
+     */
+    @Test
+    void testLeaseLostDuringSave_StopsBeforeNextBatch() {
+        when(ingestionLease.isLeader()).thenReturn(true, false);
+
+        vacancyService.loadAllPages();
+
+        assertThrows(IllegalStateException.class, () -> vacancyService.saveVacanciesToDBService());
+        assertEquals(3, inserted.size());
+        verify(arbeitnowClient).forgetValidators();
+    }
+
+    /**
+     * @return a page of the upstream feed of 12 vacancies created from 212 down to 201, newest first
+     */
+    private static PageResult page(int page) {
+        long first = 212 - (long) (page - 1) * PAGE_SIZE;
+
+        return PageResult.fetched(page, IntStream.range(0, PAGE_SIZE)
+                .mapToObj(i -> VacancyTable.builder()
+                        .url(STR."https://example.com/\{first - i}")
+                        .created_at(first - i)
+                        .build())
+                .toList());
+    }
+
+}
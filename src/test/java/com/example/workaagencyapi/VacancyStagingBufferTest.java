@@ -0,0 +1,131 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.ingestion.VacancyStagingBuffer;
+import com.example.workaagencyapi.tables.VacancyTable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the VacancyStagingBuffer.
+ */
+class VacancyStagingBufferTest {
+
+    @Mock
+    private ConfigLoader configLoader;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private VacancyStagingBuffer stagingBuffer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(configLoader.getStagingBufferCapacity()).thenReturn(3);
+        when(configLoader.getStagingOfferTimeout()).thenReturn(1L);
+
+        meterRegistry = new SimpleMeterRegistry();
+        stagingBuffer = new VacancyStagingBuffer(configLoader, meterRegistry);
+    }
+
+    /**
+     * Test case for a producer that outruns the buffer capacity.
+     * Ensures that the overflow action drains the buffer and no vacancy is lost.
+     */
+    @Test
+    void testOverflowRunsOverflowActionWithoutLosingVacancies() {
+        List<VacancyTable> saved = new ArrayList<>();
+
+        IntStream.range(0, 10).forEach(i -> stagingBuffer.put(vacancy(i), () -> saved.addAll(stagingBuffer.drain(2))));
+        saved.addAll(stagingBuffer.drain(100));
+
+        assertEquals(10, saved.size());
+        assertEquals(IntStream.range(0, 10).mapToObj(i -> STR."https://example.com/\{i}").toList(),
+                saved.stream().map(VacancyTable::getUrl).toList());
+        assertTrue(stagingBuffer.getOverflowCount() > 0);
+        assertEquals(0, stagingBuffer.getDropCount());
+        assertEquals(0, stagingBuffer.depth());
+    }
+
+    /**
+     * Test case for draining in batches.
+     * Ensures that each drain returns at most the requested number of vacancies and the depth gauge follows.
+     */
+    @Test
+    void testDrainReturnsBoundedBatches() {
+        IntStream.range(0, 3).forEach(i -> stagingBuffer.put(vacancy(i), () -> {}));
+
+        assertEquals(3, meterRegistry.get("ingestion.staging.depth").gauge().value());
+        assertEquals(2, stagingBuffer.drain(2).size());
+        assertEquals(1, stagingBuffer.drain(2).size());
+        assertEquals(0, stagingBuffer.drain(2).size());
+        assertEquals(0, meterRegistry.get("ingestion.staging.depth").gauge().value());
+    }
+
+    /**
+     * Test case for an interrupted producer.
+     * Ensures that the abandoned vacancy is counted as dropped.
+     */
+    @Test
+    void testInterruptedProducerCountsDrop() {
+        IntStream.range(0, 3).forEach(i -> stagingBuffer.put(vacancy(i), () -> {}));
+
+        Thread.currentThread().interrupt();
+        stagingBuffer.put(vacancy(3), () -> {});
+
+        assertTrue(Thread.interrupted());
+        assertEquals(1, stagingBuffer.getDropCount());
+        assertEquals(1.0, meterRegistry.get("ingestion.staging.drops").functionCounter().count());
+        assertEquals(3, stagingBuffer.depth());
+    }
+
+    /**
+     * Test case for concurrent producers and a concurrent saver.
+     * Ensures that every vacancy is drained exactly once.
+     */
+    @Test
+    void testConcurrentProducersAndSaver() throws InterruptedException {
+        Set<String> saved = ConcurrentHashMap.newKeySet();
+        CountDownLatch done = new CountDownLatch(4);
+
+        for (int producer = 0; producer < 4; producer++) {
+            int offset = producer * 1000;
+
+            Thread.ofVirtual().start(() -> {
+                IntStream.range(offset, offset + 1000).forEach(i -> stagingBuffer.put(vacancy(i),
+                        () -> stagingBuffer.drain(2).forEach(v -> saved.add(v.getUrl()))));
+                done.countDown();
+            });
+        }
+
+        while (done.getCount() > 0) {
+            stagingBuffer.drain(2).forEach(v -> saved.add(v.getUrl()));
+        }
+        stagingBuffer.drain(100).forEach(v -> saved.add(v.getUrl()));
+
+        assertEquals(4000, saved.size());
+    }
+
+    private static VacancyTable vacancy(int i) {
+        return VacancyTable.builder().url(STR."https://example.com/\{i}").build();
+    }
+
+}
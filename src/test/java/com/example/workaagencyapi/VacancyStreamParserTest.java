@@ -0,0 +1,185 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.service.upstream.VacancyStreamParser;
+import com.example.workaagencyapi.tables.VacancyTable;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the VacancyStreamParser against a local stub of the job board API.
+ */
+class VacancyStreamParserTest {
+
+    private static final int PAGE_SIZE = 500;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final VacancyStreamParser parser = new VacancyStreamParser(objectMapper);
+
+    private HttpServer server;
+    private URL pageUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        byte[] page = buildPage(PAGE_SIZE).getBytes(StandardCharsets.UTF_8);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/job-board-api", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, page.length);
+
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(page);
+            }
+        });
+        server.start();
+
+        pageUrl = URI.create(STR."http://localhost:\{server.getAddress().getPort()}/api/job-board-api?page=1").toURL();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    /**
+     * Test case for parsing a page served by the stub server.
+     * Ensures that every element of "data" is mapped in order and that other fields are skipped.
+     */
+    @Test
+    void testParse_MapsEveryVacancyOfDataArray() throws IOException {
+        List<VacancyTable> vacancies = new ArrayList<>();
+
+        int count = parser.parse(openStream(), vacancies::add);
+
+        assertEquals(PAGE_SIZE, count);
+        assertEquals(PAGE_SIZE, vacancies.size());
+
+        VacancyTable first = vacancies.getFirst();
+        assertEquals("developer-0", first.getSlug());
+        assertEquals("Company 0", first.getCompany_name());
+        assertEquals("https://www.arbeitnow.com/jobs/developer-0", first.getUrl());
+        assertArrayEquals(new String[]{"java", "spring"}, first.getTags());
+        assertEquals("Berlin", first.getLocation());
+        assertTrue(first.isRemote());
+        assertEquals(1_700_000_000L, first.getCreated_at());
+        assertEquals("developer-499", vacancies.getLast().getSlug());
+    }
+
+    /**
+     * Test case for parsing a page without vacancies.
+     * Ensures that nothing is handed to the consumer.
+     */
+    @Test
+    void testParse_EmptyDataArray() throws IOException {
+        List<VacancyTable> vacancies = new ArrayList<>();
+        InputStream body = new ByteArrayInputStream(
+                "{\"data\":[],\"links\":{\"next\":null},\"meta\":{\"current_page\":7}}".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(0, parser.parse(body, vacancies::add));
+        assertTrue(vacancies.isEmpty());
+    }
+
+    /**
+     * Allocation comparison between the streaming parser and the previous String/JsonNode path.
+     * Ensures that streaming a page allocates less than buffering it as a String and a tree.
+     */
+    @Test
+    void testParse_AllocatesLessThanTreeParsing() throws IOException {
+        // Warm up both paths so class loading and JIT do not skew the measurement.
+        for (int i = 0; i < 3; i++) {
+            parseWithTree();
+            parser.parse(openStream(), _ -> { });
+        }
+
+        long treeAllocated = allocatedBytes(() -> assertEquals(PAGE_SIZE, parseWithTree().size()));
+        long streamAllocated = allocatedBytes(() -> assertEquals(PAGE_SIZE, parser.parse(openStream(), _ -> { })));
+
+        assertTrue(streamAllocated < treeAllocated,
+                () -> STR."Allocated bytes per page: tree=\{treeAllocated}, streaming=\{streamAllocated}");
+    }
+
+    private InputStream openStream() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) pageUrl.openConnection();
+        connection.setRequestMethod("GET");
+
+        return connection.getInputStream();
+    }
+
+    /**
+     * The parsing path used before the streaming parser: body buffered line by line into a String,
+     * read into a JsonNode tree and converted node by node.
+     */
+    private List<VacancyTable> parseWithTree() throws IOException {
+        List<VacancyTable> vacancies = new ArrayList<>();
+        StringBuilder inline = new StringBuilder();
+
+        try (Scanner scanner = new Scanner(openStream())) {
+            while (scanner.hasNext()) {
+                inline.append(scanner.nextLine());
+            }
+        }
+
+        JsonNode root = objectMapper.readTree(inline.toString());
+
+        for (JsonNode node : root.path("data")) {
+            vacancies.add(objectMapper.treeToValue(node, VacancyTable.class));
+        }
+
+        return vacancies;
+    }
+
+    private static long allocatedBytes(IOAction action) throws IOException {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        long before = threadBean.getCurrentThreadAllocatedBytes();
+        action.run();
+
+        return threadBean.getCurrentThreadAllocatedBytes() - before;
+    }
+
+    private static String buildPage(int size) {
+        StringBuilder page = new StringBuilder("{\"data\":[");
+        String description = "<p>" + "We are looking for an experienced developer. ".repeat(40) + "</p>";
+
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                page.append(',');
+            }
+
+            page.append(STR."""
+                    {"slug":"developer-\{i}","company_name":"Company \{i}","title":"Developer \{i}",\
+                    "description":"\{description}","remote":true,\
+                    "url":"https://www.arbeitnow.com/jobs/developer-\{i}","tags":["java","spring"],\
+                    "job_types":["full time"],"location":"Berlin","created_at":1700000000}""");
+        }
+
+        return page.append("],\"links\":{\"next\":null},\"meta\":{\"current_page\":1}}").toString();
+    }
+
+    @FunctionalInterface
+    private interface IOAction {
+        void run() throws IOException;
+    }
+
+}
@@ -0,0 +1,148 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.dto.VacancySummary;
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.service.configloader.ConfigLoader;
+import com.example.workaagencyapi.service.stream.VacancyStream;
+import com.example.workaagencyapi.tables.VacancyTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the VacancyStream.
+ */
+class VacancyStreamTest {
+
+    @Mock
+    private VacanciesRepository vacanciesRepository;
+
+    @Mock
+    private ConfigLoader configLoader;
+
+    private final List<Runnable> senders = new ArrayList<>();
+
+    private VacancyStream vacancyStream;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(configLoader.getStreamBufferSize()).thenReturn(3);
+        when(vacanciesRepository.findMaxId()).thenReturn(10);
+
+        vacancyStream = new VacancyStream(vacanciesRepository, configLoader, senders::add);
+        vacancyStream.initialize();
+    }
+
+    /**
+     * Test case for a new subscriber.
+     * Ensures that only the vacancies saved after subscribing are sent, in id order.
+     */
+    @Test
+    void testSubscribe_SendsNewVacancies() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        vacancyStream.register(emitter, null);
+
+        vacancyStream.onVacanciesSaved(vacancies(11, 12));
+        runSenders();
+        vacancyStream.onVacanciesSaved(vacancies(13));
+        runSenders();
+
+        assertEquals(List.of(11, 12, 13), emitter.ids);
+        assertFalse(emitter.completed);
+    }
+
+    /**
+     * Test case for a subscriber resuming from an event older than the ring.
+     * Ensures that the missed vacancies are read from the database before the ones held by the ring.
+     */
+    @Test
+    void testRegister_ResumesFromDatabase() {
+        vacancyStream.onVacanciesSaved(vacancies(11, 12, 13, 14));
+        when(vacanciesRepository.findSummariesByIdGreaterThan(eq(8), any(Limit.class)))
+                .thenReturn(IntStream.rangeClosed(9, 14).mapToObj(VacancyStreamTest::summary).toList());
+        when(vacanciesRepository.findSummariesByIdGreaterThan(eq(14), any(Limit.class))).thenReturn(List.of());
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        vacancyStream.register(emitter, 8);
+        runSenders();
+        vacancyStream.onVacanciesSaved(vacancies(15));
+        runSenders();
+
+        assertEquals(List.of(9, 10, 11, 12, 13, 14, 15), emitter.ids);
+    }
+
+    /**
+     * Test case for a subscriber falling behind the ring.
+     * Ensures that it is disconnected instead of buffering the events it missed.
+     */
+    @Test
+    void testSlowSubscriber_IsDisconnected() {
+        RecordingEmitter slow = new RecordingEmitter();
+        vacancyStream.register(slow, null);
+        vacancyStream.onVacanciesSaved(vacancies(11));
+        runSenders();
+
+        vacancyStream.onVacanciesSaved(vacancies(12, 13, 14, 15));
+        runSenders();
+
+        assertEquals(List.of(11), slow.ids);
+        assertTrue(slow.completed);
+        assertEquals(0, vacancyStream.getSubscriberCount());
+    }
+
+    private void runSenders() {
+        while (!senders.isEmpty()) {
+            senders.removeFirst().run();
+        }
+    }
+
+    private static List<VacancyTable> vacancies(int... ids) {
+        return IntStream.of(ids)
+                .mapToObj(id -> VacancyTable.builder().id(id).title(STR."Vacancy \{id}").build())
+                .toList();
+    }
+
+    private static VacancySummary summary(int id) {
+        return new VacancySummary(id, null, null, STR."Vacancy \{id}", false, null, null, null, null, 0);
+    }
+
+    /**
+     * Emitter recording the ids of the vacancies sent, without a servlet response.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<Integer> ids = new ArrayList<>();
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            builder.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .filter(VacancySummary.class::isInstance)
+                    .forEach(data -> ids.add(((VacancySummary) data).id()));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+    }
+
+}
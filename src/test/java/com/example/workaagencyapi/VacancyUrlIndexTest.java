@@ -0,0 +1,107 @@
+package com.example.workaagencyapi;
+/**
+ * <==================================>
+ * Copyright (c) 2024 Ilya Sukhina.*
+ * <=================================>
+ */
+
+import com.example.workaagencyapi.repositories.VacanciesRepository;
+import com.example.workaagencyapi.service.dedup.VacancyUrlIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the VacancyUrlIndex.
+ */
+class VacancyUrlIndexTest {
+
+    @Mock
+    private VacanciesRepository vacanciesRepository;
+
+    private VacancyUrlIndex vacancyUrlIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        when(vacanciesRepository.findUrlsByIdUpTo(anyInt())).thenReturn(List.of("https://example.com/1", "https://example.com/2"));
+
+        vacancyUrlIndex = new VacancyUrlIndex(vacanciesRepository);
+    }
+
+    /**
+     * Test case for lookups after the index is loaded and a vacancy is saved.
+     * Ensures that stored and saved URLs are found, and that unknown and null URLs are not.
+     */
+    @Test
+    void testContains_StoredAndAddedUrls() {
+        vacancyUrlIndex.load(Integer.MAX_VALUE);
+        vacancyUrlIndex.add("https://example.com/3");
+        vacancyUrlIndex.add(null);
+
+        assertTrue(vacancyUrlIndex.contains("https://example.com/1"));
+        assertTrue(vacancyUrlIndex.contains("https://example.com/3"));
+        assertFalse(vacancyUrlIndex.contains("https://example.com/4"));
+        assertFalse(vacancyUrlIndex.contains(null));
+        assertEquals(3, vacancyUrlIndex.size());
+    }
+
+    /**
+     * Test case for lookups that find and do not find the URL.
+     * Ensures that each lookup is counted once, as a hit or a miss.
+     */
+    @Test
+    void testContains_CountsHitsAndMisses() {
+        vacancyUrlIndex.load(Integer.MAX_VALUE);
+
+        vacancyUrlIndex.contains("https://example.com/1");
+        vacancyUrlIndex.contains("https://example.com/2");
+        vacancyUrlIndex.contains("https://example.com/4");
+
+        assertEquals(2, vacancyUrlIndex.getHits());
+        assertEquals(1, vacancyUrlIndex.getMisses());
+    }
+
+    /**
+     * Test case for a vacancy saved while a resync is loading the database snapshot.
+     * Ensures that its URL is merged into the new snapshot instead of being lost when the index is swapped.
+     */
+    @Test
+    void testResync_MergesUrlsAddedWhileLoading() {
+        when(vacanciesRepository.findUrlsByIdUpTo(anyInt())).thenAnswer(_ -> {
+            vacancyUrlIndex.add("https://example.com/3");
+
+            return List.of("https://example.com/1", "https://example.com/2");
+        });
+
+        vacancyUrlIndex.resync();
+
+        assertTrue(vacancyUrlIndex.contains("https://example.com/3"));
+        assertEquals(3, vacancyUrlIndex.size());
+    }
+
+    /**
+     * Test case for a resync after a URL was removed from the database outside of this instance.
+     * Ensures that the index follows the database, and that URLs added before the resync are not kept over it.
+     */
+    @Test
+    void testResync_ReplacesIndexWithDatabaseSnapshot() {
+        vacancyUrlIndex.load(Integer.MAX_VALUE);
+        vacancyUrlIndex.add("https://example.com/3");
+        when(vacanciesRepository.findUrlsByIdUpTo(anyInt())).thenReturn(List.of("https://example.com/2"));
+
+        vacancyUrlIndex.resync();
+
+        assertFalse(vacancyUrlIndex.contains("https://example.com/1"));
+        assertFalse(vacancyUrlIndex.contains("https://example.com/3"));
+        assertTrue(vacancyUrlIndex.contains("https://example.com/2"));
+        assertEquals(1, vacancyUrlIndex.size());
+    }
+
+}